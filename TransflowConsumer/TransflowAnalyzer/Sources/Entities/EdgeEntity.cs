@@ -2,8 +2,6 @@
 {
     public class EdgeEntity : TimeSeriesData
     {
-        public int? LaneCount { get; set; }
-        public string? StreetName { get; set; }
         public double? SumCo2MgPerSecond { get; set; }
         public double? SumCoMgPerSecond { get; set; }
         public double? SumHcMgPerSecond { get; set; }
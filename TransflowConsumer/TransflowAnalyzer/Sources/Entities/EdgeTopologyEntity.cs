@@ -0,0 +1,8 @@
+﻿namespace TransflowAnalyzer.Sources.Entities
+{
+    public class EdgeTopologyEntity : TimeSeriesData
+    {
+        public int? LaneCount { get; set; }
+        public string? StreetName { get; set; }
+    }
+}
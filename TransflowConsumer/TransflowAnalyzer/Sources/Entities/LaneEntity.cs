@@ -2,13 +2,6 @@
 {
     public class LaneEntity : TimeSeriesData
     {
-        public string? EdgeId { get; set; }
-        public string[] AllowedVehicleTypes { get; set; } = [];
-        public string[] DisallowedVehicleTypes { get; set; } = [];
-        public double? Length { get; set; }
-        public double? Width { get; set; }
-        public List<double[]> Shape { get; set; } = [];
-        public double? MaxSpeed { get; set; }
         public double? SumCo2MgPerSecond { get; set; }
         public double? SumCoMgPerSecond { get; set; }
         public double? SumHcMgPerSecond { get; set; }
@@ -25,8 +18,5 @@
         public double? SumWaitingTime { get; set; }
         public double? CurrentTravelDuration { get; set; }
         public int? HaltingVehiclesCount { get; set; }
-        public string[] LaneChangeAllowedLeft { get; set; } = [];
-        public string[] LaneChangeAllowedRight { get; set; } = [];
-        public LinkEntity[] Links { get; set; } = [];
     }
 }
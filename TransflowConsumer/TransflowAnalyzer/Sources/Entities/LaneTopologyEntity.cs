@@ -0,0 +1,16 @@
+﻿namespace TransflowAnalyzer.Sources.Entities
+{
+    public class LaneTopologyEntity : TimeSeriesData
+    {
+        public string? EdgeId { get; set; }
+        public string[] AllowedVehicleTypes { get; set; } = [];
+        public string[] DisallowedVehicleTypes { get; set; } = [];
+        public double? Length { get; set; }
+        public double? Width { get; set; }
+        public List<double[]> Shape { get; set; } = [];
+        public double? MaxSpeed { get; set; }
+        public string[] LaneChangeAllowedLeft { get; set; } = [];
+        public string[] LaneChangeAllowedRight { get; set; } = [];
+        public LinkEntity[] Links { get; set; } = [];
+    }
+}
@@ -66,6 +66,10 @@ namespace TransflowAnalyzer.Sources.Messaging
                 {
                     await _mqttClient.SubscribeAsync(topic, MqttQualityOfServiceLevel.AtLeastOnce, stoppingToken);
                 }
+
+                // static network data is published once per simulation run as retained messages
+                await _mqttClient.SubscribeAsync($"{_parameters.RootTopic}/+/network/#",
+                    MqttQualityOfServiceLevel.AtLeastOnce, stoppingToken);
             }
             catch (Exception exp)
             {
@@ -78,28 +82,25 @@ namespace TransflowAnalyzer.Sources.Messaging
         {
             try
             {
-                SimDataTopic topicData = ParseTopic(args.ApplicationMessage.Topic);
+                if (NetworkTopicRegex().IsMatch(args.ApplicationMessage.Topic))
+                {
+                    AcceptNetworkMessage(args);
+                    return Task.CompletedTask;
+                }
+
+                SimDataTopic topicData = ParseTopic(args.ApplicationMessage.Topic, TopicRegex());
 
                 switch (topicData.Domain)
                 {
                     case Domain.Vehicles:
                         ParseAndStore<VehicleEntity>(args.ApplicationMessage.PayloadSegment, topicData.SimulationId, topicData.Time);
                         break;
-                    case Domain.VehicleTypes:
-                        ParseAndStore<VehicleTypeEntity>(args.ApplicationMessage.PayloadSegment, topicData.SimulationId, topicData.Time);
-                        break;
                     case Domain.Edges:
                         ParseAndStore<EdgeEntity>(args.ApplicationMessage.PayloadSegment, topicData.SimulationId, topicData.Time);
                         break;
                     case Domain.Lanes:
                         ParseAndStore<LaneEntity>(args.ApplicationMessage.PayloadSegment, topicData.SimulationId, topicData.Time);
                         break;
-                    case Domain.Junctions:
-                        ParseAndStore<JunctionEntity>(args.ApplicationMessage.PayloadSegment, topicData.SimulationId, topicData.Time);
-                        break;
-                    case Domain.Routes:
-                        ParseAndStore<RouteEntity>(args.ApplicationMessage.PayloadSegment, topicData.SimulationId, topicData.Time);
-                        break;
                     default:
                         throw new TopicParseException(args.ApplicationMessage.Topic,
                         $"Unrecognized metric domain '{topicData.Domain}'");
@@ -113,6 +114,34 @@ namespace TransflowAnalyzer.Sources.Messaging
             return Task.CompletedTask;
         }
 
+        // static network data arrives as arrays (frames) of entities, which do not belong to any time step
+        private void AcceptNetworkMessage(MqttApplicationMessageReceivedEventArgs args)
+        {
+            SimDataTopic topicData = ParseTopic(args.ApplicationMessage.Topic, NetworkTopicRegex());
+
+            switch (topicData.Domain)
+            {
+                case Domain.Lanes:
+                    ParseAndStoreFrame<LaneTopologyEntity>(args.ApplicationMessage.PayloadSegment, topicData.SimulationId);
+                    break;
+                case Domain.Edges:
+                    ParseAndStoreFrame<EdgeTopologyEntity>(args.ApplicationMessage.PayloadSegment, topicData.SimulationId);
+                    break;
+                case Domain.Junctions:
+                    ParseAndStoreFrame<JunctionEntity>(args.ApplicationMessage.PayloadSegment, topicData.SimulationId);
+                    break;
+                case Domain.Routes:
+                    ParseAndStoreFrame<RouteEntity>(args.ApplicationMessage.PayloadSegment, topicData.SimulationId);
+                    break;
+                case Domain.VehicleTypes:
+                    ParseAndStoreFrame<VehicleTypeEntity>(args.ApplicationMessage.PayloadSegment, topicData.SimulationId);
+                    break;
+                default:
+                    throw new TopicParseException(args.ApplicationMessage.Topic,
+                    $"Unrecognized network domain '{topicData.Domain}'");
+            }
+        }
+
         // these warnings are false positives according to https://stackoverflow.com/a/78579373/18284107
         [System.Diagnostics.CodeAnalysis.SuppressMessage("Trimming", "IL2026:Members annotated with 'RequiresUnreferencedCodeAttribute' require dynamic access otherwise can break functionality when trimming application code", Justification = "<Pending>")]
         [System.Diagnostics.CodeAnalysis.SuppressMessage("AOT", "IL3050:Calling members annotated with 'RequiresDynamicCodeAttribute' may break functionality when AOT compiling.", Justification = "<Pending>")]
@@ -128,11 +157,27 @@ namespace TransflowAnalyzer.Sources.Messaging
             }
         }
 
-        private static SimDataTopic ParseTopic(string topic)
+        [System.Diagnostics.CodeAnalysis.SuppressMessage("Trimming", "IL2026:Members annotated with 'RequiresUnreferencedCodeAttribute' require dynamic access otherwise can break functionality when trimming application code", Justification = "<Pending>")]
+        [System.Diagnostics.CodeAnalysis.SuppressMessage("AOT", "IL3050:Calling members annotated with 'RequiresDynamicCodeAttribute' may break functionality when AOT compiling.", Justification = "<Pending>")]
+        private void ParseAndStoreFrame<T>(ReadOnlySpan<byte> utf8json, string simulationId)
+            where T : TimeSeriesData, new()
+        {
+            List<T>? frame = JsonSerializer.Deserialize<List<T>>(utf8json, _jsonOptions);
+            if (frame is null) return;
+
+            var database = _storage.GetOrCreateDatabase(simulationId);
+            foreach (T entity in frame)
+            {
+                entity.TimeStep = 0;
+                database.Add(entity);
+            }
+        }
+
+        private static SimDataTopic ParseTopic(string topic, Regex topicRegex)
         {
             try
             {
-                Match match = TopicRegex().Match(topic);
+                Match match = topicRegex.Match(topic);
 
                 if (match.Success)
                 {
@@ -142,7 +187,7 @@ namespace TransflowAnalyzer.Sources.Messaging
                     return new SimDataTopic(
                         match.Groups["sim"].Value,
                         domain,
-                        long.Parse(match.Groups["time"].Value)
+                        match.Groups["time"].Success ? long.Parse(match.Groups["time"].Value) : 0
                     );
                 }
                 else
@@ -158,5 +203,8 @@ namespace TransflowAnalyzer.Sources.Messaging
 
         [GeneratedRegex("^sim/(?<sim>[^/]+)/metrics/(?<domain>[^/]+)/(?<time>[^/]+)$")]
         private static partial Regex TopicRegex();
+
+        [GeneratedRegex("^sim/(?<sim>[^/]+)/network/(?<domain>[^/]+)/(?<frame>[0-9]+)$")]
+        private static partial Regex NetworkTopicRegex();
     }
 }
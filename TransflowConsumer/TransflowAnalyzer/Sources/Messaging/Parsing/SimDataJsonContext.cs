@@ -10,6 +10,11 @@ namespace TransflowAnalyzer.Sources.Messaging
     [JsonSerializable(typeof(EdgeEntity))]
     [JsonSerializable(typeof(JunctionEntity))]
     [JsonSerializable(typeof(RouteEntity))]
+    [JsonSerializable(typeof(List<LaneTopologyEntity>))]
+    [JsonSerializable(typeof(List<EdgeTopologyEntity>))]
+    [JsonSerializable(typeof(List<JunctionEntity>))]
+    [JsonSerializable(typeof(List<RouteEntity>))]
+    [JsonSerializable(typeof(List<VehicleTypeEntity>))]
     public partial class SimDataJsonContext : JsonSerializerContext
     {
     }
@@ -2,6 +2,8 @@ package at.fhv.transflow.simulation;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 
@@ -71,4 +73,20 @@ public abstract class AppConfig {
                 }
             });
     }
+
+    /**
+     * Get every property whose name starts with the given prefix from the currently loaded configuration properties.
+     * @param prefix The common prefix of the requested properties including a trailing dot (e.g. "admin.").
+     * @return A map of the property names without the prefix (e.g. "username") to their string values.<br>
+     * The map is empty if no property with the given prefix could be found.
+     */
+    public static Map<String, String> getPropertiesWithPrefix(String prefix) {
+        Map<String, String> prefixedProperties = new HashMap<>();
+        for (String propertyName : properties.stringPropertyNames()) {
+            if (propertyName.startsWith(prefix)) {
+                prefixedProperties.put(propertyName.substring(prefix.length()), properties.getProperty(propertyName));
+            }
+        }
+        return prefixedProperties;
+    }
 }
\ No newline at end of file
@@ -2,20 +2,36 @@ package at.fhv.transflow.simulation;
 
 import at.fhv.transflow.simulation.cli.ErrorCode;
 import at.fhv.transflow.simulation.messaging.stdout.StandardOutputService;
+import at.fhv.transflow.simulation.sumo.EmissionGrid;
+import at.fhv.transflow.simulation.sumo.RegionOfInterest;
 import at.fhv.transflow.simulation.sumo.SimulationOptions;
+import at.fhv.transflow.simulation.sumo.TrajectoryFilter;
 import at.fhv.transflow.simulation.cli.SimulationOptionsParser;
 import at.fhv.transflow.simulation.cli.SystemError;
+import at.fhv.transflow.simulation.messaging.CompressingMessagingService;
 import at.fhv.transflow.simulation.messaging.IMessagingService;
 import at.fhv.transflow.simulation.messaging.MessagingException;
+import at.fhv.transflow.simulation.messaging.mqtt.AsyncMqttService;
 import at.fhv.transflow.simulation.messaging.mqtt.MqttService;
+import at.fhv.transflow.simulation.messaging.mqtt.ShardedMqttService;
 import at.fhv.transflow.simulation.sumo.SumoConfigurationException;
 import at.fhv.transflow.simulation.sumo.SumoController;
 import at.fhv.transflow.simulation.sumo.SumoSimulation;
+import at.fhv.transflow.simulation.sumo.TrafficQuantiles;
+import at.fhv.transflow.simulation.sumo.TripTracker;
+import at.fhv.transflow.simulation.utils.BoundedWorkQueue.OverflowPolicy;
 import org.eclipse.paho.mqttv5.client.MqttConnectionOptions;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 
 public class RunSim {
@@ -46,6 +62,149 @@ public class RunSim {
                 new SystemError(ErrorCode.NO_MQTT_CLIENT_ID));
             // set some additional options for the MQTT connection
             MqttConnectionOptions mqttOptions = new MqttConnectionOptions();
+            // publish asynchronously with the given number of unacknowledged messages at a time (if configured)
+            Optional<Integer> maxInFlight;
+            try {
+                maxInFlight = AppConfig.getProperty("mqtt.async.maxInFlight").map(Integer::parseInt);
+            } catch (NumberFormatException exp) {
+                throw new SystemError(ErrorCode.INVALID_APP_CONFIG,
+                    "In-flight window of asynchronous MQTT publishing must be a number! " + exp.getMessage());
+            }
+            // publish over the given number of connections, each with its own client ID (if configured)
+            int mqttConnections;
+            try {
+                mqttConnections = AppConfig.getProperty("mqtt.connections").map(Integer::parseInt).orElse(1);
+            } catch (NumberFormatException exp) {
+                throw new SystemError(ErrorCode.INVALID_APP_CONFIG,
+                    "Number of MQTT connections must be a number! " + exp.getMessage());
+            }
+            if (mqttConnections < 1) {
+                throw new SystemError(ErrorCode.INVALID_APP_CONFIG,
+                    "At least one MQTT connection is required! Given: " + mqttConnections);
+            }
+            ShardedMqttService.Connector mqttConnector = clientId -> maxInFlight.isPresent()
+                ? new AsyncMqttService(mqttBroker, clientId, mqttOptions, maxInFlight.get())
+                : new MqttService(mqttBroker, clientId, mqttOptions);
+
+            if (options.isChangeOnlyPublishing()) {
+                // optional deadbands per field for change-only publishing, e.g. publish.deadband.meanVehicleSpeed=0.5
+                Map<String, Double> deadbands = new HashMap<>();
+                for (var deadband : AppConfig.getPropertiesWithPrefix("publish.deadband.").entrySet()) {
+                    try {
+                        deadbands.put(deadband.getKey(), Double.parseDouble(deadband.getValue()));
+                    } catch (NumberFormatException exp) {
+                        throw new SystemError(ErrorCode.INVALID_APP_CONFIG,
+                            "Deadband of field '" + deadband.getKey() + "' is not a number: " + deadband.getValue());
+                    }
+                }
+                options.setDeadbands(deadbands);
+            }
+
+            if (options.isQuantizing()) {
+                // optional resolutions per field for quantized publishing, e.g. publish.quantize.SPEED=0.1
+                Map<String, Double> resolutions = new HashMap<>(options.getQuantizationResolutions());
+                for (var resolution : AppConfig.getPropertiesWithPrefix("publish.quantize.").entrySet()) {
+                    try {
+                        double value = Double.parseDouble(resolution.getValue());
+                        if (!(value > 0)) throw new NumberFormatException();
+                        resolutions.put(resolution.getKey(), value);
+                    } catch (NumberFormatException exp) {
+                        throw new SystemError(ErrorCode.INVALID_APP_CONFIG, "Resolution of field '" +
+                            resolution.getKey() + "' is not a positive number: " + resolution.getValue());
+                    }
+                }
+                options.setQuantizationResolutions(resolutions);
+            }
+
+            if (options.isCompressing()) {
+                // optional compression level and dictionary, e.g. publish.compression.dictionarySamples=100
+                try {
+                    AppConfig.getProperty("publish.compression.level").map(Integer::parseInt)
+                        .ifPresent(options::setCompressionLevel);
+                    AppConfig.getProperty("publish.compression.dictionarySamples").map(Integer::parseInt)
+                        .ifPresent(options::setDictionarySamples);
+                } catch (NumberFormatException exp) {
+                    throw new SystemError(ErrorCode.INVALID_APP_CONFIG,
+                        "Compression level and dictionary samples must be numbers! " + exp.getMessage());
+                }
+                if (options.getCompressionLevel() < 0 || options.getCompressionLevel() > 9) {
+                    throw new SystemError(ErrorCode.INVALID_APP_CONFIG,
+                        "Compression level must be within [0, 9]! Given: " + options.getCompressionLevel());
+                }
+                if (options.getDictionarySamples() > 0 && !options.getCompressionCodec().supportsDictionary()) {
+                    throw new SystemError(ErrorCode.INVALID_APP_CONFIG,
+                        "Codec " + options.getCompressionCodec() + " does not support dictionaries!");
+                }
+            }
+
+            // optional limits of the queue of messages waiting to be published
+            try {
+                AppConfig.getProperty("publish.queue.capacity").map(Integer::parseInt)
+                    .ifPresent(options::setPublishQueueCapacity);
+                AppConfig.getProperty("publish.queue.overflow").map(policy -> OverflowPolicy.valueOf(policy.toUpperCase()))
+                    .ifPresent(options::setPublishQueueOverflowPolicy);
+            } catch (IllegalArgumentException exp) {
+                throw new SystemError(ErrorCode.INVALID_APP_CONFIG,
+                    "Invalid publish queue configuration! Capacity must be a number and overflow policy one of " +
+                        Arrays.toString(OverflowPolicy.values()) + ". " + exp.getMessage());
+            }
+
+            // optional region of interest, e.g. roi.boundingBox=0,0,1500,800 or roi.polygon=0,0 1500,0 750,800
+            // and/or roi.edges=E1,E2 - data is only collected for the part of the network within this region
+            try {
+                options.setRegionOfInterest(RegionOfInterest.parse(AppConfig.getProperty("roi.boundingBox").orElse(null),
+                    AppConfig.getProperty("roi.polygon").orElse(null), AppConfig.getProperty("roi.edges").orElse(null)));
+            } catch (IllegalArgumentException exp) {
+                throw new SystemError(ErrorCode.INVALID_APP_CONFIG, "Invalid region of interest! " + exp.getMessage());
+            }
+
+            // optional directory of the checkpoints saved by (and resumed from) every simulation
+            AppConfig.getProperty("checkpoint.dir").map(Paths::get).ifPresent(options::setCheckpointDirectory);
+
+            // optional publish intervals and field projections per domain, command-line arguments take precedence
+            // e.g. publish.interval.lanes=5 or publish.fields.vehicles=SPEED,POSITION,ROAD_ID
+            for (var interval : AppConfig.getPropertiesWithPrefix("publish.interval.").entrySet()) {
+                if (!options.getPublishIntervals().containsKey(interval.getKey())) {
+                    options.setPublishInterval(interval.getKey(), SimulationOptionsParser.parsePublishInterval(
+                        interval.getKey(), interval.getValue(), ErrorCode.INVALID_APP_CONFIG));
+                }
+            }
+            boolean vehicleFieldsFromCli = options.getProjectedFields().containsKey("vehicles");
+            for (var fields : AppConfig.getPropertiesWithPrefix("publish.fields.").entrySet()) {
+                if (!options.getProjectedFields().containsKey(fields.getKey())) {
+                    options.setProjectedFields(fields.getKey(), SimulationOptionsParser.parseProjectedFields(
+                        fields.getKey(), fields.getValue(), ErrorCode.INVALID_APP_CONFIG));
+                }
+            }
+
+            // optional zones of the origin-destination matrix of trips, e.g. od.zone.center=E1,E2,E3
+            for (var zone : AppConfig.getPropertiesWithPrefix("od.zone.").entrySet()) {
+                options.setOdZone(zone.getKey(), Arrays.stream(zone.getValue().split(","))
+                    .map(String::trim)
+                    .filter(edgeId -> !edgeId.isEmpty())
+                    .collect(Collectors.toSet()));
+            }
+
+            // features computed from vehicle fields, which must not be projected away
+            Map<String, Set<String>> requiredVehicleFields = new LinkedHashMap<>();
+            if (options.isQuantilePublishing()) requiredVehicleFields.put("quantiles", TrafficQuantiles.VEHICLE_FIELDS);
+            if (options.isHeatmapPublishing()) requiredVehicleFields.put("heatmaps", EmissionGrid.VEHICLE_FIELDS);
+            if (options.isTrajectorySimplifying()) {
+                requiredVehicleFields.put("dead reckoning", TrajectoryFilter.VEHICLE_FIELDS);
+            }
+            if (options.isTripPublishing()) requiredVehicleFields.put("trips", TripTracker.VEHICLE_FIELDS);
+
+            Set<String> vehicleFields = options.getProjectedFields().get("vehicles");
+            for (var required : requiredVehicleFields.entrySet()) {
+                if (vehicleFields != null && !vehicleFields.containsAll(required.getValue())) {
+                    // the projection is either given on the command line or by the publish.fields.* properties
+                    throw new SystemError(vehicleFieldsFromCli
+                        ? ErrorCode.INVALID_CLI_ARGUMENTS
+                        : ErrorCode.INVALID_APP_CONFIG,
+                        "The vehicle fields " + required.getValue() + " are required for " + required.getKey() +
+                            " and must be published!");
+                }
+            }
 
 
             String rootTopic = AppConfig.getProperty("mqtt.topics.root").orElseThrow(() ->
@@ -55,11 +214,19 @@ public class RunSim {
 
 
             try (SumoSimulation simulation = new SumoSimulation(options);
-                 IMessagingService messenger = new MqttService(mqttBroker, mqttClientId, mqttOptions)) {
+                 IMessagingService messenger = mqttConnections > 1
+                     ? new ShardedMqttService(mqttClientId, mqttConnections, mqttConnector)
+                     : mqttConnector.connect(mqttClientId)) {
 //                 IMessagingService messenger = new StandardOutputService(false)) {
 
+                // payloads are compressed by the threads sending them, i.e. the publisher's workers
+                IMessagingService publisher = options.isCompressing()
+                    ? new CompressingMessagingService(messenger, options.getCompressionCodec(),
+                        options.getCompressionLevel(), options.getDictionarySamples(), rootTopic + "/dictionaries")
+                    : messenger;
+
                 // load the simulation and run it while continuously sending simulation metrics to the given messaging service
-                SumoController simController = new SumoController(simulation, messenger, options.hasCustomName());
+                SumoController simController = new SumoController(simulation, publisher, options);
                 simController.runSimulation(rootTopic, metricsTopic, options.getDelayMillis());
 
             } catch (MessagingException exp) {
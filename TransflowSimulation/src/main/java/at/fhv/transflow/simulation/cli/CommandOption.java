@@ -6,6 +6,26 @@ public enum CommandOption {
     STEP_INCREMENT("s", "step-increment"),
     STEP_TIME("t", "step-time"),
     SIM_NAME("n", "name"),
+    BATCH("b", "batch"),
+    PIPELINE("p", "pipeline"),
+    CHANGES_ONLY("c", "changes-only"),
+    FORMAT("f", "format"),
+    COLUMNAR("C", "columnar"),
+    ENCODE_IDS("e", "encode-ids"),
+    EVENTS("E", "events"),
+    AGGREGATE("A", "aggregate"),
+    QUANTILES("Q", "quantiles"),
+    TRIPS("T", "trips"),
+    HEATMAP("H", "heatmap"),
+    DEAD_RECKONING("D", "dead-reckoning"),
+    QUANTIZE("q", "quantize"),
+    COMPRESS("z", "compress"),
+    INTERVAL("I", "interval"),
+    FIELDS("F", "fields"),
+    WARM_UP("w", "warm-up"),
+    CHECKPOINT("k", "checkpoint"),
+    RESUME("r", "resume"),
+    LEADER_DISTANCE("L", "leader-distance"),
     HELP("h", "help");
 
 
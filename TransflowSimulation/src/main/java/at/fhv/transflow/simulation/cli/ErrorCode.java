@@ -9,6 +9,7 @@ public enum ErrorCode {
     NO_MQTT_METRICS_TOPIC(105, "Missing property 'mqtt.topics.metrics' in application properties!\nA valid subordinate topic for simulation metrics is required to publish simulation data to the MQTT broker."),
     INVALID_CLI_ARGUMENTS(120, "Invalid command line arguments!"),
     INVALID_SIM_PATH(125, "The given path to the simulation config (*.sumocfg) is not a valid file path."),
+    INVALID_CHECKPOINT(130, "Failed to resume the simulation run from its latest checkpoint!"),
 
     MESSAGING_SERVICE_UNREACHABLE(200, "Failed to establish a connection to the messaging service required to publish simulation data!"),
     EXECUTION_INTERRUPTED(500, "Execution of some program tasks were abruptly halted");
@@ -1,5 +1,8 @@
 package at.fhv.transflow.simulation.cli;
 
+import at.fhv.transflow.simulation.messaging.CompressionCodec;
+import at.fhv.transflow.simulation.messaging.PayloadFormat;
+import at.fhv.transflow.simulation.sumo.FieldProjection;
 import at.fhv.transflow.simulation.sumo.SimulationOptions;
 import org.apache.commons.cli.*;
 
@@ -8,11 +11,19 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static at.fhv.transflow.simulation.cli.CommandOption.*;
 
 
 public class SimulationOptionsParser extends DefaultParser {
+    private static final int DEFAULT_MAX_FRAME_KB = 256;
+    private static final int DEFAULT_PIPELINE_DEPTH = 2;
+    private static final int DEFAULT_KEYFRAME_INTERVAL = 60;
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 3600;
     private final HelpFormatter formatter = new HelpFormatter();
     private final Options options = new Options();
     private final String commandName;
@@ -56,6 +67,143 @@ public class SimulationOptionsParser extends DefaultParser {
             .build()
         );
 
+        options.addOption(Option.builder(BATCH.shortName).longOpt(BATCH.fullName)
+            .desc("Publishes all objects of a domain in a simulation step as a few JSON arrays (frames) instead of " +
+                "sending one message per object. If <max-kb> is given, a single frame will not exceed this size in " +
+                "kilobytes (default: " + DEFAULT_MAX_FRAME_KB + ").")
+            .hasArg().argName("max-kb").type(Integer.class).optionalArg(true)
+            .build()
+        );
+
+        options.addOption(Option.builder(PIPELINE.shortName).longOpt(PIPELINE.fullName)
+            .desc("Publishes the data of a simulation step in the background while SUMO already computes the next steps. " +
+                "If <depth> is given, at most this number of computed steps may wait for or be in the process of " +
+                "being published before the simulation pauses (default: " + DEFAULT_PIPELINE_DEPTH + ").")
+            .hasArg().argName("depth").type(Integer.class).optionalArg(true)
+            .build()
+        );
+
+        options.addOption(Option.builder(CHANGES_ONLY.shortName).longOpt(CHANGES_ONLY.fullName)
+            .desc("Publishes lanes and edges only if they have changed since they were published the last time. " +
+                "Every <keyframe-interval> steps, all of them are published regardless (default: " +
+                DEFAULT_KEYFRAME_INTERVAL + "). Deadbands for single fields can be set in the application properties " +
+                "(e.g. publish.deadband.meanVehicleSpeed=0.5).")
+            .hasArg().argName("keyframe-interval").type(Integer.class).optionalArg(true)
+            .build()
+        );
+
+        options.addOption(Option.builder(FORMAT.shortName).longOpt(FORMAT.fullName)
+            .desc("The payload format of the published data, one of " + Arrays.toString(PayloadFormat.values()) +
+                " (default: JSON). Binary formats like CBOR result in considerably smaller payloads.")
+            .hasArg().argName("format").type(String.class)
+            .build()
+        );
+
+        options.addOption(Option.builder(COMPRESS.shortName).longOpt(COMPRESS.fullName)
+            .desc("Compresses every payload with the given codec, one of " + Arrays.toString(CompressionCodec.values()) +
+                ". The level and a dictionary trained on the first payloads can be set in the application " +
+                "properties (e.g. publish.compression.level=6 and publish.compression.dictionarySamples=100).")
+            .hasArg().argName("codec").type(String.class)
+            .build()
+        );
+
+        options.addOption(COLUMNAR.shortName, COLUMNAR.fullName, false,
+            "Publishes every domain as a single message of columns (one array per property) per simulation step " +
+                "instead of one object per entity. Cannot be combined with change-only or batch publishing.");
+
+        options.addOption(ENCODE_IDS.shortName, ENCODE_IDS.fullName, false,
+            "Replaces the IDs of vehicles, lanes, edges, routes and vehicle types with integer codes in every " +
+                "simulation step. The codes are resolved by an ID table published as retained messages to the 'ids' topic.");
+
+        options.addOption(EVENTS.shortName, EVENTS.fullName, false,
+            "Publishes the departures, arrivals, teleports, collisions and emergency stops of vehicles in every " +
+                "simulation step to the 'events' topic. Requires a step increment of 1.");
+
+        options.addOption(Option.builder(INTERVAL.shortName).longOpt(INTERVAL.fullName)
+            .desc("Publishes a domain only every <steps> simulation steps (default: 1), or only in the first step if " +
+                "<steps> is 'once'. May be given once per domain, which is one of " + SimulationOptions.PUBLISH_DOMAINS +
+                ", e.g. -I lanes=5 -I vehicle_types=once.")
+            .numberOfArgs(2).valueSeparator('=').argName("domain=steps")
+            .build()
+        );
+
+        options.addOption(Option.builder(FIELDS.shortName).longOpt(FIELDS.fullName)
+            .desc("Subscribes and publishes only the given comma-separated fields of a domain (default: all fields). " +
+                "May be given once per domain, which is one of [vehicles, lanes, edges], e.g. -F vehicles=SPEED,POSITION.")
+            .numberOfArgs(2).valueSeparator('=').argName("domain=fields")
+            .build()
+        );
+
+        options.addOption(Option.builder(AGGREGATE.shortName).longOpt(AGGREGATE.fullName)
+            .desc("Publishes the mean, minimum, maximum and total over time of every numeric lane and edge property " +
+                "per window of <window> seconds of simulation time to the 'aggregates' topic. Windows slide every " +
+                "<slide> seconds, which must divide the window length (default: tumbling windows). Cannot be " +
+                "combined with -" + RESUME.shortName + ".")
+            .hasArg().argName("window[,slide]").type(String.class)
+            .build()
+        );
+
+        options.addOption(QUANTILES.shortName, QUANTILES.fullName, false,
+            "Publishes the 50th, 90th and 99th percentile of the vehicle speeds on every edge and lane as well as of " +
+                "the travel times and time losses of the vehicles passing every edge per aggregation window to the " +
+                "'quantiles' topic. Requires -" + AGGREGATE.shortName + ".");
+
+        options.addOption(TRIPS.shortName, TRIPS.fullName, false,
+            "Publishes the trip of every vehicle on its arrival to the 'trips' topic and keeps an origin-destination " +
+                "matrix between the zones configured in the application properties on the 'od' topic. Cannot be " +
+                "combined with -" + RESUME.shortName + ".");
+
+        options.addOption(Option.builder(HEATMAP.shortName).longOpt(HEATMAP.fullName)
+            .desc("Publishes the CO2, NOx and PMx emissions and the noise of every vehicle accumulated in a grid of " +
+                "cells with an edge length of <meters> per aggregation window to the 'heatmap' topic. Requires -" +
+                AGGREGATE.shortName + ", the windows are always tumbling.")
+            .hasArg().argName("meters").type(String.class)
+            .build()
+        );
+
+        options.addOption(Option.builder(DEAD_RECKONING.shortName).longOpt(DEAD_RECKONING.fullName)
+            .desc("Simplifies the trajectories of published vehicles by dead reckoning: a vehicle is only published " +
+                "again once its position deviates more than <meters> from the position extrapolated from its last two " +
+                "published positions, and always on departure and arrival.")
+            .hasArg().argName("meters").type(String.class)
+            .build()
+        );
+
+        options.addOption(Option.builder(QUANTIZE.shortName).longOpt(QUANTIZE.fullName)
+            .desc("Publishes positions, speeds and angles as integer multiples of 0.01m, 0.01m/s and 0.1deg. " +
+                "Resolutions of any numeric field can be set in the application properties " +
+                "(e.g. publish.quantize.SPEED=0.1). If a keyframe interval is given, columns are additionally " +
+                "delta-coded against the last published value of every entity, which requires -" + COLUMNAR.shortName +
+                ".")
+            .hasArg().argName("keyframe-interval").type(Integer.class).optionalArg(true)
+            .build()
+        );
+
+        options.addOption(Option.builder(WARM_UP.shortName).longOpt(WARM_UP.fullName)
+            .desc("Fast-forwards the simulation up to the simulation time of <seconds> as fast as possible before " +
+                "collecting any data. Nothing is subscribed, mapped or published during the warm-up.")
+            .hasArg().argName("seconds").type(Integer.class)
+            .build()
+        );
+
+        options.addOption(Option.builder(CHECKPOINT.shortName).longOpt(CHECKPOINT.fullName)
+            .desc("Saves a checkpoint of the simulation state every <steps> published simulation steps, which " +
+                "allows to resume the simulation run later on (default: " + DEFAULT_CHECKPOINT_INTERVAL + ").")
+            .hasArg().argName("steps").type(Integer.class).optionalArg(true)
+            .build()
+        );
+
+        options.addOption(RESUME.shortName, RESUME.fullName, false,
+            "Resumes the simulation run from the latest checkpoint of the simulation (if any) and keeps publishing " +
+                "to the topics of the resumed run.");
+
+        options.addOption(Option.builder(LEADER_DISTANCE.shortName).longOpt(LEADER_DISTANCE.fullName)
+            .desc("The maximum distance in meters up to which the leader of a vehicle is searched (default: 200). " +
+                "A distance of 0 disables the subscription of leaders, which saves the costly search in dense traffic.")
+            .hasArg().argName("meters").type(String.class)
+            .build()
+        );
+
         options.addOption(HELP.shortName, HELP.fullName, false,
             "Show this helpful usage summary for the command.");
     }
@@ -94,6 +242,202 @@ public class SimulationOptionsParser extends DefaultParser {
                 simOptions.setSimulationRunName(cmd.getOptionValue(SIM_NAME.shortName));
             }
 
+            if (cmd.hasOption(BATCH.shortName)) {
+                String optionalValue = cmd.getOptionValue(BATCH.shortName);
+                int maxFrameKb = optionalValue != null ? Integer.parseInt(optionalValue) : DEFAULT_MAX_FRAME_KB;
+                if (maxFrameKb < 1) {
+                    throw new SystemError(ErrorCode.INVALID_CLI_ARGUMENTS,
+                        "Maximum frame size must be a positive number of kilobytes! Given: " + maxFrameKb);
+                }
+                simOptions.setMaxFrameBytes(maxFrameKb * 1024);
+            }
+
+            if (cmd.hasOption(PIPELINE.shortName)) {
+                String optionalValue = cmd.getOptionValue(PIPELINE.shortName);
+                int pipelineDepth = optionalValue != null ? Integer.parseInt(optionalValue) : DEFAULT_PIPELINE_DEPTH;
+                if (pipelineDepth < 1) {
+                    throw new SystemError(ErrorCode.INVALID_CLI_ARGUMENTS,
+                        "Pipeline depth must be a positive number of steps! Given: " + pipelineDepth);
+                }
+                simOptions.setPipelineDepth(pipelineDepth);
+            }
+
+            if (cmd.hasOption(CHANGES_ONLY.shortName)) {
+                String optionalValue = cmd.getOptionValue(CHANGES_ONLY.shortName);
+                int keyframeInterval = optionalValue != null ? Integer.parseInt(optionalValue) : DEFAULT_KEYFRAME_INTERVAL;
+                if (keyframeInterval < 1) {
+                    throw new SystemError(ErrorCode.INVALID_CLI_ARGUMENTS,
+                        "Keyframe interval must be a positive number of steps! Given: " + keyframeInterval);
+                }
+                simOptions.setKeyframeInterval(keyframeInterval);
+            }
+
+            if (cmd.hasOption(FORMAT.shortName)) {
+                String format = cmd.getOptionValue(FORMAT.shortName);
+                try {
+                    simOptions.setPayloadFormat(PayloadFormat.valueOf(format.toUpperCase()));
+                } catch (IllegalArgumentException exp) {
+                    throw new SystemError(ErrorCode.INVALID_CLI_ARGUMENTS, "Unknown payload format '" + format +
+                        "'! Expected one of " + Arrays.toString(PayloadFormat.values()));
+                }
+            }
+
+            if (cmd.hasOption(COMPRESS.shortName)) {
+                String codec = cmd.getOptionValue(COMPRESS.shortName);
+                try {
+                    simOptions.setCompressionCodec(CompressionCodec.valueOf(codec.toUpperCase()));
+                } catch (IllegalArgumentException exp) {
+                    throw new SystemError(ErrorCode.INVALID_CLI_ARGUMENTS, "Unknown compression codec '" + codec +
+                        "'! Expected one of " + Arrays.toString(CompressionCodec.values()));
+                }
+            }
+
+            if (cmd.hasOption(COLUMNAR.shortName)) {
+                if (cmd.hasOption(CHANGES_ONLY.shortName) || cmd.hasOption(BATCH.shortName)) {
+                    throw new SystemError(ErrorCode.INVALID_CLI_ARGUMENTS, "Columns are always published in full as " +
+                        "a single message per domain, so the -" + COLUMNAR.shortName + " option cannot be combined " +
+                        "with the -" + CHANGES_ONLY.shortName + " or -" + BATCH.shortName + " option!");
+                }
+                simOptions.setColumnarPublishing(true);
+            }
+
+            if (cmd.hasOption(ENCODE_IDS.shortName)) {
+                simOptions.setIdEncoding(true);
+            }
+
+            if (cmd.hasOption(EVENTS.shortName)) {
+                if (simOptions.getStepIncrement() > 1) {
+                    throw new SystemError(ErrorCode.INVALID_CLI_ARGUMENTS, "SUMO only reports the events of the last " +
+                        "step it performed, so the -" + EVENTS.shortName + " option cannot be combined with a step " +
+                        "increment greater than 1! Given: " + simOptions.getStepIncrement());
+                }
+                simOptions.setEventPublishing(true);
+            }
+
+            if (cmd.hasOption(AGGREGATE.shortName)) {
+                if (cmd.hasOption(RESUME.shortName)) {
+                    throw new SystemError(ErrorCode.INVALID_CLI_ARGUMENTS, "Open aggregation windows are not part of " +
+                        "a checkpoint, so the -" + AGGREGATE.shortName + " option cannot be combined with the -" +
+                        RESUME.shortName + " option!");
+                }
+                String value = cmd.getOptionValue(AGGREGATE.shortName);
+                if (!value.matches("\\d+(,\\d+)?")) {
+                    throw new SystemError(ErrorCode.INVALID_CLI_ARGUMENTS,
+                        "Aggregation window must be given as <window>[,<slide>] in seconds! Given: " + value);
+                }
+                String[] parts = value.split(",");
+                int windowSeconds = Integer.parseInt(parts[0]);
+                int slideSeconds = parts.length > 1 ? Integer.parseInt(parts[1]) : windowSeconds;
+                if (slideSeconds < 1 || windowSeconds < slideSeconds || windowSeconds % slideSeconds != 0) {
+                    throw new SystemError(ErrorCode.INVALID_CLI_ARGUMENTS,
+                        "Aggregation window must be a positive multiple of its slide of at least 1s! Given: " + value);
+                }
+                simOptions.setAggregationWindowMillis(windowSeconds * 1000);
+                simOptions.setAggregationSlideMillis(slideSeconds * 1000);
+            }
+
+            if (cmd.hasOption(QUANTILES.shortName)) {
+                if (!simOptions.isAggregating()) {
+                    throw new SystemError(ErrorCode.INVALID_CLI_ARGUMENTS,
+                        "Quantiles are published per aggregation window and require the -" + AGGREGATE.shortName +
+                            " option!");
+                }
+                simOptions.setQuantilePublishing(true);
+            }
+
+            if (cmd.hasOption(TRIPS.shortName)) {
+                if (cmd.hasOption(RESUME.shortName)) {
+                    throw new SystemError(ErrorCode.INVALID_CLI_ARGUMENTS, "Trips of driving vehicles are not part " +
+                        "of a checkpoint, so the -" + TRIPS.shortName + " option cannot be combined with the -" +
+                        RESUME.shortName + " option!");
+                }
+                simOptions.setTripPublishing(true);
+            }
+
+            if (cmd.hasOption(HEATMAP.shortName)) {
+                String value = cmd.getOptionValue(HEATMAP.shortName);
+                if (!value.matches("\\d+(\\.\\d+)?") || Double.parseDouble(value) == 0) {
+                    throw new SystemError(ErrorCode.INVALID_CLI_ARGUMENTS,
+                        "Heatmap cell size must be a positive number of meters! Given: " + value);
+                }
+                if (!simOptions.isAggregating()) {
+                    throw new SystemError(ErrorCode.INVALID_CLI_ARGUMENTS,
+                        "Heatmaps are published per aggregation window and require the -" + AGGREGATE.shortName +
+                            " option!");
+                }
+                simOptions.setHeatmapCellSize(Double.parseDouble(value));
+            }
+
+            if (cmd.hasOption(DEAD_RECKONING.shortName)) {
+                String value = cmd.getOptionValue(DEAD_RECKONING.shortName);
+                if (!value.matches("\\d+(\\.\\d+)?") || Double.parseDouble(value) == 0) {
+                    throw new SystemError(ErrorCode.INVALID_CLI_ARGUMENTS,
+                        "Dead reckoning tolerance must be a positive number of meters! Given: " + value);
+                }
+                simOptions.setTrajectoryTolerance(Double.parseDouble(value));
+            }
+
+            if (cmd.hasOption(QUANTIZE.shortName)) {
+                String optionalValue = cmd.getOptionValue(QUANTIZE.shortName);
+                if (optionalValue != null) {
+                    int keyframeInterval = Integer.parseInt(optionalValue);
+                    if (keyframeInterval < 1) {
+                        throw new SystemError(ErrorCode.INVALID_CLI_ARGUMENTS,
+                            "Keyframe interval must be a positive number of steps! Given: " + keyframeInterval);
+                    }
+                    if (!simOptions.isColumnarPublishing()) {
+                        throw new SystemError(ErrorCode.INVALID_CLI_ARGUMENTS,
+                            "Delta coding only applies to columns and requires the -" + COLUMNAR.shortName + " option!");
+                    }
+                    simOptions.setDeltaKeyframeInterval(keyframeInterval);
+                }
+                simOptions.setQuantizing(true);
+            }
+
+            if (cmd.hasOption(WARM_UP.shortName)) {
+                int warmUpSeconds = cmd.getParsedOptionValue(WARM_UP.shortName);
+                if (warmUpSeconds < 0) {
+                    throw new SystemError(ErrorCode.INVALID_CLI_ARGUMENTS,
+                        "Warm-up must not be a negative number of seconds! Given: " + warmUpSeconds);
+                }
+                simOptions.setWarmUpMillis(warmUpSeconds * 1000);
+            }
+
+            if (cmd.hasOption(CHECKPOINT.shortName)) {
+                String optionalValue = cmd.getOptionValue(CHECKPOINT.shortName);
+                int checkpointInterval = optionalValue != null ? Integer.parseInt(optionalValue) : DEFAULT_CHECKPOINT_INTERVAL;
+                if (checkpointInterval < 1) {
+                    throw new SystemError(ErrorCode.INVALID_CLI_ARGUMENTS,
+                        "Checkpoint interval must be a positive number of steps! Given: " + checkpointInterval);
+                }
+                simOptions.setCheckpointInterval(checkpointInterval);
+            }
+
+            if (cmd.hasOption(RESUME.shortName)) {
+                simOptions.setResume(true);
+            }
+
+            if (cmd.hasOption(LEADER_DISTANCE.shortName)) {
+                String value = cmd.getOptionValue(LEADER_DISTANCE.shortName);
+                if (!value.matches("\\d+(\\.\\d+)?")) {
+                    throw new SystemError(ErrorCode.INVALID_CLI_ARGUMENTS,
+                        "Leader distance must be a non-negative number of meters! Given: " + value);
+                }
+                simOptions.setLeaderDistance(Double.parseDouble(value));
+            }
+
+            for (Map.Entry<Object, Object> interval : cmd.getOptionProperties(INTERVAL.shortName).entrySet()) {
+                String domainTopic = interval.getKey().toString();
+                simOptions.setPublishInterval(domainTopic,
+                    parsePublishInterval(domainTopic, interval.getValue().toString(), ErrorCode.INVALID_CLI_ARGUMENTS));
+            }
+
+            for (Map.Entry<Object, Object> fields : cmd.getOptionProperties(FIELDS.shortName).entrySet()) {
+                String domainTopic = fields.getKey().toString();
+                simOptions.setProjectedFields(domainTopic,
+                    parseProjectedFields(domainTopic, fields.getValue().toString(), ErrorCode.INVALID_CLI_ARGUMENTS));
+            }
+
             var unrecognizedArgs = cmd.getArgList();
             if (unrecognizedArgs.size() == 1 && unrecognizedArgs.get(0).endsWith(".sumocfg")) {
                 var file = new File(unrecognizedArgs.get(0));
@@ -114,6 +458,56 @@ public class SimulationOptionsParser extends DefaultParser {
         return simOptions;
     }
 
+    /**
+     * Parses the publish interval of a domain, which is either a positive number of steps or {@code once}.
+     * @param errorCode The error to report if the domain or the interval is invalid.
+     * @return The number of steps or {@link SimulationOptions#PUBLISH_ONCE}.
+     */
+    public static int parsePublishInterval(String domainTopic, String value, ErrorCode errorCode) throws SystemError {
+        if (!SimulationOptions.PUBLISH_DOMAINS.contains(domainTopic)) {
+            throw new SystemError(errorCode, "Unknown domain '" + domainTopic + "' of publish interval! Expected one of " +
+                SimulationOptions.PUBLISH_DOMAINS);
+        }
+        if (value.trim().equalsIgnoreCase("once")) {
+            return SimulationOptions.PUBLISH_ONCE;
+        }
+
+        try {
+            int interval = Integer.parseInt(value.trim());
+            if (interval >= 1) return interval;
+        } catch (NumberFormatException ignored) {
+        }
+        throw new SystemError(errorCode, "Publish interval of domain '" + domainTopic +
+            "' must be a positive number of steps or 'once'! Given: " + value);
+    }
+
+    /**
+     * Parses the comma-separated list of fields projected by a domain (see {@link FieldProjection}).
+     * @param errorCode The error to report if the domain or any of the fields is invalid.
+     */
+    public static Set<String> parseProjectedFields(String domainTopic, String value, ErrorCode errorCode) throws SystemError {
+        Set<String> availableFields = FieldProjection.availableFields(domainTopic);
+        if (availableFields == null) {
+            throw new SystemError(errorCode, "Fields of domain '" + domainTopic + "' cannot be projected!");
+        }
+
+        Set<String> fields = Arrays.stream(value.split(","))
+            .map(field -> field.trim().toUpperCase())
+            .filter(field -> !field.isEmpty())
+            .collect(Collectors.toSet());
+        for (String field : fields) {
+            if (!availableFields.contains(field)) {
+                throw new SystemError(errorCode, "Unknown field '" + field + "' of domain '" + domainTopic +
+                    "'! Expected any of " + availableFields.stream().sorted().toList());
+            }
+        }
+        // at least one property has to be subscribed regularly, otherwise SUMO would not report the entities at all
+        if (fields.stream().allMatch(FieldProjection.LEADER_FIELD::equals)) {
+            throw new SystemError(errorCode, "At least one field of domain '" + domainTopic + "' has to be included!");
+        }
+        return fields;
+    }
+
     public String getHelp() {
         StringWriter help = new StringWriter();
         PrintWriter writer = new PrintWriter(help);
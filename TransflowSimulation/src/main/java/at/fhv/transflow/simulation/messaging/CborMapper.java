@@ -0,0 +1,69 @@
+package at.fhv.transflow.simulation.messaging;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Serializes objects into the binary <a href="https://cbor.io">CBOR</a> format (RFC 8949), which keeps the
+ * data model of JSON but encodes numbers in binary and strings without escaping. In contrast to the {@link JsonMapper},
+ * properties whose value is null are omitted and doubles are written with the smallest floating-point precision
+ * which represents them without loss, which keeps payloads considerably smaller.
+ */
+public class CborMapper implements IPayloadSerializer {
+    private static CborMapper instance;
+    private final CBORMapper mapper;
+
+    private CborMapper() {
+        mapper = CBORMapper.builder()
+            // write doubles as floats (or even halfs) whenever this does not lose precision
+            .enable(CBORGenerator.Feature.WRITE_MINIMAL_DOUBLES)
+            // write times as a numeric timestamp, as a binary format is not meant to be human-readable anyway
+            .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            // omit properties whose value is null, a missing property is read as null anyway
+            .serializationInclusion(JsonInclude.Include.NON_NULL)
+            .addModule(new JavaTimeModule())
+            .build();
+    }
+
+    private CborMapper(CBORMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    public static CborMapper instance() {
+        if (instance == null) {
+            instance = new CborMapper();
+        }
+        return instance;
+    }
+
+    public byte[] toCborBytes(Object javaObject) throws JsonProcessingException {
+        return mapper.writeValueAsBytes(javaObject);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws JsonProcessingException {
+        return toCborBytes(value);
+    }
+
+    @Override
+    public FrameBuilder newFrameBuilder(int maxFrameBytes) {
+        return FrameBuilder.cbor(maxFrameBytes);
+    }
+
+    @Override
+    public IPayloadSerializer withModule(Module module) {
+        CBORMapper copy = mapper.copy();
+        copy.registerModule(module);
+        return new CborMapper(copy);
+    }
+
+    @Override
+    public String contentType() {
+        return "application/cbor";
+    }
+}
@@ -0,0 +1,209 @@
+package at.fhv.transflow.simulation.messaging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+
+/**
+ * Decorates any {@link IMessagingService} by compressing every payload before it is handed over to the decorated
+ * service. Payloads are compressed by the thread sending them, i.e. by the publisher's worker threads, with one
+ * reusable compressor per thread.<br>
+ * <br>
+ * With the {@link CompressionCodec#DEFLATE DEFLATE} codec, a preset dictionary may be trained on the first
+ * non-retained payloads (see {@link DictionaryTrainer}). These are compressed without a dictionary, every later
+ * payload with the dictionary. The dictionary is {@link IMessagingService#broadcastMessage broadcast} once,
+ * uncompressed and retained, to {@code dictionaryTopic/<dictionary ID>}, where the ID is the dictionary's Adler-32
+ * checksum in hexadecimal notation as found in the zlib header of every payload compressed with it.<br>
+ * <br>
+ * Messages which clients need in order to decode any other payload (e.g. the payload format of a simulation run) are
+ * broadcast {@link #sendUncompressed(String, byte[], int, boolean) uncompressed}.
+ */
+public class CompressingMessagingService implements IMessagingService {
+    private final IMessagingService service;
+    private final CompressionCodec codec;
+    private final int dictionarySamples;
+    private final String dictionaryTopic;
+    private final ThreadLocal<Deflater> deflaters;
+    // every deflater created by any thread, whose native memory has to be released on closing
+    private final Queue<Deflater> createdDeflaters = new ConcurrentLinkedQueue<>();
+    // samples of the dictionary until it has been trained
+    private final List<byte[]> samples = new ArrayList<>();
+    private boolean sampled = false;
+    // only set once the dictionary has been published, so that no payload refers to an unpublished dictionary
+    private volatile byte[] dictionary = null;
+
+    /**
+     * Compresses every payload without a dictionary.
+     * @param service The service sending the compressed payloads.
+     * @param codec   The codec to compress payloads with.
+     * @param level   The compression level from 0 (no compression) to 9 (best compression).
+     */
+    public CompressingMessagingService(IMessagingService service, CompressionCodec codec, int level) {
+        this(service, codec, level, 0, null);
+    }
+
+    /**
+     * @param service           The service sending the compressed payloads.
+     * @param codec             The codec to compress payloads with.
+     * @param level             The compression level from 0 (no compression) to 9 (best compression).
+     * @param dictionarySamples The number of payloads to train a dictionary on or 0 if no dictionary is used.
+     * @param dictionaryTopic   The topic which the dictionary is published under.
+     */
+    public CompressingMessagingService(IMessagingService service, CompressionCodec codec, int level,
+                                       int dictionarySamples, String dictionaryTopic) {
+        if (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Compression level must be within [0, 9]! Given: " + level);
+        }
+        if (dictionarySamples > 0 && !codec.supportsDictionary()) {
+            throw new IllegalArgumentException("Codec " + codec + " does not support dictionaries!");
+        }
+        this.service = service;
+        this.codec = codec;
+        this.dictionarySamples = dictionarySamples;
+        this.dictionaryTopic = dictionaryTopic;
+        // gzip wraps a raw Deflate stream, whereas zlib streams are written by the deflater itself
+        this.deflaters = ThreadLocal.withInitial(() -> {
+            Deflater deflater = new Deflater(level, codec == CompressionCodec.GZIP);
+            createdDeflaters.add(deflater);
+            return deflater;
+        });
+    }
+
+
+    /**
+     * Returns the codec which payloads are compressed with.
+     */
+    public CompressionCodec getCodec() {
+        return codec;
+    }
+
+
+    @Override
+    public void sendMessage(String topic, byte[] payload, int qos, boolean retained) throws MessagingException {
+        byte[] currentDictionary = dictionary;
+        if (currentDictionary == null && dictionarySamples > 0 && !retained) {
+            sample(payload);
+        }
+        service.sendMessage(topic, compress(payload, currentDictionary), qos, retained);
+    }
+
+    @Override
+    public void sendMessage(String topic, String key, byte[] payload, int qos) throws MessagingException {
+        byte[] currentDictionary = dictionary;
+        if (currentDictionary == null && dictionarySamples > 0) {
+            sample(payload);
+        }
+        service.sendMessage(topic, key, compress(payload, currentDictionary), qos);
+    }
+
+    @Override
+    public void broadcastMessage(String topic, byte[] payload, int qos, boolean retained) throws MessagingException {
+        service.broadcastMessage(topic, compress(payload, dictionary), qos, retained);
+    }
+
+    /**
+     * Broadcasts a message without compressing its payload, e.g. a message telling clients how to decode the other ones
+     * (see {@link IMessagingService#broadcastMessage(String, byte[], int, boolean)}).
+     */
+    public void sendUncompressed(String topic, byte[] payload, int qos, boolean retained) throws MessagingException {
+        service.broadcastMessage(topic, payload, qos, retained);
+    }
+
+    @Override
+    public void flush() throws MessagingException {
+        service.flush();
+    }
+
+    @Override
+    public void close() throws MessagingException {
+        try {
+            service.close();
+        } finally {
+            Deflater deflater;
+            while ((deflater = createdDeflaters.poll()) != null) {
+                deflater.end();
+            }
+        }
+    }
+
+
+    /**
+     * Adds a payload to the samples and trains the dictionary once enough samples have been collected.
+     */
+    private void sample(byte[] payload) throws MessagingException {
+        byte[] trained;
+        synchronized (samples) {
+            if (sampled) return;
+            samples.add(payload);
+            if (samples.size() < dictionarySamples) return;
+
+            sampled = true;
+            trained = DictionaryTrainer.train(samples, DictionaryTrainer.MAX_DICTIONARY_SIZE);
+            samples.clear();
+        }
+        if (trained.length == 0) {
+            // nothing is repeated across the samples, so the payloads are not worth a dictionary
+            System.err.println("No compression dictionary trained, as the samples do not have anything in common.");
+            return;
+        }
+
+        // broadcast, so that no payload compressed with the dictionary overtakes it
+        service.broadcastMessage(dictionaryTopic + "/" + dictionaryId(trained), trained, 1, true);
+        dictionary = trained;
+    }
+
+    private byte[] compress(byte[] payload, byte[] currentDictionary) {
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        if (currentDictionary != null) {
+            deflater.setDictionary(currentDictionary);
+        }
+        deflater.setInput(payload);
+        deflater.finish();
+
+        boolean gzip = codec == CompressionCodec.GZIP;
+        int headerLength = gzip ? 10 : 0;
+        byte[] output = new byte[headerLength + payload.length / 2 + 64];
+        int length = headerLength;
+        while (!deflater.finished()) {
+            if (length == output.length) {
+                output = Arrays.copyOf(output, output.length * 2);
+            }
+            length += deflater.deflate(output, length, output.length - length);
+        }
+        if (!gzip) {
+            return Arrays.copyOf(output, length);
+        }
+
+        // gzip header (magic number, Deflate, no flags, no modification time, no extra flags, unknown OS)
+        output[0] = 0x1F;
+        output[1] = (byte) 0x8B;
+        output[2] = 8;
+        output[9] = (byte) 0xFF;
+        // gzip trailer (CRC-32 and size of the uncompressed payload, little-endian)
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        byte[] gzipped = Arrays.copyOf(output, length + 8);
+        writeIntLE(gzipped, length, (int) crc.getValue());
+        writeIntLE(gzipped, length + 4, payload.length);
+        return gzipped;
+    }
+
+    private static String dictionaryId(byte[] dictionary) {
+        Adler32 adler = new Adler32();
+        adler.update(dictionary);
+        return String.format("%08x", adler.getValue());
+    }
+
+    private static void writeIntLE(byte[] bytes, int offset, int value) {
+        for (int i = 0; i < 4; i++) {
+            bytes[offset + i] = (byte) (value >>> (8 * i));
+        }
+    }
+}
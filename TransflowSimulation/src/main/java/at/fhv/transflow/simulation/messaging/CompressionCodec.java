@@ -0,0 +1,31 @@
+package at.fhv.transflow.simulation.messaging;
+
+/**
+ * Every codec which payloads may be compressed with by the {@link CompressingMessagingService}. Both codecs are
+ * readable by the standard libraries of most platforms (e.g. zlib) and can be told apart from uncompressed JSON or
+ * CBOR payloads by their headers.
+ */
+public enum CompressionCodec {
+    /**
+     * Deflate within a zlib stream (RFC 1950), which supports preset dictionaries. The zlib header of a payload
+     * compressed with a dictionary contains the dictionary's Adler-32 checksum as its ID.
+     */
+    DEFLATE,
+    /**
+     * Deflate within a gzip stream (RFC 1952), which does not support dictionaries.
+     */
+    GZIP;
+
+
+    public boolean supportsDictionary() {
+        return this == DEFLATE;
+    }
+
+    /**
+     * Returns the name of the codec as used by the HTTP {@code Content-Encoding} header, whose {@code deflate} also
+     * denotes a zlib stream.
+     */
+    public String contentEncoding() {
+        return name().toLowerCase();
+    }
+}
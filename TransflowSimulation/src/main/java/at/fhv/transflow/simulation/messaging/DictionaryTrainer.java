@@ -0,0 +1,111 @@
+package at.fhv.transflow.simulation.messaging;
+
+import java.io.ByteArrayOutputStream;
+import java.util.*;
+
+
+/**
+ * Trains a preset dictionary for Deflate from a sample of payloads, so that the field names, IDs and other fragments
+ * repeated across payloads are already known to the compressor of even a small payload.<br>
+ * <br>
+ * Following the cover algorithm of Zstandard's dictionary builder, every sample is divided into overlapping segments,
+ * which are scored by the number of samples containing each of their distinct k-mers (i.e. substrings of
+ * {@value #K} bytes). The dictionary is built greedily from the best segment over and over again, with the k-mers
+ * of a chosen segment no longer counting towards the score of any other segment. The best segments are placed at the
+ * end of the dictionary, as Deflate encodes short distances more cheaply.
+ */
+public class DictionaryTrainer {
+    // Deflate can only refer to the last 32 KiB
+    public static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+    private static final int K = 8;
+    private static final int SEGMENT_SIZE = 48;
+    private static final int SEGMENT_STRIDE = 16;
+
+    private DictionaryTrainer() {
+    }
+
+
+    /**
+     * Trains a dictionary from the given samples.
+     * @param samples The sample payloads, e.g. the first payloads published.
+     * @param maxSize The maximum size of the dictionary in bytes, at most {@link #MAX_DICTIONARY_SIZE}.
+     * @return The dictionary, which is empty if no fragment is contained in more than one sample.
+     */
+    public static byte[] train(List<byte[]> samples, int maxSize) {
+        // number of samples containing every k-mer
+        Map<Long, Integer> frequencies = new HashMap<>();
+        for (byte[] sample : samples) {
+            Set<Long> kmers = new HashSet<>();
+            for (int i = 0; i + K <= sample.length; i++) {
+                kmers.add(kmer(sample, i));
+            }
+            kmers.forEach(kmer -> frequencies.merge(kmer, 1, Integer::sum));
+        }
+        // k-mers of a single sample do not help compressing any other payload
+        frequencies.values().removeIf(frequency -> frequency < 2);
+
+        PriorityQueue<Segment> segments = new PriorityQueue<>(Comparator.comparingLong(Segment::score).reversed());
+        for (byte[] sample : samples) {
+            for (int offset = 0; offset + K <= sample.length; offset += SEGMENT_STRIDE) {
+                Segment segment = new Segment(sample, offset, Math.min(SEGMENT_SIZE, sample.length - offset), 0);
+                segment = segment.rescore(frequencies);
+                if (segment.score() > 0) segments.add(segment);
+            }
+        }
+
+        // segments only lose score once others have been chosen, so a rescored segment still ahead of the next one is best
+        Deque<Segment> chosen = new ArrayDeque<>();
+        int size = 0;
+        int limit = Math.min(maxSize, MAX_DICTIONARY_SIZE);
+        while (!segments.isEmpty() && size < limit) {
+            Segment segment = segments.poll().rescore(frequencies);
+            if (segment.score() == 0) continue;
+            if (!segments.isEmpty() && segment.score() < segments.peek().score()) {
+                segments.add(segment);
+                continue;
+            }
+
+            int length = Math.min(segment.length(), limit - size);
+            for (int i = segment.offset(); i + K <= segment.offset() + length; i++) {
+                frequencies.remove(kmer(segment.sample(), i));
+            }
+            // the best segments end up last
+            chosen.addFirst(new Segment(segment.sample(), segment.offset(), length, segment.score()));
+            size += length;
+        }
+
+        ByteArrayOutputStream dictionary = new ByteArrayOutputStream(size);
+        for (Segment segment : chosen) {
+            dictionary.write(segment.sample(), segment.offset(), segment.length());
+        }
+        return dictionary.toByteArray();
+    }
+
+
+    private static long kmer(byte[] bytes, int offset) {
+        long kmer = 0;
+        for (int i = 0; i < K; i++) {
+            kmer = (kmer << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return kmer;
+    }
+
+
+    /**
+     * A range of bytes of a sample along with the sum of the frequencies of its distinct k-mers.
+     */
+    private record Segment(byte[] sample, int offset, int length, long score) {
+
+        Segment rescore(Map<Long, Integer> frequencies) {
+            Set<Long> kmers = new HashSet<>();
+            long newScore = 0;
+            for (int i = offset; i + K <= offset + length; i++) {
+                long kmer = kmer(sample, i);
+                if (kmers.add(kmer)) {
+                    newScore += frequencies.getOrDefault(kmer, 0);
+                }
+            }
+            return new Segment(sample, offset, length, newScore);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package at.fhv.transflow.simulation.messaging;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Packs a sequence of individually serialized objects into one or more arrays (frames) of the respective payload
+ * format, so that many small objects can be published with a single message instead of one message per object.<br>
+ * Each frame is kept below the configured maximum frame size. A single element exceeding this limit on its own
+ * is never split but put into a frame of its own instead.<br>
+ * <br>
+ * This class is not thread-safe. Elements are expected to be appended by a single thread, e.g. after they
+ * have been serialized concurrently.
+ */
+public class FrameBuilder {
+    private final int maxFrameBytes;
+    private final byte[] arrayStart;
+    private final byte[] separator;
+    private final byte[] arrayEnd;
+    private final List<byte[]> frames = new ArrayList<>();
+    private ByteArrayOutputStream currentFrame;
+    private int elementsInFrame = 0;
+
+    /**
+     * @param maxFrameBytes The maximum size of a single frame in bytes (including array delimiters and separators).
+     * @param arrayStart    The bytes opening an array in the payload format.
+     * @param separator     The bytes put between two elements of an array (may be empty).
+     * @param arrayEnd      The bytes closing an array in the payload format.
+     */
+    public FrameBuilder(int maxFrameBytes, byte[] arrayStart, byte[] separator, byte[] arrayEnd) {
+        if (maxFrameBytes < 1) {
+            throw new IllegalArgumentException("Maximum frame size must be a positive number of bytes! Given: " + maxFrameBytes);
+        }
+        this.maxFrameBytes = maxFrameBytes;
+        this.arrayStart = arrayStart;
+        this.separator = separator;
+        this.arrayEnd = arrayEnd;
+    }
+
+    /**
+     * Creates a builder packing JSON values into JSON arrays.
+     */
+    public static FrameBuilder json(int maxFrameBytes) {
+        return new FrameBuilder(maxFrameBytes, new byte[]{'['}, new byte[]{','}, new byte[]{']'});
+    }
+
+    /**
+     * Creates a builder packing CBOR data items into indefinite-length CBOR arrays.
+     */
+    public static FrameBuilder cbor(int maxFrameBytes) {
+        return new FrameBuilder(maxFrameBytes, new byte[]{(byte) 0x9f}, new byte[0], new byte[]{(byte) 0xff});
+    }
+
+
+    /**
+     * Appends a serialized object to the current frame. If the frame would grow beyond the maximum frame size
+     * by adding the given element, the current frame is completed and the element is put into a new frame.
+     * @param element The bytes of a single, complete value of the payload format.
+     */
+    public void append(byte[] element) {
+        int requiredBytes = element.length + separator.length + arrayEnd.length;
+
+        if (currentFrame != null && elementsInFrame > 0 && currentFrame.size() + requiredBytes > maxFrameBytes) {
+            completeFrame();
+        }
+
+        if (currentFrame == null) {
+            currentFrame = new ByteArrayOutputStream(Math.min(maxFrameBytes, Math.max(requiredBytes + arrayStart.length, 1024)));
+            currentFrame.writeBytes(arrayStart);
+        } else if (elementsInFrame > 0) {
+            currentFrame.writeBytes(separator);
+        }
+
+        currentFrame.writeBytes(element);
+        elementsInFrame++;
+    }
+
+    /**
+     * Completes the frame currently being filled and returns every frame created by this builder so far.
+     * @return A list of serialized arrays, in the order their elements were appended. The list is empty
+     * if no element has been appended at all.
+     */
+    public List<byte[]> build() {
+        completeFrame();
+        return frames;
+    }
+
+    private void completeFrame() {
+        if (currentFrame == null) return;
+
+        currentFrame.writeBytes(arrayEnd);
+        frames.add(currentFrame.toByteArray());
+        currentFrame = null;
+        elementsInFrame = 0;
+    }
+}
@@ -16,7 +16,53 @@ public interface IMessagingService extends AutoCloseable {
      * @param payload A byte array of the message's content.
      * @param qos     The requested quality of service for this message.
      */
-    void sendMessage(String topic, byte[] payload, int qos) throws MessagingException;
+    default void sendMessage(String topic, byte[] payload, int qos) throws MessagingException {
+        sendMessage(topic, payload, qos, false);
+    }
+
+    /**
+     * Publishes a message over a previously established connection to the messaging provider onto the specified topic.
+     * @param topic    The messaging topic to publish the message to.
+     * @param payload  A byte array of the message's content.
+     * @param qos      The requested quality of service for this message.
+     * @param retained If true, the messaging provider is requested to keep this message as the last known message
+     *                 of the topic and deliver it to clients subscribing to the topic later on.
+     */
+    void sendMessage(String topic, byte[] payload, int qos, boolean retained) throws MessagingException;
+
+    /**
+     * Publishes a message concerning a single entity (or a single part of a topic's data) onto the specified topic.
+     * Implementations spreading messages over several connections may use the key to do so, while messages of the
+     * same topic and key keep their order. Other implementations ignore the key.
+     * @param topic   The messaging topic to publish the message to.
+     * @param key     Identifies the entity of the message within the topic, e.g. a vehicle ID.
+     * @param payload A byte array of the message's content.
+     * @param qos     The requested quality of service for this message.
+     */
+    default void sendMessage(String topic, String key, byte[] payload, int qos) throws MessagingException {
+        sendMessage(topic, payload, qos, false);
+    }
+
+    /**
+     * Publishes a message which clients need before any message published after it, e.g. a message telling clients
+     * how to decode the payloads of the other messages. Implementations spreading messages over several connections
+     * send it over every connection, so that no later message overtakes it. Other implementations send it once.
+     * @param topic    The messaging topic to publish the message to.
+     * @param payload  A byte array of the message's content.
+     * @param qos      The requested quality of service for this message.
+     * @param retained If true, the messaging provider is requested to keep this message as the last known message
+     *                 of the topic and deliver it to clients subscribing to the topic later on.
+     */
+    default void broadcastMessage(String topic, byte[] payload, int qos, boolean retained) throws MessagingException {
+        sendMessage(topic, payload, qos, retained);
+    }
+
+    /**
+     * Blocks until every message published so far has been handed over to the messaging provider (e.g. acknowledged
+     * by the broker). Implementations sending messages synchronously do not need to override this method.
+     */
+    default void flush() throws MessagingException {
+    }
 
     @Override
     void close() throws MessagingException;
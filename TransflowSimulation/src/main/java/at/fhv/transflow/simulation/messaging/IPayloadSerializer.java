@@ -0,0 +1,40 @@
+package at.fhv.transflow.simulation.messaging;
+
+import com.fasterxml.jackson.databind.Module;
+
+import java.io.IOException;
+
+
+/**
+ * Provides a common interface to serialize the objects published by a messaging service into a specific
+ * payload format (e.g. JSON). Implementations are expected to be thread-safe, as objects are usually
+ * serialized concurrently.
+ */
+public interface IPayloadSerializer {
+
+    /**
+     * Serializes a single object into the payload format of this serializer.
+     * @param value The object to serialize, usually a DTO of the simulation.
+     * @return The serialized object as a byte array.
+     * @throws IOException if the object cannot be represented in the payload format.
+     */
+    byte[] serialize(Object value) throws IOException;
+
+    /**
+     * Creates a new {@link FrameBuilder}, which packs values serialized by this serializer into arrays of the same
+     * payload format.
+     * @param maxFrameBytes The maximum size of a single frame in bytes.
+     */
+    FrameBuilder newFrameBuilder(int maxFrameBytes);
+
+    /**
+     * Creates a copy of this serializer which additionally uses the given Jackson module, e.g. to customize how
+     * certain properties are written. This serializer remains unchanged.
+     */
+    IPayloadSerializer withModule(Module module);
+
+    /**
+     * The MIME type of the payload format (e.g. {@code application/json}).
+     */
+    String contentType();
+}
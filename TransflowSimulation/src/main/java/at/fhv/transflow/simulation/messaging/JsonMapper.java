@@ -3,11 +3,12 @@ package at.fhv.transflow.simulation.messaging;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
-public class JsonMapper {
+public class JsonMapper implements IPayloadSerializer {
     private static JsonMapper instance;
     private final ObjectMapper mapper;
 
@@ -25,6 +26,10 @@ public class JsonMapper {
         mapper.setSerializationInclusion(JsonInclude.Include.USE_DEFAULTS);
     }
 
+    private JsonMapper(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
     public static JsonMapper instance() {
         if (instance == null) {
             instance = new JsonMapper();
@@ -40,6 +45,26 @@ public class JsonMapper {
         return mapper.writeValueAsBytes(javaObject);
     }
 
+    @Override
+    public byte[] serialize(Object value) throws JsonProcessingException {
+        return toJsonBytes(value);
+    }
+
+    @Override
+    public FrameBuilder newFrameBuilder(int maxFrameBytes) {
+        return FrameBuilder.json(maxFrameBytes);
+    }
+
+    @Override
+    public IPayloadSerializer withModule(Module module) {
+        return new JsonMapper(mapper.copy().registerModule(module));
+    }
+
+    @Override
+    public String contentType() {
+        return "application/json";
+    }
+
     public <T> T fromJson(String json, Class<T> valueType) throws JsonProcessingException {
         return mapper.readValue(json, valueType);
     }
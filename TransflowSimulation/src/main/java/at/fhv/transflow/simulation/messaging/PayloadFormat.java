@@ -0,0 +1,24 @@
+package at.fhv.transflow.simulation.messaging;
+
+import java.util.function.Supplier;
+
+
+/**
+ * Every payload format the simulation's data can be published in, along with the {@link IPayloadSerializer}
+ * implementing the format.
+ */
+public enum PayloadFormat {
+    JSON(JsonMapper::instance),
+    CBOR(CborMapper::instance);
+
+
+    private final Supplier<IPayloadSerializer> serializer;
+
+    PayloadFormat(Supplier<IPayloadSerializer> serializer) {
+        this.serializer = serializer;
+    }
+
+    public IPayloadSerializer serializer() {
+        return serializer.get();
+    }
+}
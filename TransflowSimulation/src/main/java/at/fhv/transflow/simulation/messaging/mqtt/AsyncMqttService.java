@@ -0,0 +1,184 @@
+package at.fhv.transflow.simulation.messaging.mqtt;
+
+import at.fhv.transflow.simulation.messaging.IMessagingService;
+import at.fhv.transflow.simulation.messaging.MessagingException;
+import org.eclipse.paho.mqttv5.client.IMqttToken;
+import org.eclipse.paho.mqttv5.client.MqttActionListener;
+import org.eclipse.paho.mqttv5.client.MqttAsyncClient;
+import org.eclipse.paho.mqttv5.client.MqttClientPersistence;
+import org.eclipse.paho.mqttv5.client.MqttConnectionOptions;
+import org.eclipse.paho.mqttv5.client.persist.MemoryPersistence;
+import org.eclipse.paho.mqttv5.client.persist.MqttDefaultFilePersistence;
+import org.eclipse.paho.mqttv5.common.MqttException;
+import org.eclipse.paho.mqttv5.common.MqttMessage;
+import org.eclipse.paho.mqttv5.common.MqttPersistenceException;
+import org.eclipse.paho.mqttv5.common.MqttSecurityException;
+
+import java.io.File;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An asynchronous implementation of the {@link IMessagingService} interface.<br>
+ * Just like the {@link MqttService}, it establishes a connection to a running <a href="https://mqtt.org">MQTT</a>
+ * broker on instantiation. However, {@link #sendMessage(String, byte[], int, boolean)} does not wait for the broker
+ * to acknowledge a message but returns as soon as the message has been handed over to the client. Thus, a single
+ * thread is able to keep many messages in flight at once instead of being limited to one message per round trip.<br>
+ * <br>
+ * The number of unacknowledged messages is limited by the in-flight window, which never exceeds the Receive Maximum
+ * announced by the broker on connecting (e.g. 32 by default with EMQX), as the client would reject any further
+ * message. Once the window is full, sending a message blocks until the broker acknowledges an earlier one.
+ * {@link #flush()} waits for every message sent so far, which makes it suitable to mark the end of a simulation step.
+ */
+public class AsyncMqttService implements IMessagingService {
+    // Receive Maximum of the MQTT specification if the broker does not announce any
+    private static final int DEFAULT_RECEIVE_MAXIMUM = 65_535;
+    private final String brokerUrl;
+    private final String clientId;
+    private final MqttAsyncClient client;
+    private final int maxInFlight;
+    private final Semaphore inFlightWindow;
+    // failures of asynchronous deliveries since the last flush
+    private final AtomicInteger failedMessages = new AtomicInteger(0);
+    private final AtomicReference<Throwable> lastFailure = new AtomicReference<>();
+    private final MqttActionListener deliveryListener = new MqttActionListener() {
+        @Override
+        public void onSuccess(IMqttToken token) {
+            inFlightWindow.release();
+        }
+
+        @Override
+        public void onFailure(IMqttToken token, Throwable exp) {
+            failedMessages.incrementAndGet();
+            lastFailure.set(exp);
+            inFlightWindow.release();
+        }
+    };
+
+    // private constructor to be called from multiple public constructors
+    private AsyncMqttService(String brokerUrl, String clientId, MqttClientPersistence persistence,
+                             MqttConnectionOptions options, int maxInFlight) throws MessagingException {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("In-flight window must allow at least one message! Given: " + maxInFlight);
+        }
+        this.brokerUrl = brokerUrl;
+        this.clientId = clientId;
+
+        Integer receiveMaximum;
+        try {
+            client = new MqttAsyncClient(brokerUrl, clientId, persistence);
+            IMqttToken connectToken = client.connect(options);
+            connectToken.waitForCompletion();
+            receiveMaximum = connectToken.getResponseProperties() != null
+                ? connectToken.getResponseProperties().getReceiveMaximum()
+                : null;
+        } catch (MqttSecurityException exp) {
+            throw new SecurityException("Failed to connect to MQTT broker! Client could not be authorized.", exp);
+        } catch (MqttException exp) {
+            throw new EnqueuingException("Failed to connect to MQTT broker! Server could not be reached.", exp);
+        }
+
+        // the broker does not accept more unacknowledged messages than its Receive Maximum
+        this.maxInFlight = Math.min(maxInFlight, receiveMaximum != null ? receiveMaximum : DEFAULT_RECEIVE_MAXIMUM);
+        this.inFlightWindow = new Semaphore(this.maxInFlight);
+    }
+
+    /**
+     * Establish a new connection to a running MQTT broker with custom connection options and in-memory persistence
+     * of unacknowledged outbound/inbound messages.
+     * @param brokerUrl   A valid URL (including communication protocol) to a running MQTT broker.
+     * @param clientId    The ID by which this MQTT client shall be identified.
+     * @param options     Custom {@link MqttConnectionOptions} to use for the connection to the MQTT broker.
+     * @param maxInFlight The maximum number of messages sent, but not yet acknowledged by the broker. Limited to
+     *                    the Receive Maximum of the broker.
+     */
+    public AsyncMqttService(String brokerUrl, String clientId, MqttConnectionOptions options, int maxInFlight) throws MessagingException {
+        this(brokerUrl, clientId,
+            new MemoryPersistence(),
+            options,
+            maxInFlight
+        );
+    }
+
+    /**
+     * Establish a new connection to a running MQTT broker with custom connection options and local file persistence
+     * of unacknowledged outbound/inbound messages. Provide a local file to serve as client persistence.
+     * @param brokerUrl       A valid URL (including communication protocol) to a running MQTT broker.
+     * @param clientId        The ID by which this MQTT client shall be identified.
+     * @param persistenceFile A local file to act as client persistence for unacknowledged outbound/inbound messages.
+     * @param options         Custom {@link MqttConnectionOptions} to use for the connection to the MQTT broker.
+     * @param maxInFlight     The maximum number of messages sent, but not yet acknowledged by the broker. Limited
+     *                        to the Receive Maximum of the broker.
+     */
+    public AsyncMqttService(String brokerUrl, String clientId, File persistenceFile, MqttConnectionOptions options,
+                            int maxInFlight) throws MessagingException {
+        this(brokerUrl, clientId,
+            new MqttDefaultFilePersistence(persistenceFile.getAbsolutePath()),
+            options,
+            maxInFlight
+        );
+    }
+
+
+    @Override
+    public void sendMessage(String topic, byte[] payload, int qos, boolean retained) throws EnqueuingException, ConnectionException {
+        MqttMessage message = new MqttMessage(payload);
+        message.setQos(qos);
+        message.setRetained(retained);
+
+        try {
+            inFlightWindow.acquire();
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+            throw new EnqueuingException("Interrupted while waiting for a free slot in the in-flight window.", exp);
+        }
+
+        try {
+            client.publish(topic, message, null, deliveryListener);
+        } catch (MqttPersistenceException exp) {
+            inFlightWindow.release();
+            throw new EnqueuingException("Failed to enqueue message with ID " + message.getId() + " in the chosen " +
+                "method of output buffer (e.g. in-memory storage or file-based storage).", exp);
+        } catch (MqttException exp) {
+            inFlightWindow.release();
+            throw new ConnectionException("Failed to send message with ID " + message.getId() + " to broker.", exp);
+        }
+    }
+
+    /**
+     * Blocks until the broker has acknowledged (or rejected) every message sent so far.
+     * @throws ConnectionException if any message sent since the last flush could not be delivered.
+     */
+    @Override
+    public void flush() throws ConnectionException {
+        try {
+            // the window is only completely free once no message is in flight anymore
+            inFlightWindow.acquire(maxInFlight);
+            inFlightWindow.release(maxInFlight);
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionException("Interrupted while waiting for messages to be acknowledged.", exp);
+        }
+
+        int failures = failedMessages.getAndSet(0);
+        Throwable failure = lastFailure.getAndSet(null);
+        if (failures > 0) {
+            throw new ConnectionException("Failed to deliver " + failures + " messages to broker.", failure);
+        }
+    }
+
+    @Override
+    public void close() throws MessagingException {
+        try {
+            flush();
+        } finally {
+            try {
+                client.disconnect().waitForCompletion();
+                client.close();
+            } catch (MqttException exp) {
+                throw new ConnectionException("Failed to gracefully disconnect from MQTT broker.", exp);
+            }
+        }
+    }
+}
@@ -99,9 +99,10 @@ public class MqttService implements IMessagingService {
 
 
     @Override
-    public void sendMessage(String topic, byte[] payload, int qos) throws EnqueuingException, ConnectionException {
+    public void sendMessage(String topic, byte[] payload, int qos, boolean retained) throws EnqueuingException, ConnectionException {
         MqttMessage message = new MqttMessage(payload);
         message.setQos(qos);
+        message.setRetained(retained);
 
         try {
             client.publish(topic, message);
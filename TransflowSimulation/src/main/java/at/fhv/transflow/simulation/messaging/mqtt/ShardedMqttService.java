@@ -0,0 +1,159 @@
+package at.fhv.transflow.simulation.messaging.mqtt;
+
+import at.fhv.transflow.simulation.messaging.IMessagingService;
+import at.fhv.transflow.simulation.messaging.MessagingException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An implementation of the {@link IMessagingService} interface which spreads messages across a pool of connections
+ * to the same <a href="https://mqtt.org">MQTT</a> broker, each established by its own client (e.g. an
+ * {@link AsyncMqttService}) with a distinct client ID. Thus, messages are no longer limited to a single TCP connection
+ * and a single in-flight window, so throughput may scale with the broker's cores.<br>
+ * <br>
+ * Messages with a {@link #sendMessage(String, String, byte[], int) key} are sharded by a stable hash of their domain,
+ * i.e. their topic without the trailing time level (e.g. {@code .../vehicles} for {@code .../vehicles/1000}), and
+ * their key (e.g. the vehicle ID). Thus, the messages of a domain are spread over every connection, while the messages
+ * of the same entity are always sent over the same connection and keep their order. Messages without a key (e.g. the
+ * ID table or the aggregates of a window) are sharded by their domain only, so that the messages of a domain keep
+ * their order among each other. Messages which clients need before any later message (e.g. the payload format of
+ * a run) are {@link #broadcastMessage(String, byte[], int, boolean) broadcast} over every connection instead.
+ * {@link #flush()} waits for the messages of every connection.
+ */
+public class ShardedMqttService implements IMessagingService {
+    private final List<IMessagingService> shards;
+
+    /**
+     * Establishes the given number of connections, whose client IDs consist of the given client ID and the number
+     * of the connection (e.g. {@code transflow-0}, {@code transflow-1}, ...).
+     * @param clientId    The ID by which the MQTT clients shall be identified.
+     * @param connections The number of connections to establish.
+     * @param connector   Establishes a single connection with the given client ID, e.g. by creating an
+     *                    {@link AsyncMqttService}.
+     * @throws MessagingException if any connection could not be established. Connections already established are
+     *                            closed again.
+     */
+    public ShardedMqttService(String clientId, int connections, Connector connector) throws MessagingException {
+        if (connections < 1) {
+            throw new IllegalArgumentException("At least one connection is required! Given: " + connections);
+        }
+        List<IMessagingService> connected = new ArrayList<>(connections);
+        try {
+            for (int i = 0; i < connections; i++) {
+                connected.add(connector.connect(clientId + "-" + i));
+            }
+        } catch (MessagingException exp) {
+            closeAll(connected);
+            throw exp;
+        }
+        this.shards = List.copyOf(connected);
+    }
+
+
+    @Override
+    public void sendMessage(String topic, byte[] payload, int qos, boolean retained) throws MessagingException {
+        shards.get(shardIndex(topic, shards.size())).sendMessage(topic, payload, qos, retained);
+    }
+
+    @Override
+    public void sendMessage(String topic, String key, byte[] payload, int qos) throws MessagingException {
+        shards.get(shardIndex(topic, key, shards.size())).sendMessage(topic, key, payload, qos);
+    }
+
+    /**
+     * Sends the message over every connection, so that no message sent afterwards overtakes it, no matter which
+     * connection it is sent over. Clients therefore receive the message once per connection.
+     * @throws MessagingException the first failure of any connection, after the message has been sent over every
+     *                            other connection.
+     */
+    @Override
+    public void broadcastMessage(String topic, byte[] payload, int qos, boolean retained) throws MessagingException {
+        MessagingException failure = null;
+        for (IMessagingService shard : shards) {
+            try {
+                shard.sendMessage(topic, payload, qos, retained);
+            } catch (MessagingException exp) {
+                if (failure == null) failure = exp;
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Blocks until every connection has handed over the messages sent so far to the broker.
+     * @throws MessagingException the first failure of any connection, after every connection has been flushed.
+     */
+    @Override
+    public void flush() throws MessagingException {
+        MessagingException failure = null;
+        for (IMessagingService shard : shards) {
+            try {
+                shard.flush();
+            } catch (MessagingException exp) {
+                if (failure == null) failure = exp;
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    @Override
+    public void close() throws MessagingException {
+        closeAll(shards);
+    }
+
+
+    /**
+     * Determines the connection of a message without a key by the hash of its domain.
+     */
+    static int shardIndex(String topic, int shardCount) {
+        return mix(shardKey(topic).hashCode(), shardCount);
+    }
+
+    /**
+     * Determines the connection of a message by the hash of its domain and its key.
+     */
+    static int shardIndex(String topic, String key, int shardCount) {
+        return mix(31 * shardKey(topic).hashCode() + key.hashCode(), shardCount);
+    }
+
+    private static int mix(int hash, int shardCount) {
+        // mix the higher bits into the lower ones, which determine the connection
+        return Math.floorMod(hash ^ (hash >>> 16), shardCount);
+    }
+
+    /**
+     * Removes the last level of a topic if it is a number (i.e. the simulation time of a message), so that messages
+     * of different time steps share the same key.
+     */
+    static String shardKey(String topic) {
+        int lastLevel = topic.lastIndexOf('/') + 1;
+        if (lastLevel == 0 || lastLevel == topic.length()) return topic;
+
+        for (int i = lastLevel; i < topic.length(); i++) {
+            if (!Character.isDigit(topic.charAt(i))) return topic;
+        }
+        return topic.substring(0, lastLevel - 1);
+    }
+
+    private static void closeAll(List<IMessagingService> shards) throws MessagingException {
+        MessagingException failure = null;
+        for (IMessagingService shard : shards) {
+            try {
+                shard.close();
+            } catch (MessagingException exp) {
+                if (failure == null) failure = exp;
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+
+    /**
+     * Establishes a single connection of the pool.
+     */
+    @FunctionalInterface
+    public interface Connector {
+        IMessagingService connect(String clientId) throws MessagingException;
+    }
+}
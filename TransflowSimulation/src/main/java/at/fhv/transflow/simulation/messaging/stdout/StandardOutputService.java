@@ -26,11 +26,18 @@ public class StandardOutputService implements IMessagingService {
 
 
     @Override
-    public void sendMessage(String topic, byte[] payload, int qos) throws MessagingException {
+    public void sendMessage(String topic, byte[] payload, int qos, boolean retained) throws MessagingException {
         try {
             String metaData = "\n[" +
                 LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME) +
-                "] - Topic: '" + topic + "'\n";
+                "] - Topic: '" + topic + "'" + (retained ? " (retained)" : "") + "\n";
+
+            if (!isJson(payload)) {
+                // binary payload formats cannot be printed in a meaningful way
+                System.out.println(metaData + "<" + payload.length + " bytes of binary data>");
+                BYTE_COUNT.addAndGet(payload.length);
+                return;
+            }
 
             String jsonData = JsonMapper.instance().prettyPrint(new String(payload));
             if (verbose) {
@@ -53,6 +60,10 @@ public class StandardOutputService implements IMessagingService {
         }
     }
 
+    private static boolean isJson(byte[] payload) {
+        return payload.length > 0 && (payload[0] == '{' || payload[0] == '[');
+    }
+
     @Override
     public void close() {
         System.out.println("--- Messaging service closed ---");
@@ -0,0 +1,156 @@
+package at.fhv.transflow.simulation.sumo;
+
+import at.fhv.transflow.simulation.sumo.data.SumoObject;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.RecordComponent;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+
+/**
+ * Filters the objects of a single simulation domain (e.g. lanes) for publishing, so that an object is only published
+ * again if it has noticeably changed since it was published the last time.<br>
+ * An object counts as changed if any of its (record) fields differs from the last published state of the object with
+ * the same ID. Numeric fields may be given a deadband, i.e. an absolute difference which has to be exceeded before a
+ * change of this field is considered, while a numeric field becoming NaN (or no longer being NaN) always counts as
+ * changed. As changes are always compared to the last <b>published</b> state, slowly
+ * drifting values are still published once their accumulated change exceeds the deadband.<br>
+ * <br>
+ * Every {@code keyframeInterval} steps, a keyframe containing every object regardless of its changes is published,
+ * so that subscribers joining later on (or having missed messages) can resynchronize their state.<br>
+ * <br>
+ * {@link #filter(Stream)} has to be called once per step and in step order, but the returned stream may be processed
+ * in parallel. The fields of a record type are resolved only once, when the first object of this type is compared.
+ * @param <T> The type of the filtered DTOs. Only the fields of record types are compared, any other object counts
+ *            as changed if it is not equal to its last published state.
+ */
+public class ChangeFilter<T extends SumoObject> {
+    private final Map<String, T> lastPublished = new ConcurrentHashMap<>();
+    private final Map<String, Double> deadbands;
+    // comparisons of every field of a record type, null for any other type
+    private final ClassValue<FieldComparison[]> fieldComparisons = new ClassValue<>() {
+        @Override
+        protected FieldComparison[] computeValue(Class<?> type) {
+            return type.isRecord() ? compareFieldsOf(type) : null;
+        }
+    };
+    private final int keyframeInterval;
+    private long filteredSteps = 0;
+
+    /**
+     * @param deadbands        The absolute deadband per numeric field name (e.g. {@code meanVehicleSpeed -> 0.5}).
+     *                         Fields without a deadband are considered changed on any difference.
+     * @param keyframeInterval The number of steps between two keyframes, which contain every object.
+     */
+    public ChangeFilter(Map<String, Double> deadbands, int keyframeInterval) {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be a positive number of steps! Given: " + keyframeInterval);
+        }
+        this.deadbands = Map.copyOf(deadbands);
+        this.keyframeInterval = keyframeInterval;
+    }
+
+
+    /**
+     * Filters the objects of the next simulation step for the ones which are to be published and remembers them as
+     * the last published state. The very first step and every {@code keyframeInterval}-th step after it are keyframes.
+     * @param objects Every object of the domain in the current step.
+     * @return A lazy stream containing only the objects which have changed (or every object in case of a keyframe).
+     */
+    public Stream<T> filter(Stream<T> objects) {
+        boolean keyframe = filteredSteps++ % keyframeInterval == 0;
+
+        return objects.filter(object -> {
+            T last = lastPublished.get(object.id());
+            if (keyframe || last == null || hasChanged(last, object)) {
+                lastPublished.put(object.id(), object);
+                return true;
+            }
+            return false;
+        });
+    }
+
+
+    private boolean hasChanged(T last, T current) {
+        FieldComparison[] comparisons = fieldComparisons.get(current.getClass());
+        if (comparisons == null) return !Objects.equals(last, current);
+
+        try {
+            for (FieldComparison comparison : comparisons) {
+                if (comparison.hasChanged(last, current)) return true;
+            }
+        } catch (Throwable exp) {
+            // cannot compare the two states, so rather publish the object once too often than not at all
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Resolves the accessor of every field of the given record type once, so that comparing two objects neither
+     * requires reflection nor boxes any primitive field.
+     * @return The comparison of every field or null if any accessor is not accessible.
+     */
+    private FieldComparison[] compareFieldsOf(Class<?> recordType) {
+        RecordComponent[] components = recordType.getRecordComponents();
+        FieldComparison[] comparisons = new FieldComparison[components.length];
+
+        try {
+            for (int i = 0; i < components.length; i++) {
+                comparisons[i] = compareField(components[i]);
+            }
+        } catch (IllegalAccessException exp) {
+            return null;
+        }
+        return comparisons;
+    }
+
+    private FieldComparison compareField(RecordComponent component) throws IllegalAccessException {
+        MethodHandle accessor = MethodHandles.publicLookup().unreflect(component.getAccessor());
+        Class<?> type = component.getType();
+        double deadband = deadbands.getOrDefault(component.getName(), 0.0);
+
+        if (type.isPrimitive() && type != boolean.class && type != char.class) {
+            MethodHandle numeric = accessor.asType(MethodType.methodType(double.class, Object.class));
+            return (last, current) ->
+                numberChanged((double) numeric.invokeExact(last), (double) numeric.invokeExact(current), deadband);
+        }
+
+        MethodHandle getter = accessor.asType(MethodType.methodType(Object.class, Object.class));
+        if (Number.class.isAssignableFrom(type)) {
+            return (last, current) -> {
+                Object lastValue = (Object) getter.invokeExact(last);
+                Object currentValue = (Object) getter.invokeExact(current);
+                if (lastValue instanceof Number lastNumber && currentValue instanceof Number currentNumber) {
+                    return numberChanged(lastNumber.doubleValue(), currentNumber.doubleValue(), deadband);
+                }
+                return !Objects.equals(lastValue, currentValue);
+            };
+        }
+        return (last, current) ->
+            !Objects.deepEquals((Object) getter.invokeExact(last), (Object) getter.invokeExact(current));
+    }
+
+    private static boolean numberChanged(double lastValue, double currentValue, double deadband) {
+        // any difference to NaN would be NaN, which never exceeds the deadband
+        if (Double.isNaN(lastValue) || Double.isNaN(currentValue)) {
+            return Double.isNaN(lastValue) != Double.isNaN(currentValue);
+        }
+        return Math.abs(currentValue - lastValue) > deadband;
+    }
+
+
+    /**
+     * Compares a single field of two states of an object.
+     */
+    @FunctionalInterface
+    private interface FieldComparison {
+        boolean hasChanged(Object last, Object current) throws Throwable;
+    }
+}
@@ -0,0 +1,107 @@
+package at.fhv.transflow.simulation.sumo;
+
+import at.fhv.transflow.simulation.messaging.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+
+/**
+ * The state of a simulation run which is not part of SUMO's own state, saved periodically along with a SUMO state
+ * file in order to resume the run after a crash or a redeployment. Every checkpoint consists of two files named after
+ * the simulation time of the checkpoint: the SUMO state ({@link #stateFile(Path)}) and this record as JSON, which is
+ * only written once the SUMO state is complete. Thus, a checkpoint is only ever found if both of its files are valid.<br>
+ * Any other state of the controller (e.g. the last published objects of the {@link ChangeFilter change filters}) is not
+ * part of a checkpoint and starts over in the resumed run, which therefore begins with a keyframe containing every
+ * object.
+ * @param runId              The ID of the simulation run, which the resumed run keeps publishing to.
+ * @param currentMillis      The simulation time of the last step before the checkpoint.
+ * @param nextStepNumber     The running number of the first step after the checkpoint (see publish intervals).
+ * @param subscribedVehicles The IDs of every vehicle subscribed at the time of the checkpoint.
+ * @param ids                The content of every {@link IdDictionary} by domain topic, in ascending order of the codes.
+ * @param networkFrameCounts The number of network frames published so far per network domain, so that the network
+ *                           data published again by the resumed run does not overwrite any retained frame.
+ */
+public record Checkpoint(
+    String runId,
+    int currentMillis,
+    long nextStepNumber,
+    List<String> subscribedVehicles,
+    Map<String, List<String>> ids,
+    Map<String, Integer> networkFrameCounts
+) {
+    private static final String FILE_PREFIX = "checkpoint-";
+    private static final String METADATA_SUFFIX = ".json";
+    private static final String STATE_SUFFIX = ".state.xml.gz";
+    // number of checkpoints kept per simulation, older ones are deleted
+    private static final int RETAINED_CHECKPOINTS = 2;
+
+
+    /**
+     * Returns the path of the SUMO state file of this checkpoint within the given checkpoint directory.
+     */
+    public Path stateFile(Path directory) {
+        return directory.resolve(baseName(currentMillis) + STATE_SUFFIX);
+    }
+
+    /**
+     * Writes this checkpoint to the given directory, which already has to contain the SUMO state of the checkpoint,
+     * and deletes every checkpoint but the latest ones afterwards.
+     * @throws IOException if the checkpoint could not be written.
+     */
+    public void write(Path directory) throws IOException {
+        Path metadataFile = directory.resolve(baseName(currentMillis) + METADATA_SUFFIX);
+        Path tempFile = directory.resolve(metadataFile.getFileName() + ".tmp");
+
+        // a checkpoint must never be found half-written
+        Files.write(tempFile, JsonMapper.instance().toJsonBytes(this));
+        Files.move(tempFile, metadataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        List<Path> checkpoints = metadataFiles(directory);
+        for (Path outdated : checkpoints.subList(0, Math.max(checkpoints.size() - RETAINED_CHECKPOINTS, 0))) {
+            String baseName = outdated.getFileName().toString().replace(METADATA_SUFFIX, "");
+            Files.deleteIfExists(outdated);
+            Files.deleteIfExists(directory.resolve(baseName + STATE_SUFFIX));
+        }
+    }
+
+    /**
+     * Reads the latest checkpoint of the given directory.
+     * @return The checkpoint with the highest simulation time or an empty Optional if the directory does not contain
+     * any checkpoint.
+     * @throws IOException if the latest checkpoint could not be read.
+     */
+    public static Optional<Checkpoint> latest(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) return Optional.empty();
+
+        List<Path> checkpoints = metadataFiles(directory);
+        if (checkpoints.isEmpty()) return Optional.empty();
+
+        String json = Files.readString(checkpoints.get(checkpoints.size() - 1));
+        return Optional.of(JsonMapper.instance().fromJson(json, Checkpoint.class));
+    }
+
+
+    /**
+     * Lists the metadata files of every checkpoint in the given directory in ascending order of their simulation time.
+     */
+    private static List<Path> metadataFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(file -> file.getFileName().toString().startsWith(FILE_PREFIX))
+                .filter(file -> file.getFileName().toString().endsWith(METADATA_SUFFIX))
+                .sorted() // zero-padded simulation times sort in chronological order
+                .toList();
+        }
+    }
+
+    private static String baseName(int millis) {
+        return FILE_PREFIX + String.format("%012d", millis);
+    }
+}
@@ -0,0 +1,161 @@
+package at.fhv.transflow.simulation.sumo;
+
+import java.util.*;
+
+
+/**
+ * Quantizes the numeric columns of the {@link ColumnarSnapshot#toColumnMap(Map) column maps} of a single domain just
+ * like the {@link QuantizationModule} does for DTOs, i.e. writes every value as the nearest multiple of its field's
+ * resolution divided by the resolution.<br>
+ * <br>
+ * Optionally, quantized values are delta-coded against the last published value of the same entity, so that slowly
+ * changing values (e.g. the position of a vehicle) become small integers. The rows whose values are deltas are listed
+ * per column, every other row contains absolute values:
+ * <pre>
+ * {
+ *   "idCodes": [...],
+ *   "columns": { "SPEED": [1321, 4, -2, ...], "POSITION": { "x": [...], "y": [...], "z": [...] }, ... },
+ *   "nulls": { ... },
+ *   "deltas": { "SPEED": [1, 2, ...], "POSITION": [...] }
+ * }
+ * </pre>
+ * Every {@code keyframeInterval}-th call (starting with the first one) is a keyframe, which contains absolute values
+ * only, so that subscribers joining later on (or having missed messages) can resynchronize their state.<br>
+ * <br>
+ * The last values are kept in primitive arrays indexed by the entities' {@link IdDictionary} codes. This class is not
+ * thread-safe, column maps have to be quantized by a single thread in step order.
+ */
+public class ColumnQuantizer {
+    private final Map<String, Double> resolutions = new HashMap<>();
+    // 0 if values are not delta-coded
+    private final int keyframeInterval;
+    // the last published quantized values of every column
+    private final Map<String, LastValues> lastValues = new HashMap<>();
+    private long quantizedSteps = 0;
+
+    /**
+     * @param resolutions      The resolution of every quantized field by the field's name, e.g. {@code SPEED -> 0.01}.
+     * @param keyframeInterval The number of steps between two keyframes or 0 if values are not delta-coded at all.
+     */
+    public ColumnQuantizer(Map<String, Double> resolutions, int keyframeInterval) {
+        if (keyframeInterval < 0) {
+            throw new IllegalArgumentException("Keyframe interval must not be negative! Given: " + keyframeInterval);
+        }
+        resolutions.forEach((field, resolution) -> this.resolutions.put(FieldProjection.normalize(field), resolution));
+        this.keyframeInterval = keyframeInterval;
+    }
+
+
+    /**
+     * Creates a copy of the given column map with every column of a field with a resolution quantized (and
+     * delta-coded, if enabled). The given column map and its arrays remain unchanged.
+     * @param columnMap A column map as created by {@link ColumnarSnapshot#toColumnMap(Map)} or
+     *                  {@link ColumnarSnapshot#toEncodedColumnMap(Map, Map)}.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> quantize(Map<String, Object> columnMap) {
+        boolean deltaCoding = keyframeInterval > 0;
+        boolean keyframe = deltaCoding && quantizedSteps++ % keyframeInterval == 0;
+        int[] idCodes = (int[]) columnMap.get("idCodes");
+        Map<String, Object> columns = (Map<String, Object>) columnMap.get("columns");
+        Map<String, Object> nulls = (Map<String, Object>) columnMap.get("nulls");
+
+        Map<String, Object> quantizedColumns = new LinkedHashMap<>(columns);
+        Map<String, Object> deltas = new LinkedHashMap<>();
+        columns.forEach((name, values) -> {
+            Double resolution = resolutions.get(FieldProjection.normalize(name));
+            if (resolution == null) return;
+
+            BitSet nullRows = new BitSet();
+            if (nulls.get(name) instanceof int[] rows) {
+                Arrays.stream(rows).forEach(nullRows::set);
+            }
+            double[][] components;
+            if (values instanceof double[] doubles) {
+                components = new double[][]{doubles};
+            } else if (values instanceof Map<?, ?> coordinates && coordinates.get("x") instanceof double[] x
+                && coordinates.get("y") instanceof double[] y && coordinates.get("z") instanceof double[] z) {
+                components = new double[][]{x, y, z};
+            } else {
+                return;
+            }
+            LastValues last = deltaCoding
+                ? lastValues.computeIfAbsent(name, column -> new LastValues(components.length))
+                : null;
+
+            long[][] quantized = new long[components.length][idCodes.length];
+            int[] deltaRows = quantize(components, quantized, resolution, idCodes, nullRows, last, keyframe);
+            quantizedColumns.put(name, components.length == 1
+                ? quantized[0]
+                : Map.of("x", quantized[0], "y", quantized[1], "z", quantized[2]));
+            if (last != null) {
+                deltas.put(name, deltaRows);
+            }
+        });
+
+        Map<String, Object> quantizedMap = new LinkedHashMap<>(columnMap);
+        quantizedMap.put("columns", quantizedColumns);
+        if (deltaCoding) {
+            quantizedMap.put("deltas", deltas);
+        }
+        return quantizedMap;
+    }
+
+
+    /**
+     * Quantizes the components of a single column (e.g. the three coordinates of a position) and replaces the values
+     * of every entity with a last value by their deltas, unless this is a keyframe.
+     * @param quantized The arrays to write the quantized values of every component to.
+     * @param last      The last values of the column or null if values are not delta-coded.
+     * @return The rows whose values have been replaced by deltas.
+     */
+    private static int[] quantize(double[][] components, long[][] quantized, double resolution, int[] idCodes,
+                                  BitSet nullRows, LastValues last, boolean keyframe) {
+        int[] deltaRows = new int[idCodes.length];
+        int deltaCount = 0;
+
+        for (int row = 0; row < idCodes.length; row++) {
+            for (int component = 0; component < components.length; component++) {
+                // coordinates of two-dimensional networks are NaN, which is quantized as 0
+                quantized[component][row] = QuantizationModule.quantize(components[component][row], resolution);
+            }
+            // values of null rows are undefined and not remembered
+            if (last == null || nullRows.get(row)) continue;
+
+            int code = idCodes[row];
+            last.ensureCapacity(code);
+            boolean delta = !keyframe && last.known.get(code);
+            for (int component = 0; component < components.length; component++) {
+                long value = quantized[component][row];
+                if (delta) quantized[component][row] = value - last.values[component][code];
+                last.values[component][code] = value;
+            }
+            last.known.set(code);
+            if (delta) deltaRows[deltaCount++] = row;
+        }
+
+        return Arrays.copyOf(deltaRows, deltaCount);
+    }
+
+
+    /**
+     * The last published quantized values of a single column, indexed by the entities' codes.
+     */
+    private static class LastValues {
+        private final long[][] values;
+        private final BitSet known = new BitSet();
+
+        LastValues(int components) {
+            values = new long[components][0];
+        }
+
+        void ensureCapacity(int code) {
+            if (code < values[0].length) return;
+
+            int capacity = Math.max(code + 1, values[0].length * 2);
+            for (int component = 0; component < values.length; component++) {
+                values[component] = Arrays.copyOf(values[component], capacity);
+            }
+        }
+    }
+}
@@ -0,0 +1,565 @@
+package at.fhv.transflow.simulation.sumo;
+
+import at.fhv.transflow.simulation.sumo.data.Position;
+import at.fhv.transflow.simulation.sumo.mapping.SumoMapper;
+import org.eclipse.sumo.libsumo.*;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+
+/**
+ * Column-oriented copy of the subscription results of a whole SUMO domain (e.g. every vehicle) in a single simulation
+ * step. Every row represents one entity, every column one subscribed property. Numeric properties are stored in
+ * primitive arrays (with absent or invalid values tracked in a {@link BitSet}), so that a step neither allocates
+ * a boxed object per value nor a map per entity. IDs are encoded by an {@link IdDictionary}, which keeps the codes
+ * of an entity stable across steps.<br>
+ * <br>
+ * Consumers like serializers or aggregations may scan the {@link #column(int) columns} directly, while
+ * {@link #mapParallel(BiFunction)} still provides a row-based view for mapping entities to DTOs.<br>
+ * A snapshot is immutable once created and may be read by any thread.
+ */
+public class ColumnarSnapshot {
+    public static final ColumnarSnapshot EMPTY = new ColumnarSnapshot(0, new int[0], new String[0], Map.of());
+    private final int rowCount;
+    private final int[] idCodes;
+    private final String[] ids;
+    private final Map<Integer, Column> columns;
+
+    private ColumnarSnapshot(int rowCount, int[] idCodes, String[] ids, Map<Integer, Column> columns) {
+        this.rowCount = rowCount;
+        this.idCodes = idCodes;
+        this.ids = ids;
+        this.columns = Collections.unmodifiableMap(columns);
+    }
+
+    /**
+     * Copies the subscription results of a whole SUMO domain into a new snapshot. The type of a column is
+     * determined by the first result of the respective property. Must be called by the thread controlling the
+     * simulation, as it reads native memory and encodes new IDs.
+     * @param allResults   {@link TraCIResults} of every subscribed entity of a SUMO domain by the entity's ID, e.g. the
+     *                     {@link SubscriptionResults} of the domain.
+     * @param idDictionary The dictionary of the domain, which every ID is encoded with.
+     * @param references   The dictionary of every property referencing entities of another domain (e.g. a vehicle's
+     *                     route) by its property ID. Every referenced ID is encoded with the respective dictionary.
+     */
+    public static ColumnarSnapshot of(Map<String, TraCIResults> allResults, IdDictionary idDictionary,
+                                      Map<Integer, IdDictionary> references) {
+        int rowCount = allResults.size();
+        int[] idCodes = new int[rowCount];
+        String[] ids = new String[rowCount];
+        Map<Integer, Column> columns = new LinkedHashMap<>();
+
+        int row = 0;
+        for (Map.Entry<String, TraCIResults> resultsPerId : allResults.entrySet()) {
+            idCodes[row] = idDictionary.encode(resultsPerId.getKey());
+            ids[row] = idDictionary.decode(idCodes[row]);
+
+            for (Map.Entry<Integer, TraCIResult> result : resultsPerId.getValue().entrySet()) {
+                final TraCIResult value = result.getValue();
+                Column column = columns.computeIfAbsent(result.getKey(), propertyId -> Column.forResult(value, rowCount));
+                column.set(row, value);
+
+                IdDictionary referencedDictionary = references.get(result.getKey());
+                if (referencedDictionary != null) {
+                    referencedDictionary.encodeReferences(column.get(row));
+                }
+            }
+            row++;
+        }
+
+        return new ColumnarSnapshot(rowCount, idCodes, ids, columns);
+    }
+
+    /**
+     * Creates a snapshot of values which have already been converted instead of subscription results, e.g. to test
+     * consumers of snapshots without a running simulation. The type of a column is determined by the first value of
+     * the respective property: doubles, integers and {@link Position positions} are stored in their primitive columns,
+     * any other value in an {@link ObjectColumn}. Null values and values not matching their column are left empty.
+     * @param allValues    The values of every entity by property ID, by the entity's ID.
+     * @param idDictionary The dictionary of the domain, which every ID is encoded with.
+     */
+    static ColumnarSnapshot ofValues(Map<String, Map<Integer, Object>> allValues, IdDictionary idDictionary) {
+        int rowCount = allValues.size();
+        int[] idCodes = new int[rowCount];
+        String[] ids = new String[rowCount];
+        Map<Integer, Column> columns = new LinkedHashMap<>();
+
+        int row = 0;
+        for (Map.Entry<String, Map<Integer, Object>> valuesPerId : allValues.entrySet()) {
+            idCodes[row] = idDictionary.encode(valuesPerId.getKey());
+            ids[row] = idDictionary.decode(idCodes[row]);
+
+            for (Map.Entry<Integer, Object> property : valuesPerId.getValue().entrySet()) {
+                Object value = property.getValue();
+                if (value == null) continue;
+
+                Column column = columns.computeIfAbsent(property.getKey(), propertyId -> {
+                    if (value instanceof Double) return new DoubleColumn(rowCount);
+                    if (value instanceof Integer) return new IntColumn(rowCount);
+                    if (value instanceof Position) return new PositionColumn(rowCount);
+                    return new ObjectColumn(rowCount);
+                });
+
+                if (column instanceof DoubleColumn doubleColumn && value instanceof Double number) {
+                    doubleColumn.values[row] = number;
+                } else if (column instanceof IntColumn intColumn && value instanceof Integer number) {
+                    intColumn.values[row] = number;
+                } else if (column instanceof PositionColumn positionColumn && value instanceof Position position) {
+                    positionColumn.x[row] = position.x() != null ? position.x() : Double.NaN;
+                    positionColumn.y[row] = position.y() != null ? position.y() : Double.NaN;
+                    positionColumn.z[row] = position.z() != null ? position.z() : Double.NaN;
+                } else if (column instanceof ObjectColumn objectColumn) {
+                    objectColumn.values[row] = value;
+                } else {
+                    continue;
+                }
+                column.present.set(row);
+            }
+            row++;
+        }
+
+        return new ColumnarSnapshot(rowCount, idCodes, ids, columns);
+    }
+
+    /**
+     * Creates a lookup of column names by the property IDs of the given fields, e.g. for
+     * {@link #toColumnMap(Map)}. Every field is named after its enum constant.
+     */
+    public static <E extends Enum<E>> Map<Integer, String> columnNames(E[] fields, ToIntFunction<E> propertyId) {
+        Map<Integer, String> names = new HashMap<>();
+        for (E field : fields) {
+            names.put(propertyId.applyAsInt(field), field.name());
+        }
+        return names;
+    }
+
+
+    /**
+     * Copies the given rows of one or more snapshots into a new snapshot, e.g. to publish only some entities of a step.
+     * The rows are taken from the sources in the given order, with columns missing in a source left empty for its rows.
+     * @param sources The snapshots to copy rows from, which have to belong to the same domain.
+     * @param rows    The rows to copy from each source, in the order of the sources.
+     */
+    static ColumnarSnapshot gather(ColumnarSnapshot[] sources, int[][] rows) {
+        int rowCount = Arrays.stream(rows).mapToInt(sourceRows -> sourceRows.length).sum();
+        int[] idCodes = new int[rowCount];
+        String[] ids = new String[rowCount];
+        Map<Integer, Column> columns = new LinkedHashMap<>();
+
+        int targetRow = 0;
+        for (int i = 0; i < sources.length; i++) {
+            ColumnarSnapshot source = sources[i];
+            for (int row : rows[i]) {
+                idCodes[targetRow] = source.idCodes[row];
+                ids[targetRow] = source.ids[row];
+
+                for (Map.Entry<Integer, Column> column : source.columns.entrySet()) {
+                    Column target = columns.computeIfAbsent(column.getKey(),
+                        propertyId -> column.getValue().emptyCopy(rowCount));
+                    column.getValue().copy(row, target, targetRow);
+                }
+                targetRow++;
+            }
+        }
+
+        return new ColumnarSnapshot(rowCount, idCodes, ids, columns);
+    }
+
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public String id(int row) {
+        return ids[row];
+    }
+
+    /**
+     * Returns the {@link IdDictionary} code of the entity in the given row.
+     */
+    public int idCode(int row) {
+        return idCodes[row];
+    }
+
+    /**
+     * Returns the column of the given property or null if no entity contains this property.
+     */
+    public Column column(int propertyId) {
+        return columns.get(propertyId);
+    }
+
+    /**
+     * Returns every column of this snapshot by the ID of its property.
+     */
+    public Map<Integer, Column> columns() {
+        return columns;
+    }
+
+    /**
+     * Creates a new snapshot containing only the given rows of this snapshot in the given order.
+     */
+    public ColumnarSnapshot select(int[] rows) {
+        return gather(new ColumnarSnapshot[]{this}, new int[][]{rows});
+    }
+
+    /**
+     * Returns a read-only view of a single row, which maps the property IDs to the property values of the row as
+     * converted by {@link SumoMapper#fromTraCI(TraCIResult)}. Values are only boxed once they are requested.
+     */
+    public Map<Integer, Object> row(int row) {
+        return new RowView(row);
+    }
+
+    /**
+     * Maps every row to a DTO in parallel by applying the given mapper function to its ID and {@link #row(int) row view}.
+     */
+    public <T> Stream<T> mapParallel(BiFunction<String, Map<Integer, Object>, T> mapper) {
+        return IntStream.range(0, rowCount).parallel()
+            .mapToObj(row -> mapper.apply(ids[row], row(row)));
+    }
+
+    /**
+     * Converts this snapshot into a column-oriented structure of plain arrays, which any payload serializer is able to
+     * write without boxing single values:
+     * <pre>
+     * {
+     *   "ids": ["veh0", ...],
+     *   "idCodes": [0, ...],
+     *   "columns": { "SPEED": [13.2, ...], "POSITION": { "x": [...], "y": [...], "z": [...] }, ... },
+     *   "nulls": { "SPEED": [rows without a valid value], ... }
+     * }
+     * </pre>
+     * Values of rows listed in {@code nulls} are undefined.
+     * @param columnNames The name of every property to include by its property ID. Other columns are omitted.
+     */
+    public Map<String, Object> toColumnMap(Map<Integer, String> columnNames) {
+        return toColumnMap(columnNames, null);
+    }
+
+    /**
+     * Converts this snapshot into a column-oriented structure just like {@link #toColumnMap(Map)}, but refers to every
+     * entity by its {@link IdDictionary} code only. Thus, the {@code ids} array is omitted and the IDs in columns
+     * referencing other entities are replaced by their codes (see {@link IdDictionary#referenceCodes(Object)}).
+     * @param columnNames The name of every property to include by its property ID. Other columns are omitted.
+     * @param references  The dictionary of every property referencing entities of another domain by its property ID.
+     */
+    public Map<String, Object> toEncodedColumnMap(Map<Integer, String> columnNames, Map<Integer, IdDictionary> references) {
+        return toColumnMap(columnNames, references);
+    }
+
+
+    private Map<String, Object> toColumnMap(Map<Integer, String> columnNames, Map<Integer, IdDictionary> references) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        Map<String, Object> nulls = new LinkedHashMap<>();
+
+        columns.forEach((propertyId, column) -> {
+            String name = columnNames.get(propertyId);
+            if (name == null) return;
+
+            IdDictionary referencedDictionary = references != null ? references.get(propertyId) : null;
+            if (referencedDictionary != null) {
+                values.put(name, IntStream.range(0, rowCount)
+                    .mapToObj(row -> referencedDictionary.referenceCodes(column.get(row)))
+                    .toArray());
+            } else {
+                values.put(name, column.values());
+            }
+            int[] nullRows = IntStream.range(0, rowCount).filter(column::isNull).toArray();
+            if (nullRows.length > 0) {
+                nulls.put(name, nullRows);
+            }
+        });
+
+        Map<String, Object> columnMap = new LinkedHashMap<>();
+        if (references == null) {
+            columnMap.put("ids", ids);
+        }
+        columnMap.put("idCodes", idCodes);
+        columnMap.put("columns", values);
+        columnMap.put("nulls", nulls);
+        return columnMap;
+    }
+
+
+    /**
+     * A single column of a snapshot containing the values of one property for every row.
+     */
+    public abstract static sealed class Column permits DoubleColumn, IntColumn, PositionColumn, ObjectColumn {
+        // rows with a valid value
+        protected final BitSet present;
+
+        private Column(int rowCount) {
+            this.present = new BitSet(rowCount);
+        }
+
+        private static Column forResult(TraCIResult result, int rowCount) {
+            if (result instanceof TraCIDouble) return new DoubleColumn(rowCount);
+            if (result instanceof TraCIInt) return new IntColumn(rowCount);
+            if (result instanceof TraCIPosition) return new PositionColumn(rowCount);
+            return new ObjectColumn(rowCount);
+        }
+
+        public boolean isNull(int row) {
+            return !present.get(row);
+        }
+
+        /**
+         * Returns the value of the given row as converted by {@link SumoMapper#fromTraCI(TraCIResult)}
+         * or null if the row does not have a valid value.
+         */
+        public abstract Object get(int row);
+
+        /**
+         * Returns the underlying arrays of this column, e.g. for serialization.
+         */
+        protected abstract Object values();
+
+        protected abstract void set(int row, TraCIResult result);
+
+        /**
+         * Creates an empty column of the same type with the given number of rows.
+         */
+        protected abstract Column emptyCopy(int rowCount);
+
+        /**
+         * Copies the value of a row into a row of the given column, if the value is valid and the column is of the
+         * same type.
+         */
+        protected abstract void copy(int row, Column target, int targetRow);
+    }
+
+    public static final class DoubleColumn extends Column {
+        private final double[] values;
+
+        private DoubleColumn(int rowCount) {
+            super(rowCount);
+            values = new double[rowCount];
+        }
+
+        public double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        public Double get(int row) {
+            return isNull(row) ? null : values[row];
+        }
+
+        @Override
+        protected double[] values() {
+            return values;
+        }
+
+        @Override
+        protected void set(int row, TraCIResult result) {
+            if (result instanceof TraCIDouble traciDouble && SumoMapper.isValid(traciDouble.getValue())) {
+                values[row] = traciDouble.getValue();
+                present.set(row);
+            }
+        }
+
+        @Override
+        protected DoubleColumn emptyCopy(int rowCount) {
+            return new DoubleColumn(rowCount);
+        }
+
+        @Override
+        protected void copy(int row, Column target, int targetRow) {
+            if (!isNull(row) && target instanceof DoubleColumn doubleTarget) {
+                doubleTarget.values[targetRow] = values[row];
+                doubleTarget.present.set(targetRow);
+            }
+        }
+    }
+
+    public static final class IntColumn extends Column {
+        private final int[] values;
+
+        private IntColumn(int rowCount) {
+            super(rowCount);
+            values = new int[rowCount];
+        }
+
+        public int getInt(int row) {
+            return values[row];
+        }
+
+        @Override
+        public Integer get(int row) {
+            return isNull(row) ? null : values[row];
+        }
+
+        @Override
+        protected int[] values() {
+            return values;
+        }
+
+        @Override
+        protected void set(int row, TraCIResult result) {
+            if (result instanceof TraCIInt traciInt && SumoMapper.isValid(traciInt.getValue())) {
+                values[row] = traciInt.getValue();
+                present.set(row);
+            }
+        }
+
+        @Override
+        protected IntColumn emptyCopy(int rowCount) {
+            return new IntColumn(rowCount);
+        }
+
+        @Override
+        protected void copy(int row, Column target, int targetRow) {
+            if (!isNull(row) && target instanceof IntColumn intTarget) {
+                intTarget.values[targetRow] = values[row];
+                intTarget.present.set(targetRow);
+            }
+        }
+    }
+
+    /**
+     * Column of positions, whose coordinates are stored in three separate arrays. Invalid single coordinates
+     * (e.g. the z coordinate of a two-dimensional network) are stored as {@link Double#NaN}.
+     */
+    public static final class PositionColumn extends Column {
+        private final double[] x;
+        private final double[] y;
+        private final double[] z;
+
+        private PositionColumn(int rowCount) {
+            super(rowCount);
+            x = new double[rowCount];
+            y = new double[rowCount];
+            z = new double[rowCount];
+        }
+
+        public double getX(int row) {
+            return x[row];
+        }
+
+        public double getY(int row) {
+            return y[row];
+        }
+
+        public double getZ(int row) {
+            return z[row];
+        }
+
+        @Override
+        public Position get(int row) {
+            if (isNull(row)) return new Position();
+            return new Position(coordinate(x[row]), coordinate(y[row]), coordinate(z[row]));
+        }
+
+        @Override
+        protected Map<String, double[]> values() {
+            return Map.of("x", x, "y", y, "z", z);
+        }
+
+        @Override
+        protected void set(int row, TraCIResult result) {
+            if (result instanceof TraCIPosition position) {
+                x[row] = SumoMapper.isValid(position.getX()) ? position.getX() : Double.NaN;
+                y[row] = SumoMapper.isValid(position.getY()) ? position.getY() : Double.NaN;
+                z[row] = SumoMapper.isValid(position.getZ()) ? position.getZ() : Double.NaN;
+                present.set(row);
+            }
+        }
+
+        @Override
+        protected PositionColumn emptyCopy(int rowCount) {
+            return new PositionColumn(rowCount);
+        }
+
+        @Override
+        protected void copy(int row, Column target, int targetRow) {
+            if (!isNull(row) && target instanceof PositionColumn positionTarget) {
+                positionTarget.x[targetRow] = x[row];
+                positionTarget.y[targetRow] = y[row];
+                positionTarget.z[targetRow] = z[row];
+                positionTarget.present.set(targetRow);
+            }
+        }
+
+        private static Double coordinate(double value) {
+            return Double.isNaN(value) ? null : value;
+        }
+    }
+
+    /**
+     * Column of any other property type (e.g. strings or lists), whose values are converted by
+     * {@link SumoMapper#fromTraCI(TraCIResult)} right away.
+     */
+    public static final class ObjectColumn extends Column {
+        private final Object[] values;
+
+        private ObjectColumn(int rowCount) {
+            super(rowCount);
+            values = new Object[rowCount];
+        }
+
+        @Override
+        public Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        protected Object[] values() {
+            return values;
+        }
+
+        @Override
+        protected void set(int row, TraCIResult result) {
+            values[row] = SumoMapper.fromTraCI(result);
+            if (values[row] != null) {
+                present.set(row);
+            }
+        }
+
+        @Override
+        protected ObjectColumn emptyCopy(int rowCount) {
+            return new ObjectColumn(rowCount);
+        }
+
+        @Override
+        protected void copy(int row, Column target, int targetRow) {
+            if (!isNull(row) && target instanceof ObjectColumn objectTarget) {
+                objectTarget.values[targetRow] = values[row];
+                objectTarget.present.set(targetRow);
+            }
+        }
+    }
+
+
+    /**
+     * Read-only map view of a single row. Only {@link #get(Object)} is optimized, which is all the mappers use.
+     */
+    private class RowView extends AbstractMap<Integer, Object> {
+        private final int row;
+
+        private RowView(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public Object get(Object propertyId) {
+            Column column = columns.get(propertyId);
+            return column != null ? column.get(row) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object propertyId) {
+            return columns.containsKey(propertyId);
+        }
+
+        @Override
+        public Set<Entry<Integer, Object>> entrySet() {
+            Set<Entry<Integer, Object>> entries = new LinkedHashSet<>();
+            columns.forEach((propertyId, column) -> entries.add(new SimpleImmutableEntry<>(propertyId, column.get(row))));
+            return entries;
+        }
+    }
+}
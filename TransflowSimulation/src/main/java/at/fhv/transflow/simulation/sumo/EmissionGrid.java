@@ -0,0 +1,182 @@
+package at.fhv.transflow.simulation.sumo;
+
+import at.fhv.transflow.simulation.sumo.mapping.VehicleMapper;
+
+import java.util.*;
+
+
+/**
+ * Accumulates the emissions and noise of every vehicle in the cells of a uniform grid over the road network, so that
+ * spatial emission maps are published as a few cells per window instead of every vehicle of every step. Per cell and
+ * tumbling window of simulation time, the grid sums up
+ * <ul>
+ *   <li>the emitted CO2, NOx and PMx in milligrams (the emission rate of every vehicle multiplied by the simulation
+ *   time it represents) and</li>
+ *   <li>the noise energy of every vehicle, which is published as the equivalent continuous sound level of the window
+ *   in dB(A).</li>
+ * </ul>
+ * The grid consists of primitive arrays allocated once for the whole network. Vehicles outside of the network's
+ * boundary are ignored. This class is not thread-safe. Steps have to be added by a single thread in order.
+ */
+public class EmissionGrid {
+    // the vehicle fields which the grid is computed from
+    public static final Set<String> VEHICLE_FIELDS = Set.of(
+        VehicleMapper.Fields.POSITION.name(),
+        VehicleMapper.Fields.CO_2_MG_PER_SECOND.name(),
+        VehicleMapper.Fields.NOX_MG_PER_SECOND.name(),
+        VehicleMapper.Fields.PMX_MG_PER_SECOND.name(),
+        VehicleMapper.Fields.NOISE_DBA.name()
+    );
+    private static final int[] EMISSION_PROPERTIES = {
+        VehicleMapper.Fields.CO_2_MG_PER_SECOND.sumoPropertyId,
+        VehicleMapper.Fields.NOX_MG_PER_SECOND.sumoPropertyId,
+        VehicleMapper.Fields.PMX_MG_PER_SECOND.sumoPropertyId
+    };
+    private static final String[] EMISSION_NAMES = {"CO2_MG", "NOX_MG", "PMX_MG"};
+    private final double originX;
+    private final double originY;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final int windowMillis;
+    private final double sampleSeconds;
+    // one array per emission, indexed by cell
+    private final double[][] emissions;
+    private final double[] noiseEnergy;
+    private final BitSet touchedCells;
+    private long currentWindow = Long.MIN_VALUE;
+
+    /**
+     * @param boundary     The lower left and upper right corner of the area covered by the grid, e.g. the boundary of the
+     *                     road network.
+     * @param cellSize     The edge length of a single cell in meters.
+     * @param windowMillis The length of a window in milliseconds of simulation time.
+     * @param sampleMillis The simulation time represented by the vehicles of a single step in milliseconds.
+     */
+    public EmissionGrid(List<Double[]> boundary, double cellSize, int windowMillis, int sampleMillis) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("Cell size must be a positive number of meters! Given: " + cellSize);
+        }
+        double[] bounds = ShapeIndex.bounds(boundary);
+        this.originX = bounds[0];
+        this.originY = bounds[1];
+        this.cellSize = cellSize;
+        this.columns = Math.max((int) Math.ceil((bounds[2] - bounds[0]) / cellSize), 1);
+        this.rows = Math.max((int) Math.ceil((bounds[3] - bounds[1]) / cellSize), 1);
+        this.windowMillis = windowMillis;
+        this.sampleSeconds = sampleMillis / 1000.0;
+
+        this.emissions = new double[EMISSION_PROPERTIES.length][columns * rows];
+        this.noiseEnergy = new double[columns * rows];
+        this.touchedCells = new BitSet(columns * rows);
+    }
+
+
+    /**
+     * Adds the emissions and noise of every vehicle of a simulation step to the cells the vehicles are located in.
+     * @param stepMillis The simulation time of the step in milliseconds.
+     * @param vehicles   The snapshot of every vehicle in this step.
+     * @return The payload of the window completed by this step, if any (see {@link #toPayload(long)}).
+     */
+    public Optional<Map<String, Object>> add(int stepMillis, ColumnarSnapshot vehicles) {
+        long window = Math.floorDiv(stepMillis, windowMillis);
+        Optional<Map<String, Object>> completed = Optional.empty();
+        if (window != currentWindow) {
+            if (currentWindow != Long.MIN_VALUE) {
+                completed = Optional.of(toPayload(currentWindow));
+            }
+            clear();
+            currentWindow = window;
+        }
+
+        if (!(vehicles.column(VehicleMapper.Fields.POSITION.sumoPropertyId) instanceof ColumnarSnapshot.PositionColumn positions)) {
+            return completed;
+        }
+        ColumnarSnapshot.Column[] emissionColumns = new ColumnarSnapshot.Column[EMISSION_PROPERTIES.length];
+        for (int i = 0; i < EMISSION_PROPERTIES.length; i++) {
+            emissionColumns[i] = vehicles.column(EMISSION_PROPERTIES[i]);
+        }
+        ColumnarSnapshot.Column noise = vehicles.column(VehicleMapper.Fields.NOISE_DBA.sumoPropertyId);
+
+        for (int row = 0; row < vehicles.rowCount(); row++) {
+            if (positions.isNull(row)) continue;
+            int column = (int) Math.floor((positions.getX(row) - originX) / cellSize);
+            int gridRow = (int) Math.floor((positions.getY(row) - originY) / cellSize);
+            if (column < 0 || column >= columns || gridRow < 0 || gridRow >= rows) continue;
+
+            int cell = gridRow * columns + column;
+            touchedCells.set(cell);
+            for (int i = 0; i < emissionColumns.length; i++) {
+                if (emissionColumns[i] instanceof ColumnarSnapshot.DoubleColumn emission && !emission.isNull(row)) {
+                    emissions[i][cell] += emission.getDouble(row) * sampleSeconds;
+                }
+            }
+            if (noise instanceof ColumnarSnapshot.DoubleColumn noiseColumn && !noiseColumn.isNull(row)) {
+                noiseEnergy[cell] += Math.pow(10, noiseColumn.getDouble(row) / 10) * sampleSeconds;
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * Completes the window which is still open at the end of a simulation run, i.e. the window of the latest added
+     * step, which would otherwise only be completed by a step following it.
+     * @return The payload of the completed window or an empty Optional if no step has been added since the last
+     * completed window.
+     */
+    public Optional<Map<String, Object>> finish() {
+        if (currentWindow == Long.MIN_VALUE) return Optional.empty();
+
+        Map<String, Object> completed = toPayload(currentWindow);
+        clear();
+        currentWindow = Long.MIN_VALUE;
+        return Optional.of(completed);
+    }
+
+
+    /**
+     * Converts every cell with at least one vehicle in the current window into a column-oriented structure, where
+     * a cell's index is {@code row * columns + column} and rows count upwards from the origin:
+     * <pre>
+     * {
+     *   "windowStart": 0, "windowEnd": 60000,
+     *   "originX": 0.0, "originY": 0.0, "cellSize": 50.0, "columns": 120, "rows": 80,
+     *   "cells": [17, 18, ...],
+     *   "CO2_MG": [...], "NOX_MG": [...], "PMX_MG": [...], "NOISE_DBA": [...]
+     * }
+     * </pre>
+     */
+    private Map<String, Object> toPayload(long window) {
+        int[] cells = touchedCells.stream().toArray();
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("windowStart", window * windowMillis);
+        payload.put("windowEnd", (window + 1) * windowMillis);
+        payload.put("originX", originX);
+        payload.put("originY", originY);
+        payload.put("cellSize", cellSize);
+        payload.put("columns", columns);
+        payload.put("rows", rows);
+        payload.put("cells", cells);
+        for (int i = 0; i < EMISSION_NAMES.length; i++) {
+            double[] values = emissions[i];
+            payload.put(EMISSION_NAMES[i], Arrays.stream(cells).mapToDouble(cell -> values[cell]).toArray());
+        }
+        double windowSeconds = windowMillis / 1000.0;
+        payload.put("NOISE_DBA", Arrays.stream(cells)
+            .mapToDouble(cell -> noiseEnergy[cell] > 0 ? 10 * Math.log10(noiseEnergy[cell] / windowSeconds) : 0)
+            .toArray());
+        return payload;
+    }
+
+    private void clear() {
+        // only the touched cells are reset, which are usually few compared to the size of the grid
+        touchedCells.stream().forEach(cell -> {
+            for (double[] values : emissions) {
+                values[cell] = 0;
+            }
+            noiseEnergy[cell] = 0;
+        });
+        touchedCells.clear();
+    }
+}
@@ -0,0 +1,116 @@
+package at.fhv.transflow.simulation.sumo;
+
+import at.fhv.transflow.simulation.sumo.mapping.EdgeMapper;
+import at.fhv.transflow.simulation.sumo.mapping.LaneMapper;
+import at.fhv.transflow.simulation.sumo.mapping.VehicleMapper;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * Limits the fields of the dynamic SUMO domains (vehicles, lanes and edges) which are subscribed and published in
+ * every simulation step. Fields are named after the constants of the mapper's {@code Fields} enum (e.g.
+ * {@link VehicleMapper.Fields#SPEED SPEED}), the leader of a vehicle is named {@value #LEADER_FIELD}.
+ * Domains without a projection include every field.<br>
+ * <br>
+ * A field which is not subscribed is missing from the subscription results, so it is omitted from columns right away.
+ * DTOs still contain its property (as null), which is removed during serialization by the {@link FieldProjectionModule}.
+ */
+public class FieldProjection {
+    public static final String LEADER_FIELD = "LEADER";
+    private static final Map<String, Set<String>> AVAILABLE_FIELDS = Map.of(
+        "vehicles", fieldNames(VehicleMapper.Fields.values(), LEADER_FIELD),
+        "lanes", fieldNames(LaneMapper.Fields.values()),
+        "edges", fieldNames(EdgeMapper.Fields.values())
+    );
+    private final Map<String, Set<String>> projectedFields;
+
+    /**
+     * @param projectedFields The names of the fields to include by their domain topic. Every domain which is not
+     *                        contained includes all of its fields.
+     */
+    public FieldProjection(Map<String, Set<String>> projectedFields) {
+        this.projectedFields = Map.copyOf(projectedFields);
+    }
+
+
+    /**
+     * Returns the names of every field of the given domain which may be projected, or null if the domain does not
+     * support any projection.
+     */
+    public static Set<String> availableFields(String domainTopic) {
+        return AVAILABLE_FIELDS.get(domainTopic);
+    }
+
+    /**
+     * Returns true if no domain is projected at all.
+     */
+    public boolean isEmpty() {
+        return projectedFields.isEmpty();
+    }
+
+    public boolean includes(String domainTopic, String field) {
+        Set<String> fields = projectedFields.get(domainTopic);
+        return fields == null || fields.contains(field);
+    }
+
+    public boolean includesLeader() {
+        return includes("vehicles", LEADER_FIELD);
+    }
+
+    /**
+     * Returns the IDs of the SUMO vehicle properties to subscribe (apart from the leader, see {@link #includesLeader()}).
+     */
+    public Set<Integer> vehicleProperties() {
+        return properties("vehicles", VehicleMapper.Fields.values(), field -> field.sumoPropertyId);
+    }
+
+    public Set<Integer> laneProperties() {
+        return properties("lanes", LaneMapper.Fields.values(), field -> field.sumoPropertyId);
+    }
+
+    public Set<Integer> edgeProperties() {
+        return properties("edges", EdgeMapper.Fields.values(), field -> field.sumoPropertyId);
+    }
+
+    /**
+     * Checks if a property of a domain's DTO is included. Properties are matched with fields by their names,
+     * ignoring case and underscores (e.g. {@code meanVehicleSpeed} and {@code MEAN_VEHICLE_SPEED}). The ID of an entity
+     * is always included.
+     */
+    public boolean includesProperty(String domainTopic, String propertyName) {
+        Set<String> fields = projectedFields.get(domainTopic);
+        if (fields == null || propertyName.equals("id")) return true;
+
+        // the leader subscription results in two properties
+        if (domainTopic.equals("vehicles") && propertyName.startsWith("leaderVehicle")) {
+            return fields.contains(LEADER_FIELD);
+        }
+        return fields.stream().anyMatch(field -> normalize(field).equals(normalize(propertyName)));
+    }
+
+
+    private <E extends Enum<E>> Set<Integer> properties(String domainTopic, E[] fields, ToIntFunction<E> propertyId) {
+        return Arrays.stream(fields)
+            .filter(field -> includes(domainTopic, field.name()))
+            .map(propertyId::applyAsInt)
+            .collect(Collectors.toSet());
+    }
+
+    private static Set<String> fieldNames(Enum<?>[] fields, String... extraFields) {
+        return Stream.concat(Arrays.stream(fields).map(Enum::name), Arrays.stream(extraFields))
+            .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Normalizes the name of a field or DTO property for matching, i.e. removes underscores and ignores case.
+     */
+    static String normalize(String name) {
+        return name.replace("_", "").toLowerCase();
+    }
+}
@@ -0,0 +1,52 @@
+package at.fhv.transflow.simulation.sumo;
+
+import at.fhv.transflow.simulation.sumo.data.EdgeData;
+import at.fhv.transflow.simulation.sumo.data.LaneData;
+import at.fhv.transflow.simulation.sumo.data.VehicleData;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+
+/**
+ * Jackson module which omits every property of the DTOs of a simulation step that is not included in the
+ * {@link FieldProjection}, instead of writing the property as null.
+ */
+public class FieldProjectionModule extends SimpleModule {
+    private static final Map<Class<?>, String> DOMAIN_TOPICS = Map.of(
+        VehicleData.class, "vehicles",
+        LaneData.class, "lanes",
+        EdgeData.class, "edges"
+    );
+
+    private final FieldProjection projection;
+
+    public FieldProjectionModule(FieldProjection projection) {
+        super("FieldProjectionModule");
+        this.projection = projection;
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        super.setupModule(context);
+
+        context.addBeanSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                             List<BeanPropertyWriter> properties) {
+                String domainTopic = DOMAIN_TOPICS.get(beanDesc.getBeanClass());
+                if (domainTopic == null) return properties;
+
+                return properties.stream()
+                    .filter(property -> projection.includesProperty(domainTopic, property.getName()))
+                    .collect(Collectors.toList());
+            }
+        });
+    }
+}
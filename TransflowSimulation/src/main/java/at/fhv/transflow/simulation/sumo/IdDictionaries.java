@@ -0,0 +1,103 @@
+package at.fhv.transflow.simulation.sumo;
+
+import at.fhv.transflow.simulation.sumo.mapping.EdgeMapper;
+import at.fhv.transflow.simulation.sumo.mapping.LaneMapper;
+import at.fhv.transflow.simulation.sumo.mapping.VehicleMapper;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * The {@link IdDictionary ID dictionaries} of every SUMO domain whose entities are referred to by the data of a
+ * simulation step, along with the properties of each domain which reference entities of another domain
+ * (e.g. the route of a vehicle).
+ */
+public class IdDictionaries {
+    private final IdDictionary vehicles = new IdDictionary();
+    private final IdDictionary lanes = new IdDictionary();
+    private final IdDictionary edges = new IdDictionary();
+    private final IdDictionary routes = new IdDictionary();
+    private final IdDictionary vehicleTypes = new IdDictionary();
+
+
+    public IdDictionary vehicles() {
+        return vehicles;
+    }
+
+    public IdDictionary lanes() {
+        return lanes;
+    }
+
+    public IdDictionary edges() {
+        return edges;
+    }
+
+    public IdDictionary routes() {
+        return routes;
+    }
+
+    public IdDictionary vehicleTypes() {
+        return vehicleTypes;
+    }
+
+    /**
+     * Returns every dictionary by the name of its domain topic (e.g. {@code vehicle_types}).
+     */
+    public Map<String, IdDictionary> byDomainTopic() {
+        Map<String, IdDictionary> dictionaries = new LinkedHashMap<>();
+        dictionaries.put("vehicles", vehicles);
+        dictionaries.put("lanes", lanes);
+        dictionaries.put("edges", edges);
+        dictionaries.put("routes", routes);
+        dictionaries.put("vehicle_types", vehicleTypes);
+        return dictionaries;
+    }
+
+    /**
+     * Returns the IDs of every dictionary by the name of its domain topic, in ascending order of their codes.
+     */
+    public Map<String, List<String>> toIdLists() {
+        Map<String, List<String>> idLists = new LinkedHashMap<>();
+        byDomainTopic().forEach((domainTopic, dictionary) ->
+            idLists.put(domainTopic, Arrays.asList(dictionary.range(0, dictionary.size()))));
+        return idLists;
+    }
+
+    /**
+     * Encodes the given IDs in their given order, so that every ID gets the same code as in the dictionaries the
+     * ID lists have been created from (see {@link #toIdLists()}). Must be called before any other ID is encoded.
+     */
+    public void restore(Map<String, List<String>> idLists) {
+        byDomainTopic().forEach((domainTopic, dictionary) ->
+            idLists.getOrDefault(domainTopic, List.of()).forEach(dictionary::encode));
+    }
+
+    /**
+     * Returns the dictionary of every vehicle property which references another entity by its property ID.
+     */
+    public Map<Integer, IdDictionary> vehicleReferences() {
+        return Map.of(
+            VehicleMapper.Fields.ROAD_ID.sumoPropertyId, edges,
+            VehicleMapper.Fields.ROUTE_ID.sumoPropertyId, routes,
+            VehicleMapper.Fields.VEHICLE_TYPE_ID.sumoPropertyId, vehicleTypes,
+            VehicleMapper.LEADER_PROPERTY, vehicles
+        );
+    }
+
+    /**
+     * Returns the dictionary of every lane property which references another entity by its property ID.
+     */
+    public Map<Integer, IdDictionary> laneReferences() {
+        return Map.of(LaneMapper.Fields.VEHICLE_IDS.sumoPropertyId, vehicles);
+    }
+
+    /**
+     * Returns the dictionary of every edge property which references another entity by its property ID.
+     */
+    public Map<Integer, IdDictionary> edgeReferences() {
+        return Map.of(EdgeMapper.Fields.VEHICLE_IDS.sumoPropertyId, vehicles);
+    }
+}
@@ -0,0 +1,121 @@
+package at.fhv.transflow.simulation.sumo;
+
+import at.fhv.transflow.simulation.sumo.mapping.SumoMapper;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Assigns a stable integer code to every ID of a SUMO domain (e.g. vehicles) encountered during a simulation run.
+ * Codes are assigned in ascending order starting at 0 and never change or get reused, so that an ID can be referred
+ * to by its code throughout the whole run.<br>
+ * <br>
+ * New IDs may only be {@link #encode(String) encoded} by the thread controlling the simulation. Other threads may
+ * look up the code of any ID at any time and decode any code they have obtained from a {@link ColumnarSnapshot}
+ * handed over by this thread.
+ */
+public class IdDictionary {
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    // both volatile, so that other threads never see a grown array before the IDs copied into it - a new ID is stored
+    // before the size is increased, so that every code below the size read by another thread can be decoded by it
+    private volatile String[] ids = new String[1024];
+    private volatile int size = 0;
+
+
+    /**
+     * Returns the code of the given ID and assigns a new code to the ID if it has not been encoded before.
+     */
+    public int encode(String id) {
+        Integer code = codes.get(id);
+        if (code != null) return code;
+
+        int newCode = size;
+        String[] currentIds = ids;
+        if (newCode == currentIds.length) {
+            currentIds = Arrays.copyOf(currentIds, newCode * 2);
+        }
+        currentIds[newCode] = id;
+        ids = currentIds;
+        codes.put(id, newCode);
+        size = newCode + 1;
+        return newCode;
+    }
+
+    /**
+     * Returns the code of the given ID without encoding it.
+     * @return The code of the ID or -1 if the ID has not been encoded yet.
+     */
+    public int codeOf(String id) {
+        return codes.getOrDefault(id, -1);
+    }
+
+    /**
+     * Returns the ID encoded as the given code. The returned instance is always the one stored when the ID was encoded
+     * for the first time, so that it is not necessary to retain another copy of the ID per simulation step.
+     * @throws IndexOutOfBoundsException if no ID has been encoded as the given code.
+     */
+    public String decode(int code) {
+        // the size has to be read before the array, see above
+        int currentSize = size;
+        if (code < 0 || code >= currentSize) {
+            throw new IndexOutOfBoundsException("Unknown ID code " + code + "! Dictionary size: " + currentSize);
+        }
+        return ids[code];
+    }
+
+    /**
+     * Returns the IDs of a range of codes in ascending order of their codes, e.g. to publish the entries
+     * added since a certain code.
+     * @param fromCode The first code of the range (inclusive).
+     * @param toCode   The last code of the range (exclusive).
+     */
+    public String[] range(int fromCode, int toCode) {
+        return Arrays.copyOfRange(ids, fromCode, toCode);
+    }
+
+    /**
+     * Encodes every ID contained in a property value referencing entities of this dictionary's domain. Supported values
+     * are single IDs, ID arrays and {@link SumoMapper.RoadPosition road positions} (as used by a vehicle's leader).
+     * Empty IDs and IDs prefixed with an underscore are used by SUMO to signal "no entity" and are ignored.
+     */
+    public void encodeReferences(Object value) {
+        if (value instanceof String id) {
+            if (isEntity(id)) encode(id);
+        } else if (value instanceof String[] ids) {
+            for (String id : ids) {
+                if (isEntity(id)) encode(id);
+            }
+        } else if (value instanceof SumoMapper.RoadPosition roadPosition) {
+            if (isEntity(roadPosition.id())) encode(roadPosition.id());
+        }
+    }
+
+    /**
+     * Replaces the IDs of a property value previously passed to {@link #encodeReferences(Object)} with their codes.
+     * @return The code of a single ID, an {@code int[]} of codes for an ID array, a two-element array of the code and
+     * the position for a road position, or null if the value does not reference any entity.
+     */
+    public Object referenceCodes(Object value) {
+        if (value instanceof String id) {
+            return isEntity(id) ? codeOf(id) : null;
+        } else if (value instanceof String[] ids) {
+            return Arrays.stream(ids).mapToInt(this::codeOf).toArray();
+        } else if (value instanceof SumoMapper.RoadPosition roadPosition) {
+            return isEntity(roadPosition.id()) ? new Object[]{codeOf(roadPosition.id()), roadPosition.position()} : null;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of IDs encoded so far.
+     */
+    public int size() {
+        return size;
+    }
+
+    private static boolean isEntity(String id) {
+        return id != null && !id.isEmpty() && !id.startsWith("_");
+    }
+}
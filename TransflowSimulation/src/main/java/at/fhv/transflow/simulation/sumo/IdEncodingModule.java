@@ -0,0 +1,114 @@
+package at.fhv.transflow.simulation.sumo;
+
+import at.fhv.transflow.simulation.sumo.data.EdgeData;
+import at.fhv.transflow.simulation.sumo.data.EventData;
+import at.fhv.transflow.simulation.sumo.data.LaneData;
+import at.fhv.transflow.simulation.sumo.data.TripData;
+import at.fhv.transflow.simulation.sumo.data.VehicleData;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Jackson module which writes the {@link IdDictionary} codes of entities instead of their string IDs whenever a DTO
+ * of a simulation step refers to an entity, e.g. the ID of a vehicle or the IDs of the vehicles on a lane.
+ * Every other property of the DTOs is serialized as usual.
+ */
+public class IdEncodingModule extends SimpleModule {
+    // the properties of every DTO type which refer to entities, along with the dictionary of the entities' domain
+    private final Map<Class<?>, Map<String, IdDictionary>> encodedProperties;
+
+    /**
+     * @param dictionaries The dictionaries which every referenced ID has already been encoded with.
+     */
+    public IdEncodingModule(IdDictionaries dictionaries) {
+        super("IdEncodingModule");
+
+        encodedProperties = Map.of(
+            VehicleData.class, Map.of(
+                "id", dictionaries.vehicles(),
+                "vehicleTypeId", dictionaries.vehicleTypes(),
+                "routeId", dictionaries.routes(),
+                "roadId", dictionaries.edges(),
+                "leaderVehicleId", dictionaries.vehicles()
+            ),
+            LaneData.class, Map.of(
+                "id", dictionaries.lanes(),
+                "vehicleIds", dictionaries.vehicles()
+            ),
+            EdgeData.class, Map.of(
+                "id", dictionaries.edges(),
+                "vehicleIds", dictionaries.vehicles()
+            ),
+            EventData.class, Map.of(
+                "id", dictionaries.vehicles(),
+                "otherVehicleId", dictionaries.vehicles(),
+                "laneId", dictionaries.lanes()
+            ),
+            TripData.class, Map.of(
+                "id", dictionaries.vehicles(),
+                "startEdgeId", dictionaries.edges(),
+                "endEdgeId", dictionaries.edges()
+            )
+        );
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        super.setupModule(context);
+
+        context.addBeanSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                             List<BeanPropertyWriter> properties) {
+                Map<String, IdDictionary> encoded = encodedProperties.get(beanDesc.getBeanClass());
+                if (encoded == null) return properties;
+
+                for (BeanPropertyWriter property : properties) {
+                    IdDictionary dictionary = encoded.get(property.getName());
+                    if (dictionary != null) {
+                        property.assignSerializer(new IdCodeSerializer(dictionary));
+                    }
+                }
+                return properties;
+            }
+        });
+    }
+
+
+    /**
+     * Writes a single ID or an array of IDs as their codes (see {@link IdDictionary#referenceCodes(Object)}).
+     */
+    private static class IdCodeSerializer extends StdSerializer<Object> {
+        private final IdDictionary dictionary;
+
+        IdCodeSerializer(IdDictionary dictionary) {
+            super(Object.class);
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        public void serialize(Object ids, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            Object codes = dictionary.referenceCodes(ids);
+
+            if (codes instanceof Integer code) {
+                generator.writeNumber(code);
+            } else if (codes instanceof int[] codeArray) {
+                generator.writeArray(codeArray, 0, codeArray.length);
+            } else {
+                generator.writeNull();
+            }
+        }
+    }
+}
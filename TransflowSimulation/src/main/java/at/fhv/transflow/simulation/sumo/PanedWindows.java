@@ -0,0 +1,145 @@
+package at.fhv.transflow.simulation.sumo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+
+/**
+ * Splits the simulation time of a run into panes (tumbling windows of the slide's length) and keeps the completed panes
+ * of the latest window, from which aggregators merge their windows of simulation time. Windows are aligned to multiples
+ * of the slide and are tumbling if the slide equals the window length, otherwise sliding.<br>
+ * <br>
+ * Panes are reset and recycled once they have left the latest window. This class is not thread-safe. Steps have to be
+ * started by a single thread in order.
+ * @param <P> The type of the data aggregated per pane.
+ */
+class PanedWindows<P> {
+    private final int windowMillis;
+    private final int slideMillis;
+    private final Supplier<P> newPane;
+    private final Consumer<P> resetPane;
+    // completed panes of the latest window, oldest first
+    private final Deque<Pane<P>> panes = new ArrayDeque<>();
+    private final Deque<Pane<P>> recycledPanes = new ArrayDeque<>();
+    private final List<P> windowPanes = new ArrayList<>();
+    private Pane<P> currentPane = null;
+    private long windowStartMillis;
+    private long windowEndMillis;
+
+    /**
+     * @param windowMillis The length of a window in milliseconds of simulation time.
+     * @param slideMillis  The time between the start of two consecutive windows in milliseconds of simulation time.
+     *                     The window length must be a multiple of the slide.
+     * @param newPane      Creates the data of a new, empty pane.
+     * @param resetPane    Empties the data of a pane which has left the latest window, so that it can be recycled.
+     */
+    PanedWindows(int windowMillis, int slideMillis, Supplier<P> newPane, Consumer<P> resetPane) {
+        if (slideMillis < 1 || windowMillis < slideMillis || windowMillis % slideMillis != 0) {
+            throw new IllegalArgumentException("Window length must be a positive multiple of the slide! Given: " +
+                windowMillis + "ms window, " + slideMillis + "ms slide");
+        }
+        this.windowMillis = windowMillis;
+        this.slideMillis = slideMillis;
+        this.newPane = newPane;
+        this.resetPane = resetPane;
+    }
+
+
+    /**
+     * Moves on to the pane the given step falls into.
+     * @param stepMillis The simulation time of the step in milliseconds.
+     * @return True if the step has completed a window, i.e. it is the first step after the window's end. The completed
+     * window is made up of the {@link #windowPanes() window panes} until the next call of this method.
+     */
+    boolean startStep(int stepMillis) {
+        long paneIndex = Math.floorDiv(stepMillis, slideMillis);
+        if (currentPane != null && currentPane.index == paneIndex) return false;
+
+        boolean completed = currentPane != null;
+        if (completed) {
+            complete(currentPane);
+        }
+        currentPane = recycledPanes.isEmpty() ? new Pane<>(newPane.get()) : recycledPanes.removeFirst();
+        currentPane.index = paneIndex;
+        return completed;
+    }
+
+    /**
+     * Completes the window ending with the current pane, e.g. at the end of a simulation run, whose window would
+     * otherwise only be completed by a step following it.
+     * @return True if a window has been completed, i.e. any step has been started since the last completed window.
+     */
+    boolean finish() {
+        if (currentPane == null) return false;
+
+        complete(currentPane);
+        currentPane = null;
+        return true;
+    }
+
+    /**
+     * Returns the data of the pane the latest started step falls into.
+     */
+    P currentPane() {
+        return currentPane.data;
+    }
+
+    /**
+     * Returns the data of every pane within the latest completed window, oldest first.
+     */
+    List<P> windowPanes() {
+        return windowPanes;
+    }
+
+    /**
+     * Returns the start of the latest completed window in simulation time (inclusive).
+     */
+    long windowStartMillis() {
+        return windowStartMillis;
+    }
+
+    /**
+     * Returns the end of the latest completed window in simulation time (exclusive).
+     */
+    long windowEndMillis() {
+        return windowEndMillis;
+    }
+
+
+    /**
+     * Completes the window ending with the given pane and recycles the panes which have left it.
+     */
+    private void complete(Pane<P> pane) {
+        panes.addLast(pane);
+        long panesPerWindow = windowMillis / slideMillis;
+        while (panes.getFirst().index <= pane.index - panesPerWindow) {
+            Pane<P> expired = panes.removeFirst();
+            resetPane.accept(expired.data);
+            recycledPanes.addLast(expired);
+        }
+
+        windowPanes.clear();
+        panes.forEach(windowPane -> windowPanes.add(windowPane.data));
+
+        // the first windows of a run only cover the panes since the start of the aggregation
+        windowEndMillis = (pane.index + 1) * slideMillis;
+        windowStartMillis = Math.max(windowEndMillis - windowMillis, panes.getFirst().index * slideMillis);
+    }
+
+
+    /**
+     * The data of a tumbling window of the slide's length.
+     */
+    private static class Pane<P> {
+        private final P data;
+        private long index;
+
+        Pane(P data) {
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package at.fhv.transflow.simulation.sumo;
+
+import java.util.*;
+import java.util.function.IntFunction;
+
+
+/**
+ * Collects the distribution of one or more metrics (e.g. the speed of the vehicles on an edge) per entity in
+ * {@link QuantileSketch quantile sketches} and estimates their quantiles over windows of simulation time. Windows are
+ * built from the same {@link PanedWindows panes} as the ones of a {@link WindowAggregator}, so that sliding windows
+ * are merged from the sketches of their panes.<br>
+ * <br>
+ * Sketches are kept in arrays indexed by the {@link IdDictionary} codes of the entities, which grow on demand. Panes and
+ * sketches are recycled once they have left the latest window, so that no memory is allocated in steady state apart
+ * from the payloads of completed windows. This class is not thread-safe. Steps have to be processed
+ * by a single thread in order.
+ */
+public class QuantileAggregator {
+    private static final double RELATIVE_ACCURACY = 0.01;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    private static final String[] QUANTILE_NAMES = {"p50", "p90", "p99"};
+    private final PanedWindows<Pane> windows;
+    private final String[] metricNames;
+    // sketches of the latest completed window by the entities' codes
+    private QuantileSketch[][] windowSketches = new QuantileSketch[0][];
+    private final BitSet windowIdCodes = new BitSet();
+
+    /**
+     * @param windowMillis The length of a window in milliseconds of simulation time.
+     * @param slideMillis  The time between the start of two consecutive windows in milliseconds of simulation time.
+     *                     The window length must be a multiple of the slide.
+     * @param metricNames  The names of the metrics collected per entity, which are referred to by their index.
+     */
+    public QuantileAggregator(int windowMillis, int slideMillis, String... metricNames) {
+        this.windows = new PanedWindows<>(windowMillis, slideMillis, Pane::new, Pane::clear);
+        this.metricNames = metricNames;
+    }
+
+
+    /**
+     * Starts collecting the values of a simulation step in the pane it falls into. Must be called for every step before
+     * any of its values is {@link #add(int, int, double) added}.
+     * @param stepMillis The simulation time of the step in milliseconds.
+     * @return The window which has been completed by this step, if any. Its quantiles are available via
+     * {@link #toPayload(Window, IntFunction)} until the next call of this method.
+     */
+    public Optional<Window> startStep(int stepMillis) {
+        return windows.startStep(stepMillis) ? Optional.of(complete()) : Optional.empty();
+    }
+
+    /**
+     * Completes the window which is still open at the end of a simulation run, i.e. the window of the latest started
+     * step, which would otherwise only be completed by a step following it.
+     * @return The completed window or an empty Optional if no step has been started since the last completed window.
+     */
+    public Optional<Window> finish() {
+        return windows.finish() ? Optional.of(complete()) : Optional.empty();
+    }
+
+    /**
+     * Adds a single value of a metric of an entity to the current step.
+     * @param idCode The {@link IdDictionary} code of the entity.
+     * @param metric The index of the metric.
+     */
+    public void add(int idCode, int metric, double value) {
+        windows.currentPane().sketches(idCode)[metric].add(value);
+    }
+
+    /**
+     * Converts the latest completed window into a structure which any payload serializer is able to write:
+     * <pre>
+     * {
+     *   "windowStart": 0,
+     *   "windowEnd": 60000,
+     *   "entities": [
+     *     { "id": "edge0", "SPEED": { "count": 412, "p50": 12.4, "p90": 13.8, "p99": 14.1 }, ... },
+     *     ...
+     *   ]
+     * }
+     * </pre>
+     * Metrics without any value within the window are omitted, just like entities without any value at all.
+     * @param window The window returned by the latest call of {@link #startStep(int)} or {@link #finish()}.
+     * @param idOf   Maps the {@link IdDictionary} code of an entity to the ID written to the payload.
+     */
+    public Map<String, Object> toPayload(Window window, IntFunction<Object> idOf) {
+        List<Map<String, Object>> entities = new ArrayList<>();
+
+        for (int idCode = windowIdCodes.nextSetBit(0); idCode >= 0; idCode = windowIdCodes.nextSetBit(idCode + 1)) {
+            QuantileSketch[] sketches = windowSketches[idCode];
+            Map<String, Object> entity = new LinkedHashMap<>();
+            for (int metric = 0; metric < metricNames.length; metric++) {
+                QuantileSketch sketch = sketches[metric];
+                if (sketch.count() == 0) continue;
+
+                Map<String, Object> quantiles = new LinkedHashMap<>();
+                quantiles.put("count", sketch.count());
+                for (int i = 0; i < QUANTILES.length; i++) {
+                    quantiles.put(QUANTILE_NAMES[i], sketch.quantile(QUANTILES[i]));
+                }
+                entity.put(metricNames[metric], quantiles);
+            }
+
+            if (!entity.isEmpty()) {
+                Map<String, Object> entityWithId = new LinkedHashMap<>();
+                entityWithId.put("id", idOf.apply(idCode));
+                entityWithId.putAll(entity);
+                entities.add(entityWithId);
+            }
+        }
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("windowStart", window.startMillis());
+        payload.put("windowEnd", window.endMillis());
+        payload.put("entities", entities);
+        return payload;
+    }
+
+
+    /**
+     * Merges the sketches of every pane of the window completed just now.
+     */
+    private Window complete() {
+        clear(windowSketches, windowIdCodes);
+        for (Pane windowPane : windows.windowPanes()) {
+            BitSet idCodes = windowPane.idCodes;
+            for (int idCode = idCodes.nextSetBit(0); idCode >= 0; idCode = idCodes.nextSetBit(idCode + 1)) {
+                windowSketches = ensureCapacity(windowSketches, idCode);
+                if (windowSketches[idCode] == null) windowSketches[idCode] = newSketches();
+                windowIdCodes.set(idCode);
+
+                QuantileSketch[] sketches = windowPane.sketchesByIdCode[idCode];
+                for (int metric = 0; metric < sketches.length; metric++) {
+                    windowSketches[idCode][metric].merge(sketches[metric]);
+                }
+            }
+        }
+
+        return new Window(windows.windowStartMillis(), windows.windowEndMillis());
+    }
+
+    private QuantileSketch[] newSketches() {
+        QuantileSketch[] sketches = new QuantileSketch[metricNames.length];
+        for (int metric = 0; metric < sketches.length; metric++) {
+            sketches[metric] = new QuantileSketch(RELATIVE_ACCURACY);
+        }
+        return sketches;
+    }
+
+
+    /**
+     * Clears the sketches of every given entity and removes the entities from the set.
+     */
+    private static void clear(QuantileSketch[][] sketchesByIdCode, BitSet idCodes) {
+        for (int idCode = idCodes.nextSetBit(0); idCode >= 0; idCode = idCodes.nextSetBit(idCode + 1)) {
+            for (QuantileSketch sketch : sketchesByIdCode[idCode]) {
+                sketch.clear();
+            }
+        }
+        idCodes.clear();
+    }
+
+    private static QuantileSketch[][] ensureCapacity(QuantileSketch[][] sketchesByIdCode, int idCode) {
+        if (idCode < sketchesByIdCode.length) return sketchesByIdCode;
+        return Arrays.copyOf(sketchesByIdCode, Math.max(idCode + 1, sketchesByIdCode.length * 2));
+    }
+
+
+    /**
+     * The time range of a completed window.
+     * @param startMillis The start of the window in simulation time (inclusive).
+     * @param endMillis   The end of the window in simulation time (exclusive).
+     */
+    public record Window(long startMillis, long endMillis) {
+    }
+
+    /**
+     * The sketches of every entity within a tumbling window of the slide's length.
+     */
+    private class Pane {
+        private QuantileSketch[][] sketchesByIdCode = new QuantileSketch[0][];
+        // codes of the entities with sketches in this pane
+        private final BitSet idCodes = new BitSet();
+
+        QuantileSketch[] sketches(int idCode) {
+            sketchesByIdCode = ensureCapacity(sketchesByIdCode, idCode);
+            if (sketchesByIdCode[idCode] == null) sketchesByIdCode[idCode] = newSketches();
+            idCodes.set(idCode);
+            return sketchesByIdCode[idCode];
+        }
+
+        void clear() {
+            QuantileAggregator.clear(sketchesByIdCode, idCodes);
+        }
+    }
+}
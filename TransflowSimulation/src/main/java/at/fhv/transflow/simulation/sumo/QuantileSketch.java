@@ -0,0 +1,131 @@
+package at.fhv.transflow.simulation.sumo;
+
+import java.util.Arrays;
+
+
+/**
+ * Mergeable sketch of a distribution of non-negative values (e.g. speeds) which estimates any quantile with a bounded
+ * relative error, following the design of DDSketch. Values are counted in buckets of logarithmically growing width,
+ * so that the sketch stays small no matter how many values are added.<br>
+ * <br>
+ * The buckets are kept in a single array covering the range of bucket indices seen so far, which only grows while
+ * the range of values does. Cleared sketches keep their buckets, so a sketch reused for a stable distribution
+ * does not allocate any memory. This class is not thread-safe.
+ */
+public class QuantileSketch {
+    // values below this are counted as zero, e.g. the speed of a halting vehicle
+    private static final double MIN_VALUE = 1e-3;
+    private final double gamma;
+    private final double logGamma;
+    private long[] buckets = new long[0];
+    // bucket index of buckets[0]
+    private int offset = 0;
+    private long zeroCount = 0;
+    private long count = 0;
+
+    /**
+     * @param relativeAccuracy The maximum relative error of a quantile estimate, e.g. 0.01 for 1%.
+     */
+    public QuantileSketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("Relative accuracy must be within (0, 1)! Given: " + relativeAccuracy);
+        }
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+
+    public void add(double value) {
+        count++;
+        if (value < MIN_VALUE) {
+            zeroCount++;
+            return;
+        }
+
+        int index = (int) Math.ceil(Math.log(value) / logGamma);
+        ensureCapacity(index, index);
+        buckets[index - offset]++;
+    }
+
+    /**
+     * Adds every value of another sketch with the same relative accuracy to this sketch.
+     */
+    public void merge(QuantileSketch other) {
+        if (other.gamma != gamma) {
+            throw new IllegalArgumentException("Only sketches of the same relative accuracy can be merged!");
+        }
+        count += other.count;
+        zeroCount += other.zeroCount;
+
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < other.buckets.length; i++) {
+            if (other.buckets[i] != 0) {
+                if (first < 0) first = i;
+                last = i;
+            }
+        }
+        if (first < 0) return;
+
+        ensureCapacity(other.offset + first, other.offset + last);
+        for (int i = first; i <= last; i++) {
+            buckets[other.offset + i - offset] += other.buckets[i];
+        }
+    }
+
+    /**
+     * Estimates the value at the given quantile.
+     * @param quantile The quantile within [0, 1], e.g. 0.99 for the 99th percentile.
+     * @return The estimated value or {@link Double#NaN} if the sketch is empty.
+     */
+    public double quantile(double quantile) {
+        if (count == 0) return Double.NaN;
+
+        long rank = (long) (quantile * (count - 1));
+        if (rank < zeroCount) return 0;
+
+        long seen = zeroCount;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen > rank) {
+                // the value within the bucket with the smallest relative error to both of its bounds
+                return 2 * Math.pow(gamma, offset + i) / (gamma + 1);
+            }
+        }
+        return 2 * Math.pow(gamma, offset + buckets.length - 1) / (gamma + 1);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Removes every value from this sketch while keeping its buckets for reuse.
+     */
+    public void clear() {
+        Arrays.fill(buckets, 0);
+        zeroCount = 0;
+        count = 0;
+    }
+
+
+    /**
+     * Grows the bucket array to cover the given range of bucket indices, with some headroom to avoid growing again
+     * for every slightly larger or smaller value.
+     */
+    private void ensureCapacity(int fromIndex, int toIndex) {
+        if (buckets.length == 0) {
+            offset = fromIndex - 8;
+            buckets = new long[toIndex - fromIndex + 17];
+            return;
+        }
+        if (fromIndex >= offset && toIndex < offset + buckets.length) return;
+
+        int newOffset = Math.min(offset, fromIndex - 8);
+        int newEnd = Math.max(offset + buckets.length, toIndex + 9);
+        long[] newBuckets = new long[newEnd - newOffset];
+        System.arraycopy(buckets, 0, newBuckets, offset - newOffset, buckets.length);
+        buckets = newBuckets;
+        offset = newOffset;
+    }
+}
@@ -0,0 +1,125 @@
+package at.fhv.transflow.simulation.sumo;
+
+import at.fhv.transflow.simulation.sumo.data.EdgeData;
+import at.fhv.transflow.simulation.sumo.data.LaneData;
+import at.fhv.transflow.simulation.sumo.data.Position;
+import at.fhv.transflow.simulation.sumo.data.VehicleData;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Jackson module which writes the numeric properties of the DTOs of a simulation step as quantized integers, i.e.
+ * as multiples of a configurable resolution (e.g. {@code 1234} for a speed of 12.34 m/s at a resolution of 0.01).
+ * Subscribers restore a value by multiplying it with the resolution. Properties are matched with the resolutions'
+ * field names just like by the {@link FieldProjection} (e.g. {@code SPEED} matches {@code speed}). Every coordinate
+ * of a {@link Position} is quantized separately, every other property is serialized as usual.
+ */
+public class QuantizationModule extends SimpleModule {
+    private static final Set<Class<?>> QUANTIZED_TYPES = Set.of(VehicleData.class, LaneData.class, EdgeData.class);
+
+    private final Map<String, Double> normalizedResolutions = new HashMap<>();
+
+    /**
+     * @param resolutions The resolution of every quantized field by the field's name, e.g. {@code SPEED -> 0.01}.
+     */
+    public QuantizationModule(Map<String, Double> resolutions) {
+        super("QuantizationModule");
+
+        resolutions.forEach((field, resolution) -> normalizedResolutions.put(FieldProjection.normalize(field), resolution));
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        super.setupModule(context);
+
+        context.addBeanSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                             List<BeanPropertyWriter> properties) {
+                if (!QUANTIZED_TYPES.contains(beanDesc.getBeanClass())) return properties;
+
+                for (BeanPropertyWriter property : properties) {
+                    Double resolution = normalizedResolutions.get(FieldProjection.normalize(property.getName()));
+                    if (resolution == null) continue;
+
+                    Class<?> type = property.getType().getRawClass();
+                    if (type == Double.class) {
+                        property.assignSerializer(new QuantizedSerializer(resolution));
+                    } else if (type == Position.class) {
+                        property.assignSerializer(new QuantizedPositionSerializer(resolution));
+                    }
+                }
+                return properties;
+            }
+        });
+    }
+
+
+    /**
+     * Returns the quantized integer of a value, i.e. the nearest multiple of the resolution divided by the resolution.
+     */
+    static long quantize(double value, double resolution) {
+        return Math.round(value / resolution);
+    }
+
+
+    /**
+     * Writes a single number as its quantized integer.
+     */
+    private static class QuantizedSerializer extends StdSerializer<Object> {
+        private final double resolution;
+
+        QuantizedSerializer(double resolution) {
+            super(Object.class);
+            this.resolution = resolution;
+        }
+
+        @Override
+        public void serialize(Object value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeNumber(quantize(((Number) value).doubleValue(), resolution));
+        }
+    }
+
+    /**
+     * Writes a position as an object of its quantized coordinates.
+     */
+    private static class QuantizedPositionSerializer extends StdSerializer<Object> {
+        private final double resolution;
+
+        QuantizedPositionSerializer(double resolution) {
+            super(Object.class);
+            this.resolution = resolution;
+        }
+
+        @Override
+        public void serialize(Object value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            Position position = (Position) value;
+            generator.writeStartObject();
+            writeCoordinate(generator, "x", position.x());
+            writeCoordinate(generator, "y", position.y());
+            writeCoordinate(generator, "z", position.z());
+            generator.writeEndObject();
+        }
+
+        private void writeCoordinate(JsonGenerator generator, String name, Double coordinate) throws IOException {
+            if (coordinate != null) {
+                generator.writeNumberField(name, quantize(coordinate, resolution));
+            } else {
+                generator.writeNullField(name);
+            }
+        }
+    }
+}
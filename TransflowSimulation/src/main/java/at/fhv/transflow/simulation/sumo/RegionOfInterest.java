@@ -0,0 +1,168 @@
+package at.fhv.transflow.simulation.sumo;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+
+/**
+ * The part of the road network which data is collected for, given as an area (a polygon or a bounding box in network
+ * coordinates) and/or a list of edge IDs. A lane belongs to the region if its shape intersects the area, its edge is
+ * listed or it is an internal lane of a junction connecting two lanes of the region, an edge if any of its lanes
+ * belongs to the region and a junction if its shape intersects the area or it connects a listed edge.
+ */
+public class RegionOfInterest {
+    // edge length of the cells of the spatial index over the network's shapes
+    private static final double INDEX_CELL_SIZE = 100.0;
+    // vertices of the area's polygon, empty if the region consists of listed edges only
+    private final double[] xs;
+    private final double[] ys;
+    private final Set<String> edgeIds;
+
+    /**
+     * @param polygon The vertices of the area as {@code [x, y]} pairs (at least 3) or an empty list if the region
+     *                consists of the listed edges only. The polygon is closed implicitly.
+     * @param edgeIds The IDs of edges which belong to the region regardless of their position.
+     */
+    public RegionOfInterest(List<double[]> polygon, Set<String> edgeIds) {
+        if (!polygon.isEmpty() && polygon.size() < 3) {
+            throw new IllegalArgumentException("Polygon of the region of interest needs at least 3 vertices! Given: " +
+                polygon.size());
+        }
+        if (polygon.isEmpty() && edgeIds.isEmpty()) {
+            throw new IllegalArgumentException("Region of interest must consist of an area or at least one edge!");
+        }
+        this.xs = polygon.stream().mapToDouble(vertex -> vertex[0]).toArray();
+        this.ys = polygon.stream().mapToDouble(vertex -> vertex[1]).toArray();
+        this.edgeIds = Set.copyOf(edgeIds);
+    }
+
+    /**
+     * Parses a region of interest from its configuration, where every argument may be null.
+     * @param boundingBox The area as {@code minX,minY,maxX,maxY}.
+     * @param polygon     The area as a polygon in the shape format of SUMO, i.e. {@code x1,y1 x2,y2 x3,y3 ...}.
+     * @param edgeIds     A comma-separated list of edge IDs.
+     * @return The region of interest or null if neither an area nor any edge is given.
+     * @throws IllegalArgumentException if any argument is malformed or both a bounding box and a polygon are given.
+     */
+    public static RegionOfInterest parse(String boundingBox, String polygon, String edgeIds) {
+        if (boundingBox != null && polygon != null) {
+            throw new IllegalArgumentException("Region of interest must either be a bounding box or a polygon, not both!");
+        }
+
+        List<double[]> vertices = List.of();
+        if (boundingBox != null) {
+            double[] box = parseNumbers(boundingBox, 4);
+            vertices = List.of(
+                new double[]{box[0], box[1]}, new double[]{box[2], box[1]},
+                new double[]{box[2], box[3]}, new double[]{box[0], box[3]}
+            );
+        } else if (polygon != null) {
+            vertices = Arrays.stream(polygon.trim().split("\\s+"))
+                .map(vertex -> parseNumbers(vertex, 2))
+                .toList();
+        }
+
+        Set<String> edges = edgeIds == null ? Set.of() : Arrays.stream(edgeIds.split(","))
+            .map(String::trim)
+            .filter(id -> !id.isEmpty())
+            .collect(Collectors.toSet());
+
+        return vertices.isEmpty() && edges.isEmpty() ? null : new RegionOfInterest(vertices, edges);
+    }
+
+
+    public boolean hasArea() {
+        return xs.length > 0;
+    }
+
+    public boolean containsEdge(String edgeId) {
+        return edgeIds.contains(edgeId);
+    }
+
+    /**
+     * Checks whether the given point lies within the area of this region (even-odd rule).
+     */
+    public boolean contains(double x, double y) {
+        boolean inside = false;
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            if ((ys[i] > y) != (ys[j] > y) && x < (xs[j] - xs[i]) * (y - ys[i]) / (ys[j] - ys[i]) + xs[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Checks whether the given shape (a polyline or a single point) lies at least partially within the area of
+     * this region.
+     */
+    public boolean intersects(List<Double[]> shape) {
+        if (!hasArea() || shape.isEmpty()) return false;
+
+        for (Double[] point : shape) {
+            if (contains(point[0], point[1])) return true;
+        }
+        // a shape may still cross the area without any of its points lying inside
+        for (int s = 1; s < shape.size(); s++) {
+            for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+                if (segmentsIntersect(shape.get(s - 1)[0], shape.get(s - 1)[1], shape.get(s)[0], shape.get(s)[1],
+                    xs[j], ys[j], xs[i], ys[i])) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Selects every shape of the given index which intersects the area of this region.
+     * @return The IDs of the selected shapes.
+     */
+    public Set<String> selectShapes(ShapeIndex index) {
+        if (!hasArea()) return Set.of();
+
+        return index.query(min(xs), min(ys), max(xs), max(ys)).stream()
+            .filter(id -> intersects(index.shape(id)))
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * Creates a {@link ShapeIndex} suitable for {@link #selectShapes(ShapeIndex)} over the shapes of the given entities.
+     */
+    static ShapeIndex indexShapes(List<SubscribedEntity> entities, int shapePropertyId) {
+        return ShapeIndex.of(entities, shapePropertyId, INDEX_CELL_SIZE);
+    }
+
+
+    private static boolean segmentsIntersect(double ax, double ay, double bx, double by,
+                                             double cx, double cy, double dx, double dy) {
+        double d1 = cross(cx, cy, dx, dy, ax, ay);
+        double d2 = cross(cx, cy, dx, dy, bx, by);
+        double d3 = cross(ax, ay, bx, by, cx, cy);
+        double d4 = cross(ax, ay, bx, by, dx, dy);
+        return ((d1 > 0) != (d2 > 0)) && ((d3 > 0) != (d4 > 0));
+    }
+
+    // z-component of the cross product of (b - a) and (p - a)
+    private static double cross(double ax, double ay, double bx, double by, double px, double py) {
+        return (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+    }
+
+    private static double[] parseNumbers(String value, int count) {
+        String[] parts = value.split(",");
+        if (parts.length != count) {
+            throw new IllegalArgumentException("Expected " + count + " comma-separated numbers! Given: " + value);
+        }
+        return Arrays.stream(parts).map(String::trim).mapToDouble(Double::parseDouble).toArray();
+    }
+
+    private static double min(double[] values) {
+        return Arrays.stream(values).min().orElseThrow();
+    }
+
+    private static double max(double[] values) {
+        return Arrays.stream(values).max().orElseThrow();
+    }
+}
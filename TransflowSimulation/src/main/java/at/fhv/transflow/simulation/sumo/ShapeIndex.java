@@ -0,0 +1,111 @@
+package at.fhv.transflow.simulation.sumo;
+
+import at.fhv.transflow.simulation.sumo.mapping.SumoMapper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Spatial index over the shapes of network elements (e.g. lanes or junctions), which splits the network into a uniform
+ * grid of square cells. Every shape is registered in each cell its bounding box overlaps, so that the shapes near an
+ * area can be found by looking at the cells of the area only instead of testing every shape of the network.
+ */
+public class ShapeIndex {
+    private final double cellSize;
+    private final Map<Long, List<String>> cells = new HashMap<>();
+    private final Map<String, List<Double[]>> shapes = new HashMap<>();
+
+    /**
+     * @param cellSize The edge length of a single cell in meters.
+     */
+    public ShapeIndex(double cellSize) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("Cell size must be a positive number of meters! Given: " + cellSize);
+        }
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Creates an index over the shapes of the given entities.
+     * @param entities        Harvested network elements.
+     * @param shapePropertyId The ID of the SUMO property containing the shape of an entity. Entities without a shape
+     *                        are not indexed.
+     * @param cellSize        The edge length of a single cell in meters.
+     */
+    static ShapeIndex of(List<SubscribedEntity> entities, int shapePropertyId, double cellSize) {
+        ShapeIndex index = new ShapeIndex(cellSize);
+        for (SubscribedEntity entity : entities) {
+            List<Double[]> shape = SumoMapper.asShape(entity.properties().get(shapePropertyId));
+            if (shape != null && !shape.isEmpty()) {
+                index.add(entity.id(), shape);
+            }
+        }
+        return index;
+    }
+
+
+    public void add(String id, List<Double[]> shape) {
+        shapes.put(id, shape);
+
+        double[] bounds = bounds(shape);
+        forEachCell(bounds[0], bounds[1], bounds[2], bounds[3], cell ->
+            cells.computeIfAbsent(cell, key -> new ArrayList<>()).add(id));
+    }
+
+    public List<Double[]> shape(String id) {
+        return shapes.get(id);
+    }
+
+    /**
+     * Returns the ID of every shape whose bounding box may overlap the given area. Shapes are only guaranteed to be
+     * near the area, whether they actually intersect it has to be checked separately.
+     */
+    public Set<String> query(double minX, double minY, double maxX, double maxY) {
+        Set<String> candidates = new HashSet<>();
+        forEachCell(minX, minY, maxX, maxY, cell -> {
+            List<String> ids = cells.get(cell);
+            if (ids != null) candidates.addAll(ids);
+        });
+        return candidates;
+    }
+
+
+    private void forEachCell(double minX, double minY, double maxX, double maxY, CellConsumer consumer) {
+        long fromX = (long) Math.floor(minX / cellSize);
+        long fromY = (long) Math.floor(minY / cellSize);
+        long toX = (long) Math.floor(maxX / cellSize);
+        long toY = (long) Math.floor(maxY / cellSize);
+
+        for (long x = fromX; x <= toX; x++) {
+            for (long y = fromY; y <= toY; y++) {
+                // both cell coordinates fit into 32 bits for any realistic network
+                consumer.accept((x << 32) ^ (y & 0xffffffffL));
+            }
+        }
+    }
+
+    /**
+     * Returns the bounding box of a shape as an array of {@code [minX, minY, maxX, maxY]}.
+     */
+    static double[] bounds(List<Double[]> shape) {
+        double[] bounds = {Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (Double[] point : shape) {
+            bounds[0] = Math.min(bounds[0], point[0]);
+            bounds[1] = Math.min(bounds[1], point[1]);
+            bounds[2] = Math.max(bounds[2], point[0]);
+            bounds[3] = Math.max(bounds[3], point[1]);
+        }
+        return bounds;
+    }
+
+
+    @FunctionalInterface
+    private interface CellConsumer {
+        void accept(long cell);
+    }
+}
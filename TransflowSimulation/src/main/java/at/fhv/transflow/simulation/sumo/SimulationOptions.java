@@ -1,15 +1,58 @@
 package at.fhv.transflow.simulation.sumo;
 
+import at.fhv.transflow.simulation.messaging.CompressionCodec;
+import at.fhv.transflow.simulation.messaging.PayloadFormat;
+import at.fhv.transflow.simulation.utils.BoundedWorkQueue.OverflowPolicy;
+
 import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 
 public class SimulationOptions {
+    // every domain whose publish interval can be configured
+    public static final List<String> PUBLISH_DOMAINS = List.of("vehicles", "lanes", "edges", "routes", "vehicle_types");
+    // publish interval of a domain which is only published in the very first step
+    public static final int PUBLISH_ONCE = 0;
     // initialized with default values
     private int delayMillis = 0;
     private int stepIncrement = 1;
     private int interactionInterval = 0;
     private int stepMillis = 1000;
+    private int warmUpMillis = 0;
+    private double leaderDistance = 200.0;
+    private int maxFrameBytes = 0;
+    private int pipelineDepth = 0;
+    private int keyframeInterval = 0;
+    private Map<String, Double> deadbands = Map.of();
+    private PayloadFormat payloadFormat = PayloadFormat.JSON;
+    private CompressionCodec compressionCodec = null;
+    private int compressionLevel = 6;
+    private int dictionarySamples = 0;
+    private boolean columnarPublishing = false;
+    private boolean idEncoding = false;
+    private boolean eventPublishing = false;
+    private int aggregationWindowMillis = 0;
+    private int aggregationSlideMillis = 0;
+    private boolean quantilePublishing = false;
+    private boolean tripPublishing = false;
+    private double heatmapCellSize = 0;
+    private double trajectoryTolerance = 0;
+    private boolean quantizing = false;
+    private Map<String, Double> quantizationResolutions = Map.of("POSITION", 0.01, "SPEED", 0.01, "ANGLE", 0.1);
+    private int deltaKeyframeInterval = 0;
+    private final Map<String, Set<String>> odZones = new HashMap<>();
+    private final Map<String, Integer> publishIntervals = new HashMap<>();
+    private final Map<String, Set<String>> projectedFields = new HashMap<>();
+    private int publishQueueCapacity = 10_000;
+    private OverflowPolicy publishQueueOverflowPolicy = OverflowPolicy.BLOCK;
+    private int checkpointInterval = 0;
+    private Path checkpointDirectory = Path.of("checkpoints");
+    private boolean resume = false;
+    private RegionOfInterest regionOfInterest = null;
     private String simRunName = null;
     private Path simConfigPath = null;
 
@@ -57,6 +100,379 @@ public class SimulationOptions {
     }
 
 
+    public int getMaxFrameBytes() {
+        return maxFrameBytes;
+    }
+
+    public void setMaxFrameBytes(int maxFrameBytes) {
+        this.maxFrameBytes = maxFrameBytes;
+    }
+
+    public boolean isBatchPublishing() {
+        return this.maxFrameBytes > 0;
+    }
+
+
+    public int getPipelineDepth() {
+        return pipelineDepth;
+    }
+
+    public void setPipelineDepth(int pipelineDepth) {
+        this.pipelineDepth = pipelineDepth;
+    }
+
+    public boolean isPipelined() {
+        return this.pipelineDepth > 0;
+    }
+
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    public void setKeyframeInterval(int keyframeInterval) {
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    public boolean isChangeOnlyPublishing() {
+        return this.keyframeInterval > 0;
+    }
+
+
+    /**
+     * Returns the simulation time in milliseconds up to which the simulation is fast-forwarded before any data is
+     * collected, or 0 if there is no warm-up.
+     */
+    public int getWarmUpMillis() {
+        return warmUpMillis;
+    }
+
+    public void setWarmUpMillis(int warmUpMillis) {
+        this.warmUpMillis = warmUpMillis;
+    }
+
+    public boolean isWarmUp() {
+        return warmUpMillis > 0;
+    }
+
+
+    /**
+     * Returns the number of steps between two checkpoints, or 0 if no checkpoints are saved.
+     */
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    public void setCheckpointInterval(int checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    public boolean isCheckpointing() {
+        return checkpointInterval > 0;
+    }
+
+    /**
+     * Returns the directory which contains the checkpoints of every simulation in a subdirectory named after the
+     * simulation.
+     */
+    public Path getCheckpointDirectory() {
+        return checkpointDirectory;
+    }
+
+    public void setCheckpointDirectory(Path checkpointDirectory) {
+        this.checkpointDirectory = checkpointDirectory;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+
+    /**
+     * Returns the maximum distance in meters up to which the leader of a vehicle is searched, or 0 if the leader
+     * of vehicles is not subscribed at all.
+     */
+    public double getLeaderDistance() {
+        return leaderDistance;
+    }
+
+    public void setLeaderDistance(double leaderDistance) {
+        this.leaderDistance = leaderDistance;
+    }
+
+
+    /**
+     * Returns the part of the network which data is collected for, or an empty Optional if data is collected for
+     * the whole network.
+     */
+    public Optional<RegionOfInterest> getRegionOfInterest() {
+        return Optional.ofNullable(regionOfInterest);
+    }
+
+    public void setRegionOfInterest(RegionOfInterest regionOfInterest) {
+        this.regionOfInterest = regionOfInterest;
+    }
+
+
+    public Map<String, Double> getDeadbands() {
+        return deadbands;
+    }
+
+    public void setDeadbands(Map<String, Double> deadbands) {
+        this.deadbands = deadbands;
+    }
+
+
+    public PayloadFormat getPayloadFormat() {
+        return payloadFormat;
+    }
+
+    public void setPayloadFormat(PayloadFormat payloadFormat) {
+        this.payloadFormat = payloadFormat;
+    }
+
+
+    /**
+     * Returns the codec which every payload is compressed with, or null if payloads are not compressed.
+     */
+    public CompressionCodec getCompressionCodec() {
+        return compressionCodec;
+    }
+
+    public void setCompressionCodec(CompressionCodec compressionCodec) {
+        this.compressionCodec = compressionCodec;
+    }
+
+    public boolean isCompressing() {
+        return compressionCodec != null;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Returns the number of payloads which a compression dictionary is trained on, or 0 if no dictionary is used.
+     */
+    public int getDictionarySamples() {
+        return dictionarySamples;
+    }
+
+    public void setDictionarySamples(int dictionarySamples) {
+        this.dictionarySamples = dictionarySamples;
+    }
+
+
+    public boolean isColumnarPublishing() {
+        return columnarPublishing;
+    }
+
+    public void setColumnarPublishing(boolean columnarPublishing) {
+        this.columnarPublishing = columnarPublishing;
+    }
+
+
+    public boolean isIdEncoding() {
+        return idEncoding;
+    }
+
+    public void setIdEncoding(boolean idEncoding) {
+        this.idEncoding = idEncoding;
+    }
+
+
+    public boolean isEventPublishing() {
+        return eventPublishing;
+    }
+
+    public void setEventPublishing(boolean eventPublishing) {
+        this.eventPublishing = eventPublishing;
+    }
+
+
+    public boolean isAggregating() {
+        return aggregationWindowMillis > 0;
+    }
+
+    /**
+     * Returns the length of the windows which lane and edge properties are aggregated over in milliseconds of
+     * simulation time, or 0 if no aggregates are published.
+     */
+    public int getAggregationWindowMillis() {
+        return aggregationWindowMillis;
+    }
+
+    public void setAggregationWindowMillis(int aggregationWindowMillis) {
+        this.aggregationWindowMillis = aggregationWindowMillis;
+    }
+
+    /**
+     * Returns the time between the start of two consecutive aggregation windows in milliseconds of simulation time,
+     * which equals the window length for tumbling windows.
+     */
+    public int getAggregationSlideMillis() {
+        return aggregationSlideMillis;
+    }
+
+    public void setAggregationSlideMillis(int aggregationSlideMillis) {
+        this.aggregationSlideMillis = aggregationSlideMillis;
+    }
+
+
+    /**
+     * Returns true if quantiles of the vehicle speeds, travel times and time losses per edge and lane are published
+     * for every aggregation window.
+     */
+    public boolean isQuantilePublishing() {
+        return quantilePublishing;
+    }
+
+    public void setQuantilePublishing(boolean quantilePublishing) {
+        this.quantilePublishing = quantilePublishing;
+    }
+
+
+    public boolean isTripPublishing() {
+        return tripPublishing;
+    }
+
+    public void setTripPublishing(boolean tripPublishing) {
+        this.tripPublishing = tripPublishing;
+    }
+
+    public boolean isHeatmapPublishing() {
+        return heatmapCellSize > 0;
+    }
+
+    /**
+     * Returns the edge length of the cells of the emission heatmap in meters, or 0 if no heatmap is published.
+     */
+    public double getHeatmapCellSize() {
+        return heatmapCellSize;
+    }
+
+    public void setHeatmapCellSize(double heatmapCellSize) {
+        this.heatmapCellSize = heatmapCellSize;
+    }
+
+    public boolean isTrajectorySimplifying() {
+        return trajectoryTolerance > 0;
+    }
+
+    /**
+     * Returns the maximum deviation in meters between the actual and the extrapolated position of a vehicle before it
+     * is published again, or 0 if every vehicle is published in every step.
+     */
+    public double getTrajectoryTolerance() {
+        return trajectoryTolerance;
+    }
+
+    public void setTrajectoryTolerance(double trajectoryTolerance) {
+        this.trajectoryTolerance = trajectoryTolerance;
+    }
+
+    public boolean isQuantizing() {
+        return quantizing;
+    }
+
+    public void setQuantizing(boolean quantizing) {
+        this.quantizing = quantizing;
+    }
+
+    /**
+     * Returns the resolution of every quantized field by the field's name, e.g. {@code SPEED -> 0.01}.
+     */
+    public Map<String, Double> getQuantizationResolutions() {
+        return quantizationResolutions;
+    }
+
+    public void setQuantizationResolutions(Map<String, Double> quantizationResolutions) {
+        this.quantizationResolutions = quantizationResolutions;
+    }
+
+    /**
+     * Returns the number of steps between two keyframes of delta-coded columns, or 0 if columns are not delta-coded.
+     */
+    public int getDeltaKeyframeInterval() {
+        return deltaKeyframeInterval;
+    }
+
+    public void setDeltaKeyframeInterval(int deltaKeyframeInterval) {
+        this.deltaKeyframeInterval = deltaKeyframeInterval;
+    }
+
+    public boolean isDeltaCoding() {
+        return deltaKeyframeInterval > 0;
+    }
+
+    /**
+     * Returns the edge IDs of every zone of the origin-destination matrix by the zone's name.
+     */
+    public Map<String, Set<String>> getOdZones() {
+        return odZones;
+    }
+
+    public void setOdZone(String zone, Set<String> edgeIds) {
+        odZones.put(zone, edgeIds);
+    }
+
+
+    /**
+     * Returns the number of steps between two steps in which the given domain is published (default: every step),
+     * or {@link #PUBLISH_ONCE} if the domain is only published in the first step.
+     */
+    public int getPublishInterval(String domainTopic) {
+        return publishIntervals.getOrDefault(domainTopic, 1);
+    }
+
+    public Map<String, Integer> getPublishIntervals() {
+        return publishIntervals;
+    }
+
+    public void setPublishInterval(String domainTopic, int interval) {
+        publishIntervals.put(domainTopic, interval);
+    }
+
+
+    /**
+     * Returns the names of the fields to subscribe and publish by their domain topic (see {@link FieldProjection}).
+     * Domains which are not contained include every field.
+     */
+    public Map<String, Set<String>> getProjectedFields() {
+        return projectedFields;
+    }
+
+    public void setProjectedFields(String domainTopic, Set<String> fields) {
+        projectedFields.put(domainTopic, fields);
+    }
+
+
+    public int getPublishQueueCapacity() {
+        return publishQueueCapacity;
+    }
+
+    public void setPublishQueueCapacity(int publishQueueCapacity) {
+        this.publishQueueCapacity = publishQueueCapacity;
+    }
+
+
+    public OverflowPolicy getPublishQueueOverflowPolicy() {
+        return publishQueueOverflowPolicy;
+    }
+
+    public void setPublishQueueOverflowPolicy(OverflowPolicy publishQueueOverflowPolicy) {
+        this.publishQueueOverflowPolicy = publishQueueOverflowPolicy;
+    }
+
+
     public Optional<String> getSimulationRunName() {
         return Optional.ofNullable(simRunName);
     }
@@ -0,0 +1,42 @@
+package at.fhv.transflow.simulation.sumo;
+
+import at.fhv.transflow.simulation.sumo.mapping.SumoMapper;
+import org.eclipse.sumo.libsumo.TraCIResult;
+import org.eclipse.sumo.libsumo.TraCIResults;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+
+/**
+ * The ID of a single subscribed SUMO entity and its subscription results converted to plain Java objects.
+ * @param id         The ID of the SUMO entity.
+ * @param properties A map of every subscribed property with the property's integer identifier as the key and
+ *                   the property's typed value as converted by {@link SumoMapper#fromTraCI(TraCIResult)} as the value.
+ */
+record SubscribedEntity(String id, Map<Integer, Object> properties) {
+
+    /**
+     * Converts the {@link TraCIResults} of a single entity into a new {@link Map} of all properties included in
+     * the TraCIResults with the respective property's integer identifier as the key and the property's value
+     * converted to a plain Java object as the map's value.
+     */
+    static SubscribedEntity of(String id, TraCIResults results) {
+        // create a new map without the nasty TraCIResult type as value
+        Map<Integer, Object> properties = new HashMap<>();
+        results.forEach((propertyId, result) -> properties.put(propertyId, SumoMapper.fromTraCI(result)));
+
+        return new SubscribedEntity(id, properties);
+    }
+
+    /**
+     * Maps every given entity to a DTO in parallel by applying the given mapper function to its ID and properties.
+     */
+    static <T> Stream<T> mapParallel(List<SubscribedEntity> entities, BiFunction<String, Map<Integer, Object>, T> mapper) {
+        return entities.stream().parallel()
+            .map(entity -> mapper.apply(entity.id(), entity.properties()));
+    }
+}
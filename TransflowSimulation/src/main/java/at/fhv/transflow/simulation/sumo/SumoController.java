@@ -2,29 +2,94 @@ package at.fhv.transflow.simulation.sumo;
 
 import at.fhv.transflow.simulation.cli.ErrorCode;
 import at.fhv.transflow.simulation.cli.SystemError;
+import at.fhv.transflow.simulation.messaging.CompressingMessagingService;
+import at.fhv.transflow.simulation.messaging.FrameBuilder;
 import at.fhv.transflow.simulation.messaging.IMessagingService;
-import at.fhv.transflow.simulation.messaging.JsonMapper;
+import at.fhv.transflow.simulation.messaging.IPayloadSerializer;
 import at.fhv.transflow.simulation.messaging.MessagingException;
+import at.fhv.transflow.simulation.sumo.data.EdgeData;
+import at.fhv.transflow.simulation.sumo.data.EventData;
+import at.fhv.transflow.simulation.sumo.data.LaneData;
 import at.fhv.transflow.simulation.sumo.data.SumoObject;
+import at.fhv.transflow.simulation.sumo.data.TripData;
 import at.fhv.transflow.simulation.sumo.mapping.*;
-import at.fhv.transflow.simulation.utils.AwaitableExecutor;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import at.fhv.transflow.simulation.utils.BoundedWorkQueue;
 import org.eclipse.sumo.libsumo.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
 
 public class SumoController {
     private static final int THREAD_POOL_SIZE = 20;
+    private static final String NETWORK_TOPIC = "network";
+    private static final String FORMAT_TOPIC = "format";
+    private static final String ID_TOPIC = "ids";
+    private static final String EVENT_TOPIC = "events";
+    private static final String AGGREGATE_TOPIC = "aggregates";
+    private static final String QUANTILE_TOPIC = "quantiles";
+    private static final String TRIP_TOPIC = "trips";
+    private static final String OD_TOPIC = "od";
+    private static final String HEATMAP_TOPIC = "heatmap";
+    private static final String QUANTIZATION_TOPIC = "quantization";
+    private static final int ID_CHUNK_SIZE = 10_000;
+    private static final Map<Integer, String> VEHICLE_COLUMNS = vehicleColumnNames();
+    private static final Map<Integer, String> LANE_COLUMNS =
+        ColumnarSnapshot.columnNames(LaneMapper.Fields.values(), field -> field.sumoPropertyId);
+    private static final Map<Integer, String> EDGE_COLUMNS =
+        ColumnarSnapshot.columnNames(EdgeMapper.Fields.values(), field -> field.sumoPropertyId);
+    private static final int NETWORK_FRAME_BYTES = 256 * 1024;
     private final SumoSimulation simulation;
     private final IMessagingService messagingService;
+    private final SimulationOptions options;
+    private final IPayloadSerializer serializer;
+    private final FieldProjection fieldProjection;
     private Instant startTime;
+    // ID of the simulation run continued from a checkpoint, null otherwise
+    private String resumedRunId;
     private final boolean excludeTimeStamp;
+    // running number of the frames published per network domain
+    private final Map<String, Integer> networkFrameCounts = new HashMap<>();
+    // only used for change-only publishing, null otherwise
+    private final ChangeFilter<LaneData> laneFilter;
+    private final ChangeFilter<EdgeData> edgeFilter;
+    // one dictionary per domain, encoding its IDs throughout the whole simulation run
+    private final IdDictionaries idDictionaries = new IdDictionaries();
+    // every vehicle currently driving in the network, which are the only ones subscribed
+    private final Set<String> subscribedVehicles = new LinkedHashSet<>();
+    // number of IDs per domain which have already been published to the ID table (only used for ID encoding)
+    private final Map<String, Integer> publishedIdCounts = new HashMap<>();
+    // one aggregator per aggregated domain, empty if no aggregates are published
+    private final Map<String, WindowAggregator> aggregators = new HashMap<>();
+    // quantizers of the columns of every domain by domain topic, empty if values are not quantized
+    private final Map<String, ColumnQuantizer> columnQuantizers = new HashMap<>();
+    // only used if quantiles are published, null otherwise (created once it is known where the run starts)
+    private TrafficQuantiles trafficQuantiles;
+    // only used if trips are published, null otherwise (created once it is known where the run starts)
+    private TripTracker tripTracker;
+    // only used if trajectories are simplified, null otherwise
+    private final TrajectoryFilter trajectoryFilter;
+    // only used if heatmaps are published, null otherwise (created once the network's boundary is known)
+    private EmissionGrid emissionGrid;
 
 
     public SumoController(SumoSimulation simulation, IMessagingService messagingService) {
@@ -36,9 +101,60 @@ public class SumoController {
      *                         name to ensure a unique identifier for the simulation run) will be OMITTED.
      */
     public SumoController(SumoSimulation simulation, IMessagingService messagingService, boolean excludeTimestamp) {
+        this(simulation, messagingService, new SimulationOptions(), excludeTimestamp);
+    }
+
+    /**
+     * @param options Options of the simulation run which determine how the simulation's state is published
+     *                (e.g. {@link SimulationOptions#isBatchPublishing() batch publishing}). If the options contain
+     *                a custom simulation run name, the timestamp of the simulation run start instant is omitted.
+     */
+    public SumoController(SumoSimulation simulation, IMessagingService messagingService, SimulationOptions options) {
+        this(simulation, messagingService, options, options.hasCustomName());
+    }
+
+    private SumoController(SumoSimulation simulation, IMessagingService messagingService, SimulationOptions options,
+                           boolean excludeTimestamp) {
         this.simulation = simulation;
         this.messagingService = messagingService;
+        this.options = options;
+        this.fieldProjection = new FieldProjection(options.getProjectedFields());
+
+        IPayloadSerializer payloadSerializer = options.getPayloadFormat().serializer();
+        if (!fieldProjection.isEmpty()) {
+            payloadSerializer = payloadSerializer.withModule(new FieldProjectionModule(fieldProjection));
+        }
+        if (options.isIdEncoding()) {
+            payloadSerializer = payloadSerializer.withModule(new IdEncodingModule(idDictionaries));
+        }
+        if (options.isQuantizing()) {
+            payloadSerializer = payloadSerializer.withModule(new QuantizationModule(options.getQuantizationResolutions()));
+            for (String domainTopic : List.of("vehicles", "lanes", "edges")) {
+                columnQuantizers.put(domainTopic,
+                    new ColumnQuantizer(options.getQuantizationResolutions(), options.getDeltaKeyframeInterval()));
+            }
+        }
+        this.serializer = payloadSerializer;
         this.excludeTimeStamp = excludeTimestamp;
+
+        if (options.isChangeOnlyPublishing()) {
+            this.laneFilter = new ChangeFilter<>(options.getDeadbands(), options.getKeyframeInterval());
+            this.edgeFilter = new ChangeFilter<>(options.getDeadbands(), options.getKeyframeInterval());
+        } else {
+            this.laneFilter = null;
+            this.edgeFilter = null;
+        }
+
+        if (options.isAggregating()) {
+            int sampleMillis = options.getStepMillis() * options.getStepIncrement();
+            aggregators.put("lanes", new WindowAggregator(options.getAggregationWindowMillis(),
+                options.getAggregationSlideMillis(), sampleMillis, LANE_COLUMNS));
+            aggregators.put("edges", new WindowAggregator(options.getAggregationWindowMillis(),
+                options.getAggregationSlideMillis(), sampleMillis, EDGE_COLUMNS));
+        }
+        this.trajectoryFilter = options.isTrajectorySimplifying()
+            ? new TrajectoryFilter(options.getTrajectoryTolerance())
+            : null;
     }
 
 
@@ -57,6 +173,8 @@ public class SumoController {
      * @return A string representation of <code>[filename (without extension)]@[ISO-8601-timestamp]</code>.
      */
     public String getId() {
+        if (resumedRunId != null) return resumedRunId;
+
         return excludeTimeStamp
             ? simulation.getName()
             : simulation.getName() + "@" + getStartTime() // [simName]@[ISO-8601-timestamp] or else [simName]@ready
@@ -75,6 +193,30 @@ public class SumoController {
      *   <li>{@code domainTopic} specifies the category of data (vehicle data, lane data, ...)</li>
      *   <li>{@code stepId} is gathered by {@link SumoStep#getCurrentMillis()}</li>
      * </ul>
+     * Objects are serialized in the {@link SimulationOptions#getPayloadFormat() payload format} of the run (JSON by
+     * default), whose MIME type is published once as a retained message to {@code rootTopic/simRunId/format}.<br>
+     * If {@link SimulationOptions#isBatchPublishing() batch publishing} is enabled, every message contains an array
+     * of objects of the same domain instead of a single object.<br>
+     * Static network data (lane and edge topology, junctions, routes and vehicle types) is not part of the simulation
+     * steps but published once as retained messages to {@code rootTopic/simRunId/network/domainTopic/frameNumber}.<br>
+     * If {@link SimulationOptions#isChangeOnlyPublishing() change-only publishing} is enabled, lanes and edges are only
+     * published if they have changed beyond their deadbands, apart from periodic keyframes (see {@link ChangeFilter}).<br>
+     * If {@link SimulationOptions#isColumnarPublishing() columnar publishing} is enabled, every domain is published as
+     * a single message of columns per step instead (see {@link ColumnarSnapshot#toColumnMap(Map)}).<br>
+     * If {@link SimulationOptions#isIdEncoding() ID encoding} is enabled, the IDs of vehicles, lanes, edges, routes
+     * and vehicle types are replaced with integer codes in every step. The codes are resolved by an ID table, which is
+     * published incrementally as retained messages to {@code rootTopic/simRunId/ids/domainTopic/firstCode} before the
+     * first step referring to any of the new IDs (see {@link #publishIdTable(String)}).<br>
+     * Every domain is published in its own {@link SimulationOptions#getPublishInterval(String) publish interval},
+     * domains which are not due in a step are not even harvested. The {@link FieldProjection field projection} of
+     * a domain limits the fields which are subscribed in SUMO and published.<br>
+     * If a {@link SimulationOptions#isWarmUp() warm-up} is configured, the simulation is fast-forwarded up to the end
+     * of the warm-up first and the first step published is the one following the warm-up.<br>
+     * If {@link SimulationOptions#isCheckpointing() checkpointing} is enabled, a {@link Checkpoint} is saved
+     * periodically. A run which is {@link SimulationOptions#isResume() resumed} continues from the latest checkpoint
+     * of the simulation and keeps the ID of the original run (and therefore publishes to the same topics).<br>
+     * If the simulation is {@link SimulationOptions#isPipelined() pipelined}, SUMO already computes the next steps
+     * while the previous ones are still being published. Steps are still published strictly in order.
      * @param rootTopic   The highest topic level which all data of the simulation is sent to.
      * @param subTopic    A sublevel of the topic hierarchy allowing to further specify where metrics of the
      *                    simulation run are sent to.
@@ -85,62 +227,114 @@ public class SumoController {
      */
     public void runSimulation(String rootTopic, String subTopic, int delayMillis) throws SystemError {
         startTime = Instant.now();
+        // continue a previous run from its latest checkpoint, which also determines the run ID
+        Optional<Checkpoint> checkpoint = options.isResume() ? resume() : Optional.empty();
         String metricsTopic = rootTopic + "/" + getId() + "/" + subTopic;
 
-        // subscribe to all properties of interest for every edge (road connection) in the simulation
-        VehicleType.getIDList().forEach(type -> VehicleType.subscribe(type, new IntVector(VehicleTypeMapper.Fields.sumoProperties())));
-        Edge.getIDList().forEach(edge -> Edge.subscribe(edge, new IntVector(EdgeMapper.Fields.sumoProperties())));
-        Route.getIDList().forEach(route -> Route.subscribe(route, new IntVector(RouteMapper.Fields.sumoProperties())));
-        Lane.getIDList().forEach(lane -> Lane.subscribe(lane, new IntVector(LaneMapper.Fields.sumoProperties())));
-        Junction.getIDList().forEach(junction -> Junction.subscribe(junction, new IntVector(JunctionMapper.Fields.sumoProperties())));
+        String networkTopic = rootTopic + "/" + getId() + "/" + NETWORK_TOPIC;
+        String idTopic = rootTopic + "/" + getId() + "/" + ID_TOPIC;
+        String runTopic = rootTopic + "/" + getId();
+        SumoNetwork network = new SumoNetwork(fieldProjection, options.getRegionOfInterest().orElse(null));
+        // vehicles of the first step have only just departed if the run starts from scratch
+        boolean startsMidRun = checkpoint.isPresent() || options.isWarmUp();
+        if (options.isQuantilePublishing()) {
+            trafficQuantiles = new TrafficQuantiles(options.getAggregationWindowMillis(),
+                options.getAggregationSlideMillis(), idDictionaries, startsMidRun);
+        }
+        if (options.isTripPublishing()) {
+            tripTracker = new TripTracker(idDictionaries, options.getOdZones(), startsMidRun);
+        }
+        if (options.isHeatmapPublishing()) {
+            emissionGrid = new EmissionGrid(SumoMapper.shapeFromTraCI(Simulation.getNetBoundary()),
+                options.getHeatmapCellSize(), options.getAggregationWindowMillis(),
+                options.getStepMillis() * options.getStepIncrement());
+        }
 
         System.out.println();
-        try (AwaitableExecutor executor = new AwaitableExecutor(Executors.newFixedThreadPool(THREAD_POOL_SIZE))) {
+        try (BoundedWorkQueue publishQueue = new BoundedWorkQueue(THREAD_POOL_SIZE,
+                options.getPublishQueueCapacity(), options.getPublishQueueOverflowPolicy());
+             ExecutorService stepPublisher = Executors.newSingleThreadExecutor()) {
+            // let clients know how to decode the payloads of this simulation run before publishing any of them
+            BoundedWorkQueue.Batch formatBatch = publishQueue.newBatch();
+            publishFormat(formatBatch, runTopic + "/" + FORMAT_TOPIC);
+            if (options.isQuantizing()) {
+                publishQuantization(formatBatch, runTopic + "/" + QUANTIZATION_TOPIC);
+            }
+            formatBatch.awaitCompletion();
+
+            // limits the number of harvested steps which are published or waiting to be published at the same time
+            Semaphore pipelineSlots = new Semaphore(Math.max(options.getPipelineDepth(), 1));
+            // first failure of a pipelined step, rethrown on this thread as soon as it acquires a pipeline slot
+            AtomicReference<Throwable> pipelineFailure = new AtomicReference<>();
+
+            // fast-forward through the warm-up without subscribing, mapping or publishing anything
+            if (options.isWarmUp() && checkpoint.isEmpty()) {
+                warmUp();
+            }
+
+            long stepNumber = checkpoint.map(Checkpoint::nextStepNumber).orElse(0L);
             for (SumoStep step : simulation) {
                 System.out.printf("Current simulation time: %.2fs\r", step.getCurrentMillis() / 1000.0);
 
-                executor.reset();
                 long stepStartTime = System.currentTimeMillis();
+                Set<String> dueDomains = dueDomains(stepNumber++);
+                // messages which the messages of this step depend on, sent by the workers right before the step
+                List<Runnable> prerequisites = new ArrayList<>();
+
+                // publish static network data once (and routes or vehicle types whenever SUMO loads new ones)
+                if (network.harvest(dueDomains)) {
+                    publishNetwork(prerequisites, networkTopic, network);
+                }
+
+                // subscribe to all properties of interest for every vehicle which has just departed (updates every time step)
+                updateVehicleSubscriptions();
+
+                // copy every subscription result out of SUMO on this thread, map and publish them in parallel afterwards
+                // aggregated domains are harvested in every step, but only published according to their intervals
+                Set<String> harvestedDomains = new HashSet<>(dueDomains);
+                harvestedDomains.addAll(aggregators.keySet());
+                if (trafficQuantiles != null || tripTracker != null || emissionGrid != null) {
+                    harvestedDomains.add("vehicles");
+                }
+                step.harvest(idDictionaries, harvestedDomains, options.getRegionOfInterest().isPresent());
 
-                // subscribe to all properties of interest for every vehicle newly loaded (updates every time step)
-                for (String newVehicleId : Simulation.getLoadedIDList()) {
-                    Vehicle.subscribe(newVehicleId, new IntVector(VehicleMapper.Fields.sumoProperties()));
-                    Vehicle.subscribeLeader(newVehicleId, 200.0); // leader can only be subscribed via this method
+                // clients must be able to resolve every code of this step before receiving it
+                if (options.isIdEncoding()) {
+                    publishIdTable(prerequisites, idTopic);
                 }
 
-                // collect metrics
-                Map<String, Stream<? extends SumoObject>> topicMap = new HashMap<>();
-                topicMap.put("vehicles", step.getVehicleData());
-                topicMap.put("vehicle_types", step.getVehicleTypeData());
-                topicMap.put("lanes", step.getLaneData());
-                topicMap.put("edges", step.getEdgeData());
-                topicMap.put("routes", step.getRouteData());
-                topicMap.put("junctions", step.getJunctionData());
-
-                topicMap.forEach((domainTopic, metrics) -> {
-                    // message topic included the domain-related topic name as well as the current simulation time step
-                    final String topic = metricsTopic + "/" + domainTopic + "/" + step.getCurrentMillis();
-
-                    metrics.parallel().forEach(payload ->
-                        executor.execute(() -> {
-                            try {
-                                // serialize a single SumoObject to JSON and send it via the messaging service
-                                byte[] jsonPayload = JsonMapper.instance().toJsonBytes(payload);
-                                messagingService.sendMessage(topic, jsonPayload, 1);
-                            } catch (JsonProcessingException exp) {
-                                System.err.printf("""
-                                    Failed to parse object with ID %s of domain %s in time step %s;
-                                    Reason: %s
-                                    """, payload.id(), domainTopic, step.getCurrentMillis(), exp.getMessage());
-                            } catch (MessagingException exp) {
-                                System.err.println(exp.getMessage());
+                if (options.isPipelined()) {
+                    // publish the step in the background while SUMO already computes the next one - the single
+                    // publisher thread processes the harvested steps strictly in the order they were handed over
+                    pipelineSlots.acquire();
+                    rethrowPipelineFailure(pipelineFailure);
+                    stepPublisher.execute(() -> {
+                        try {
+                            // steps following a failed one are not published, as clients rely on the order of steps
+                            if (pipelineFailure.get() == null) {
+                                publishStep(publishQueue, runTopic, metricsTopic, step, dueDomains, prerequisites);
                             }
-                        })
-                    );
-                });
+                        } catch (Throwable exp) {
+                            pipelineFailure.compareAndSet(null, exp);
+                        } finally {
+                            pipelineSlots.release();
+                        }
+                    });
+                } else {
+                    publishStep(publishQueue, runTopic, metricsTopic, step, dueDomains, prerequisites);
+                }
 
-                // wait until every thread spawned in this time step has finished its execution
-                executor.awaitCompletion();
+                // a checkpoint must only be saved once every step up to this one has been published
+                if (options.isCheckpointing() && stepNumber % options.getCheckpointInterval() == 0) {
+                    int pipelineDepth = Math.max(options.getPipelineDepth(), 1);
+                    pipelineSlots.acquire(pipelineDepth);
+                    try {
+                        rethrowPipelineFailure(pipelineFailure);
+                        saveCheckpoint(step.getCurrentMillis(), stepNumber);
+                    } finally {
+                        pipelineSlots.release(pipelineDepth);
+                    }
+                }
 
                 // guarantee the step execution time to be at minimum as long as specified by delayMillis
                 long stepDuration = System.currentTimeMillis() - stepStartTime;
@@ -148,8 +342,666 @@ public class SumoController {
                     Thread.sleep(delayMillis - stepDuration);
                 }
             }
+
+            // wait for the pipeline to drain before reporting any messages lost on the way
+            pipelineSlots.acquire(Math.max(options.getPipelineDepth(), 1));
+            rethrowPipelineFailure(pipelineFailure);
+            publishOpenWindows(publishQueue, runTopic);
+            if (publishQueue.getDroppedTasks() > 0) {
+                System.err.println("\nDropped " + publishQueue.getDroppedTasks() +
+                    " messages because the publish queue was full!");
+            }
         } catch (InterruptedException exp) {
             throw new SystemError(ErrorCode.EXECUTION_INTERRUPTED);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Rethrows the failure of a pipelined step on the stepping thread, which aborts the simulation run just like a
+     * failure of a step published on the stepping thread itself. In particular, no checkpoint is saved for the step.
+     * @param pipelineFailure The first failure of a pipelined step, if any step has failed yet.
+     * @throws InterruptedException if publishing the step has been interrupted.
+     */
+    private static void rethrowPipelineFailure(AtomicReference<Throwable> pipelineFailure)
+        throws InterruptedException {
+        Throwable failure = pipelineFailure.get();
+        if (failure instanceof InterruptedException exp) throw exp;
+        if (failure instanceof RuntimeException exp) throw exp;
+        if (failure instanceof Error err) throw err;
+    }
+
+    /**
+     * Restores the SUMO state and the state of this controller from the latest {@link Checkpoint} of the simulation.
+     * State which is not part of a checkpoint starts over, e.g. the {@link ChangeFilter change filters} publish every
+     * object in the first step of the resumed run, just like in a keyframe.
+     * @return The checkpoint the simulation run has been resumed from or an empty Optional if there is no checkpoint,
+     * in which case a new simulation run is started.
+     * @throws SystemError if the latest checkpoint cannot be read.
+     */
+    private Optional<Checkpoint> resume() throws SystemError {
+        Path directory = checkpointDirectory();
+        Optional<Checkpoint> latest;
+        try {
+            latest = Checkpoint.latest(directory);
+        } catch (IOException exp) {
+            throw new SystemError(ErrorCode.INVALID_CHECKPOINT, exp.getMessage());
+        }
+
+        if (latest.isEmpty()) {
+            System.out.println("No checkpoint found in " + directory + ", starting a new simulation run.");
+            return latest;
+        }
+
+        Checkpoint checkpoint = latest.get();
+        simulation.loadState(checkpoint.stateFile(directory));
+        resumedRunId = checkpoint.runId();
+
+        // codes must stay the same and the ID table has already been published up to the checkpoint
+        idDictionaries.restore(checkpoint.ids());
+        idDictionaries.byDomainTopic().forEach((domainTopic, dictionary) ->
+            publishedIdCounts.put(domainTopic, dictionary.size()));
+        // the network is published again, in frames following the ones published before the checkpoint
+        networkFrameCounts.putAll(checkpoint.networkFrameCounts());
+
+        // subscriptions are not part of SUMO's state
+        Set<String> runningVehicles = new HashSet<>(Vehicle.getIDList());
+        subscribeVehicles(checkpoint.subscribedVehicles().stream().filter(runningVehicles::contains).toList());
+
+        System.out.printf("Resumed simulation run %s at simulation time %.2fs%n",
+            resumedRunId, checkpoint.currentMillis() / 1000.0);
+        return latest;
+    }
+
+    /**
+     * Saves the SUMO state and the state of this controller as a {@link Checkpoint}. A failed checkpoint is reported
+     * but does not abort the simulation run.
+     * @param currentMillis  The simulation time of the step which has just been published.
+     * @param nextStepNumber The running number of the next step.
+     */
+    private void saveCheckpoint(int currentMillis, long nextStepNumber) {
+        Path directory = checkpointDirectory();
+
+        Checkpoint checkpoint = new Checkpoint(getId(), currentMillis, nextStepNumber,
+            new ArrayList<>(subscribedVehicles), idDictionaries.toIdLists(), new HashMap<>(networkFrameCounts));
+
+        try {
+            Files.createDirectories(directory);
+            simulation.saveState(checkpoint.stateFile(directory));
+            checkpoint.write(directory);
+        } catch (IOException exp) {
+            System.err.printf("%nFailed to save checkpoint at simulation time %.2fs; Reason: %s%n",
+                currentMillis / 1000.0, exp.getMessage());
+        }
+    }
+
+    private Path checkpointDirectory() {
+        return options.getCheckpointDirectory().resolve(simulation.getName());
+    }
+
+    /**
+     * Fast-forwards the simulation up to the end of the {@link SimulationOptions#getWarmUpMillis() warm-up} (rounded
+     * down to a multiple of the step length) with a single call to SUMO. Vehicles departed in the meantime are only
+     * subscribed once the warm-up has finished.
+     */
+    private void warmUp() {
+        int warmUpMillis = options.getWarmUpMillis() - options.getWarmUpMillis() % options.getStepMillis();
+        System.out.printf("Warming up until simulation time %.2fs...%n", warmUpMillis / 1000.0);
+        simulation.skipToStep(warmUpMillis);
+
+        subscribeVehicles(Vehicle.getIDList());
+    }
+
+    /**
+     * Keeps the vehicle subscriptions in line with the vehicles driving in the network. Vehicles are subscribed as soon
+     * as they depart, so that vehicles which are loaded, but still waiting to be inserted, are not part of the
+     * subscription results. Arrived vehicles are removed from the set of subscribed vehicles, as SUMO drops their
+     * subscriptions itself.<br>
+     * Within a {@link RegionOfInterest}, vehicles are collected by the context subscriptions of its edges instead.
+     */
+    private void updateVehicleSubscriptions() {
+        if (options.getRegionOfInterest().isPresent()) return;
+
+        for (String arrivedVehicleId : Simulation.getArrivedIDList()) {
+            subscribedVehicles.remove(arrivedVehicleId);
+        }
+        subscribeVehicles(Simulation.getDepartedIDList());
+
+        // departures and arrivals are only reported for the last step performed by SUMO, which misses some vehicles
+        // if SUMO performs multiple steps at once (e.g. because of a step increment) - reconcile with the running ones
+        if (subscribedVehicles.size() != Vehicle.getIDCount()) {
+            List<String> runningVehicles = Vehicle.getIDList();
+            subscribedVehicles.retainAll(new HashSet<>(runningVehicles));
+            subscribeVehicles(runningVehicles.stream().filter(id -> !subscribedVehicles.contains(id)).toList());
+        }
+    }
+
+    /**
+     * Subscribes to all properties of interest (according to the {@link FieldProjection}) of every given vehicle,
+     * which are then updated in every step. The leader of a vehicle is only subscribed within the configured
+     * {@link SimulationOptions#getLeaderDistance() leader distance}.
+     */
+    private void subscribeVehicles(List<String> vehicleIds) {
+        if (vehicleIds.isEmpty() || options.getRegionOfInterest().isPresent()) return;
+
+        IntVector vehicleProperties = new IntVector(fieldProjection.vehicleProperties());
+        boolean subscribeLeader = fieldProjection.includesLeader() && options.getLeaderDistance() > 0;
+        for (String vehicleId : vehicleIds) {
+            Vehicle.subscribe(vehicleId, vehicleProperties);
+            if (subscribeLeader) {
+                // leader can only be subscribed via this method
+                Vehicle.subscribeLeader(vehicleId, options.getLeaderDistance());
+            }
+            subscribedVehicles.add(vehicleId);
+        }
+    }
+
+    /**
+     * Maps every harvested object of the given step to its DTO, publishes them to their domain topics and waits
+     * until every message of this step has been handed over to the messaging service.
+     * @param publishQueue  Bounded queue of the workers which send the messages of this step concurrently.
+     * @param runTopic      The topic which every topic of this simulation run is located under.
+     * @param metricsTopic  The topic which the domain topics of this simulation run are located under.
+     * @param step          An already {@link SumoStep#harvest(IdDictionaries, Set, boolean) harvested} simulation step.
+     * @param dueDomains    The domains which are due to be published in this step.
+     * @param prerequisites Sends the messages which the messages of this step depend on (e.g. the ID table), which are
+     *                      sent before any other message of this step.
+     * @throws InterruptedException when the thread is interrupted while waiting for the messages to be sent.
+     */
+    private void publishStep(BoundedWorkQueue publishQueue, String runTopic, String metricsTopic, SumoStep step,
+                             Set<String> dueDomains, List<Runnable> prerequisites) throws InterruptedException {
+        if (!prerequisites.isEmpty()) {
+            BoundedWorkQueue.Batch prerequisiteBatch = publishQueue.newBatch();
+            prerequisites.forEach(prerequisiteBatch::executeBlocking);
+            prerequisiteBatch.awaitCompletion();
+            // messages of this step might be sent over other connections, which must not overtake the prerequisites
+            try {
+                messagingService.flush();
+            } catch (MessagingException exp) {
+                System.err.println(exp.getMessage());
+            }
+        }
+
+        BoundedWorkQueue.Batch batch = publishQueue.newBatch();
+
+        // trajectories are simplified in step order, before the vehicles are mapped and published concurrently
+        ColumnarSnapshot vehicles = trajectoryFilter != null && dueDomains.contains("vehicles")
+            ? trajectoryFilter.filter(step.getCurrentMillis(), step.getVehicleSnapshot())
+            : step.getVehicleSnapshot();
+
+        if (options.isColumnarPublishing()) {
+            publishColumns(batch, metricsTopic, step, vehicles, dueDomains);
+        } else {
+            // collect metrics
+            Map<String, Stream<? extends SumoObject>> topicMap = new HashMap<>();
+            if (dueDomains.contains("vehicles")) {
+                topicMap.put("vehicles", vehicles.mapParallel(VehicleMapper::createVehicleData));
+            }
+            if (dueDomains.contains("lanes")) {
+                topicMap.put("lanes", changesOnly(laneFilter, step.getLaneData()));
+            }
+            if (dueDomains.contains("edges")) {
+                topicMap.put("edges", changesOnly(edgeFilter, step.getEdgeData()));
+            }
+
+            topicMap.forEach((domainTopic, metrics) -> {
+                // message topic included the domain-related topic name as well as the current simulation time step
+                final String topic = metricsTopic + "/" + domainTopic + "/" + step.getCurrentMillis();
+
+                if (options.isBatchPublishing()) {
+                    publishFrames(batch, topic, domainTopic, step, metrics);
+                } else {
+                    publishEach(batch, topic, domainTopic, step, metrics);
+                }
+            });
+        }
+
+        if (dueDomains.contains("events")) {
+            publishEvents(batch, runTopic + "/" + EVENT_TOPIC, step);
+        }
+        if (!aggregators.isEmpty()) {
+            publishAggregates(batch, runTopic + "/" + AGGREGATE_TOPIC, step);
+        }
+        if (trafficQuantiles != null) {
+            publishQuantiles(batch, runTopic + "/" + QUANTILE_TOPIC, step);
+        }
+        if (tripTracker != null) {
+            publishTrips(batch, runTopic, step);
+        }
+        if (emissionGrid != null) {
+            publishHeatmap(batch, runTopic + "/" + HEATMAP_TOPIC, step);
+        }
+
+        // wait until every message of this time step has been sent and acknowledged
+        batch.awaitCompletion();
+        try {
+            messagingService.flush();
+        } catch (MessagingException exp) {
+            System.err.println(exp.getMessage());
+        }
+    }
+
+    /**
+     * Publishes the {@link ColumnarSnapshot columnar snapshot} of every domain as a single message per domain, which is
+     * serialized straight from the snapshot's primitive columns without mapping any entity to a DTO.
+     * @param vehicles The vehicles to publish, which may be a subset of the step's vehicles.
+     */
+    private void publishColumns(BoundedWorkQueue.Batch batch, String metricsTopic, SumoStep step,
+                                ColumnarSnapshot vehicles, Set<String> dueDomains) {
+        Map<String, ColumnarSnapshot> snapshots = Map.of(
+            "vehicles", vehicles,
+            "lanes", step.getLaneSnapshot(),
+            "edges", step.getEdgeSnapshot()
+        );
+        Map<String, Map<Integer, String>> columnNames = Map.of(
+            "vehicles", VEHICLE_COLUMNS,
+            "lanes", LANE_COLUMNS,
+            "edges", EDGE_COLUMNS
+        );
+        Map<String, Map<Integer, IdDictionary>> references = Map.of(
+            "vehicles", idDictionaries.vehicleReferences(),
+            "lanes", idDictionaries.laneReferences(),
+            "edges", idDictionaries.edgeReferences()
+        );
+
+        snapshots.forEach((domainTopic, snapshot) -> {
+            if (!dueDomains.contains(domainTopic)) return;
+
+            batch.execute(() -> {
+                String topic = metricsTopic + "/" + domainTopic + "/" + step.getCurrentMillis();
+                try {
+                    Map<String, Object> columns = options.isIdEncoding()
+                        ? snapshot.toEncodedColumnMap(columnNames.get(domainTopic), references.get(domainTopic))
+                        : snapshot.toColumnMap(columnNames.get(domainTopic));
+                    ColumnQuantizer quantizer = columnQuantizers.get(domainTopic);
+                    if (quantizer != null) {
+                        columns = quantizer.quantize(columns);
+                    }
+                    messagingService.sendMessage(topic, serializer.serialize(columns), 1);
+                } catch (IOException exp) {
+                    System.err.printf("Failed to serialize columns of domain %s in time step %s; Reason: %s%n",
+                        domainTopic, step.getCurrentMillis(), exp.getMessage());
+                } catch (MessagingException exp) {
+                    System.err.println(exp.getMessage());
+                }
+            });
+        });
+    }
+
+    /**
+     * Publishes every event of a step as a single array to {@code eventTopic/stepMillis}. Nothing is published
+     * for steps without any event.
+     */
+    private void publishEvents(BoundedWorkQueue.Batch batch, String eventTopic, SumoStep step) {
+        List<EventData> events = step.getEventData();
+        if (events.isEmpty()) return;
+
+        batch.execute(() -> {
+            try {
+                messagingService.sendMessage(eventTopic + "/" + step.getCurrentMillis(), serializer.serialize(events), 1);
+            } catch (IOException exp) {
+                System.err.printf("Failed to serialize events of time step %s; Reason: %s%n",
+                    step.getCurrentMillis(), exp.getMessage());
+            } catch (MessagingException exp) {
+                System.err.println(exp.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Adds the lane and edge snapshots of a step to their {@link WindowAggregator aggregators} and publishes every window
+     * completed by this step to {@code aggregateTopic/domainTopic/windowEndMillis}. Must be called for every step
+     * in order.
+     */
+    private void publishAggregates(BoundedWorkQueue.Batch batch, String aggregateTopic, SumoStep step) {
+        Map<String, ColumnarSnapshot> snapshots = Map.of(
+            "lanes", step.getLaneSnapshot(),
+            "edges", step.getEdgeSnapshot()
+        );
+
+        aggregators.forEach((domainTopic, aggregator) ->
+            aggregator.add(step.getCurrentMillis(), snapshots.get(domainTopic)).ifPresent(window ->
+                publishWindow(batch, aggregateTopic, domainTopic, aggregator, window))
+        );
+    }
+
+    /**
+     * Publishes the aggregates of a completed window of a domain to {@code aggregateTopic/domainTopic/windowEndMillis}.
+     */
+    private void publishWindow(BoundedWorkQueue.Batch batch, String aggregateTopic, String domainTopic,
+                               WindowAggregator aggregator, WindowAggregator.Window window) {
+        IdDictionary dictionary = idDictionaries.byDomainTopic().get(domainTopic);
+        Map<String, Object> aggregates = aggregator.toPayload(window,
+            options.isIdEncoding() ? code -> code : dictionary::decode);
+
+        batch.execute(() -> {
+            String topic = aggregateTopic + "/" + domainTopic + "/" + window.endMillis();
+            try {
+                messagingService.sendMessage(topic, serializer.serialize(aggregates), 1);
+            } catch (IOException exp) {
+                System.err.printf("Failed to serialize aggregates of domain %s in window ending at %sms; Reason: %s%n",
+                    domainTopic, window.endMillis(), exp.getMessage());
+            } catch (MessagingException exp) {
+                System.err.println(exp.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Publishes the windows which are still open at the end of the simulation run, i.e. the ones of the last steps,
+     * which would otherwise only be completed by a step following the end of the run. Must be called once every step
+     * has been published.
+     * @throws InterruptedException when the thread is interrupted while waiting for the messages to be sent.
+     */
+    private void publishOpenWindows(BoundedWorkQueue publishQueue, String runTopic) throws InterruptedException {
+        BoundedWorkQueue.Batch batch = publishQueue.newBatch();
+        aggregators.forEach((domainTopic, aggregator) -> aggregator.finish().ifPresent(window ->
+            publishWindow(batch, runTopic + "/" + AGGREGATE_TOPIC, domainTopic, aggregator, window)));
+        if (trafficQuantiles != null) {
+            publishQuantileWindows(batch, runTopic + "/" + QUANTILE_TOPIC,
+                trafficQuantiles.finish(options.isIdEncoding()));
+        }
+        if (emissionGrid != null) {
+            emissionGrid.finish().ifPresent(heatmap ->
+                publishHeatmapWindow(batch, runTopic + "/" + HEATMAP_TOPIC, heatmap));
+        }
+
+        batch.awaitCompletion();
+        try {
+            messagingService.flush();
+        } catch (MessagingException exp) {
+            System.err.println(exp.getMessage());
+        }
+    }
+
+    /**
+     * Adds the vehicles of a step to the {@link TrafficQuantiles} and publishes the quantiles of every window completed
+     * by this step to {@code quantileTopic/domainTopic/windowEndMillis}. Must be called for every step in order.
+     */
+    private void publishQuantiles(BoundedWorkQueue.Batch batch, String quantileTopic, SumoStep step) {
+        publishQuantileWindows(batch, quantileTopic,
+            trafficQuantiles.add(step.getCurrentMillis(), step.getVehicleSnapshot(), options.isIdEncoding()));
+    }
+
+    /**
+     * Publishes the quantiles of completed windows to {@code quantileTopic/domainTopic/windowEndMillis}.
+     * @param quantilesByDomain The payload of every completed window by its domain topic.
+     */
+    private void publishQuantileWindows(BoundedWorkQueue.Batch batch, String quantileTopic,
+                                        Map<String, Map<String, Object>> quantilesByDomain) {
+        quantilesByDomain.forEach((domainTopic, quantiles) -> batch.execute(() -> {
+            String topic = quantileTopic + "/" + domainTopic + "/" + quantiles.get("windowEnd");
+            try {
+                messagingService.sendMessage(topic, serializer.serialize(quantiles), 1);
+            } catch (IOException exp) {
+                System.err.printf("Failed to serialize quantiles of domain %s in window ending at %sms; Reason: %s%n",
+                    domainTopic, quantiles.get("windowEnd"), exp.getMessage());
+            } catch (MessagingException exp) {
+                System.err.println(exp.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Adds the vehicles of a step to the {@link TripTracker} and publishes every trip completed in this step as a single
+     * array to {@code runTopic/trips/stepMillis}. If any completed trip has been counted in the origin-destination
+     * matrix, the whole matrix is published as a retained message to {@code runTopic/od}. Must be called for every
+     * step in order.
+     */
+    private void publishTrips(BoundedWorkQueue.Batch batch, String runTopic, SumoStep step) {
+        List<TripData> trips = tripTracker.add(step.getCurrentMillis(), step.getVehicleSnapshot());
+        if (trips.isEmpty()) return;
+
+        try {
+            byte[] tripPayload = serializer.serialize(trips);
+            batch.execute(() -> sendMessage(runTopic + "/" + TRIP_TOPIC + "/" + step.getCurrentMillis(), tripPayload, false));
+
+            if (trips.stream().anyMatch(trip -> trip.originZone() != null && trip.destinationZone() != null)) {
+                // serialized right away, as the matrix keeps changing with the next step
+                byte[] odPayload = serializer.serialize(Map.of(
+                    "time", step.getCurrentMillis(),
+                    "matrix", tripTracker.getOdMatrix()
+                ));
+                batch.execute(() -> sendMessage(runTopic + "/" + OD_TOPIC, odPayload, true));
+            }
+        } catch (IOException exp) {
+            System.err.printf("Failed to serialize trips of time step %s; Reason: %s%n",
+                step.getCurrentMillis(), exp.getMessage());
+        }
+    }
+
+    /**
+     * Adds the vehicles of a step to the {@link EmissionGrid} and publishes the cells of the window completed by this
+     * step, if any, to {@code heatmapTopic/windowEndMillis}. Must be called for every step in order.
+     */
+    private void publishHeatmap(BoundedWorkQueue.Batch batch, String heatmapTopic, SumoStep step) {
+        emissionGrid.add(step.getCurrentMillis(), step.getVehicleSnapshot()).ifPresent(heatmap ->
+            publishHeatmapWindow(batch, heatmapTopic, heatmap));
+    }
+
+    /**
+     * Publishes the cells of a completed window to {@code heatmapTopic/windowEndMillis}.
+     */
+    private void publishHeatmapWindow(BoundedWorkQueue.Batch batch, String heatmapTopic, Map<String, Object> heatmap) {
+        try {
+            byte[] payload = serializer.serialize(heatmap);
+            batch.execute(() -> sendMessage(heatmapTopic + "/" + heatmap.get("windowEnd"), payload, false));
+        } catch (IOException exp) {
+            System.err.printf("Failed to serialize heatmap of window ending at %sms; Reason: %s%n",
+                heatmap.get("windowEnd"), exp.getMessage());
+        }
+    }
+
+    /**
+     * Publishes the MIME type of the payloads as a retained message, e.g. {@code application/cbor}. If payloads are
+     * compressed, the codec is appended as the content encoding, e.g. {@code application/cbor; content-encoding=deflate},
+     * and the message itself is sent uncompressed, so that clients are able to read it without knowing the codec.
+     */
+    private void publishFormat(BoundedWorkQueue.Batch batch, String formatTopic) {
+        batch.executeBlocking(() -> {
+            try {
+                if (messagingService instanceof CompressingMessagingService compressingService) {
+                    String contentType = serializer.contentType() + "; content-encoding=" +
+                        compressingService.getCodec().contentEncoding();
+                    compressingService.sendUncompressed(formatTopic,
+                        contentType.getBytes(StandardCharsets.UTF_8), 1, true);
+                } else {
+                    messagingService.broadcastMessage(formatTopic,
+                        serializer.contentType().getBytes(StandardCharsets.UTF_8), 1, true);
+                }
+            } catch (MessagingException exp) {
+                System.err.println(exp.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Publishes the resolution of every quantized field (and the keyframe interval of delta-coded columns) as a
+     * retained message, so that subscribers are able to restore the original values:
+     * {@code {"resolutions": {"SPEED": 0.01, ...}, "deltaKeyframeInterval": 0}}
+     */
+    private void publishQuantization(BoundedWorkQueue.Batch batch, String quantizationTopic) {
+        Map<String, Object> quantization = new LinkedHashMap<>();
+        quantization.put("resolutions", new TreeMap<>(options.getQuantizationResolutions()));
+        quantization.put("deltaKeyframeInterval", options.getDeltaKeyframeInterval());
+        try {
+            byte[] payload = serializer.serialize(quantization);
+            batch.executeBlocking(() -> {
+                try {
+                    messagingService.broadcastMessage(quantizationTopic, payload, 1, true);
+                } catch (MessagingException exp) {
+                    System.err.println(exp.getMessage());
+                }
+            });
+        } catch (IOException exp) {
+            System.err.printf("Failed to serialize the quantization of this simulation run; Reason: %s%n",
+                exp.getMessage());
+        }
+    }
+
+    private void sendMessage(String topic, byte[] payload, boolean retained) {
+        try {
+            messagingService.sendMessage(topic, payload, 1, retained);
+        } catch (MessagingException exp) {
+            System.err.println(exp.getMessage());
+        }
+    }
+
+    /**
+     * Serializes every object of a domain individually and sends each one as a separate message.
+     */
+    private void publishEach(BoundedWorkQueue.Batch batch, String topic, String domainTopic, SumoStep step,
+                             Stream<? extends SumoObject> metrics) {
+        metrics.parallel().forEach(payload ->
+            batch.execute(() -> {
+                try {
+                    // serialize a single SumoObject to the payload format and send it via the messaging service
+                    messagingService.sendMessage(topic, payload.id(), serializer.serialize(payload), 1);
+                } catch (IOException exp) {
+                    printSerializationError(payload, domainTopic, step.getCurrentMillis(), exp);
+                } catch (MessagingException exp) {
+                    System.err.println(exp.getMessage());
+                }
+            })
+        );
+    }
+
+    /**
+     * Serializes every object of a domain and packs them into as few arrays (frames) as the
+     * {@link SimulationOptions#getMaxFrameBytes() maximum frame size} allows. Only the frames are sent as messages.
+     */
+    private void publishFrames(BoundedWorkQueue.Batch batch, String topic, String domainTopic, SumoStep step,
+                               Stream<? extends SumoObject> metrics) {
+        List<byte[]> frames = packFrames(metrics, domainTopic, step.getCurrentMillis(), options.getMaxFrameBytes());
+        for (int i = 0; i < frames.size(); i++) {
+            final byte[] frame = frames.get(i);
+            final String frameKey = String.valueOf(i);
+            batch.execute(() -> {
+                try {
+                    messagingService.sendMessage(topic, frameKey, frame, 1);
+                } catch (MessagingException exp) {
+                    System.err.println(exp.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Determines the domains which are due to be published in the given step according to their publish intervals.
+     * @param stepNumber The running number of the step, starting at 0 for the first step of the simulation run.
+     */
+    private Set<String> dueDomains(long stepNumber) {
+        Set<String> dueDomains = new HashSet<>();
+        for (String domainTopic : SimulationOptions.PUBLISH_DOMAINS) {
+            int interval = options.getPublishInterval(domainTopic);
+            if (interval == SimulationOptions.PUBLISH_ONCE ? stepNumber == 0 : stepNumber % interval == 0) {
+                dueDomains.add(domainTopic);
+            }
+        }
+        // events are only reported for the step they happen in and have to be collected in every step
+        if (options.isEventPublishing()) {
+            dueDomains.add("events");
+        }
+        return dueDomains;
+    }
+
+    /**
+     * Publishes every ID encoded since the last call as retained messages, one message per chunk of up to
+     * {@value #ID_CHUNK_SIZE} consecutive codes of a domain. Each message contains the first code of the chunk and the
+     * IDs in ascending order of their codes, so that a client subscribing to {@code idTopic/#} at any time receives the
+     * complete ID table of the run. Must be called by the thread controlling the simulation, which only serializes the
+     * chunks, while they are sent by the workers.
+     * @param prerequisites Receives the sending of every chunk, which has to happen before the next step is published.
+     */
+    private void publishIdTable(List<Runnable> prerequisites, String idTopic) {
+        idDictionaries.byDomainTopic().forEach((domainTopic, dictionary) -> {
+            int published = publishedIdCounts.getOrDefault(domainTopic, 0);
+            int size = dictionary.size();
+
+            for (int firstCode = published; firstCode < size; firstCode += ID_CHUNK_SIZE) {
+                int endCode = Math.min(firstCode + ID_CHUNK_SIZE, size);
+                Map<String, Object> chunk = Map.of(
+                    "firstCode", firstCode,
+                    "ids", dictionary.range(firstCode, endCode)
+                );
+                try {
+                    String topic = idTopic + "/" + domainTopic + "/" + firstCode;
+                    byte[] payload = serializer.serialize(chunk);
+                    prerequisites.add(() -> sendMessage(topic, payload, true));
+                } catch (IOException exp) {
+                    System.err.printf("Failed to serialize IDs %d to %d of domain %s; Reason: %s%n",
+                        firstCode, endCode, domainTopic, exp.getMessage());
+                }
+            }
+            publishedIdCounts.put(domainTopic, size);
+        });
+    }
+
+    /**
+     * Publishes the static network data of the latest {@link SumoNetwork#harvest() harvest} as retained messages, so
+     * that clients subscribing later on still receive it. Every domain is packed into arrays (frames), which are
+     * sent to {@code networkTopic/domainTopic/frameNumber}, where the frame number keeps counting up per domain
+     * whenever new network data (e.g. a newly loaded route) is published.
+     * @param prerequisites Receives the sending of every frame, which has to happen before the next step is published.
+     */
+    private void publishNetwork(List<Runnable> prerequisites, String networkTopic, SumoNetwork network) {
+        Map<String, Stream<? extends SumoObject>> topicMap = new HashMap<>();
+        topicMap.put("lanes", network.getLaneTopologyData());
+        topicMap.put("edges", network.getEdgeTopologyData());
+        topicMap.put("junctions", network.getJunctionData());
+        topicMap.put("routes", network.getRouteData());
+        topicMap.put("vehicle_types", network.getVehicleTypeData());
+
+        int maxFrameBytes = options.isBatchPublishing() ? options.getMaxFrameBytes() : NETWORK_FRAME_BYTES;
+
+        topicMap.forEach((domainTopic, data) -> {
+            for (byte[] frame : packFrames(data, domainTopic, 0, maxFrameBytes)) {
+                int frameNumber = networkFrameCounts.merge(domainTopic, 1, Integer::sum) - 1;
+                prerequisites.add(() -> sendMessage(networkTopic + "/" + domainTopic + "/" + frameNumber, frame, true));
+            }
+        });
+    }
+
+    /**
+     * Serializes the given objects concurrently to the payload format and packs them into frames of the given maximum size
+     * while keeping their encounter order.
+     */
+    private List<byte[]> packFrames(Stream<? extends SumoObject> metrics, String domainTopic, int stepMillis,
+                                           int maxFrameBytes) {
+        List<byte[]> elements = metrics.parallel()
+            .map(payload -> {
+                try {
+                    return serializer.serialize(payload);
+                } catch (IOException exp) {
+                    printSerializationError(payload, domainTopic, stepMillis, exp);
+                    return null;
+                }
+            })
+            .filter(Objects::nonNull)
+            .toList();
+
+        FrameBuilder frameBuilder = serializer.newFrameBuilder(maxFrameBytes);
+        elements.forEach(frameBuilder::append);
+
+        return frameBuilder.build();
+    }
+
+    private static Map<Integer, String> vehicleColumnNames() {
+        Map<Integer, String> names = ColumnarSnapshot.columnNames(VehicleMapper.Fields.values(), field -> field.sumoPropertyId);
+        names.put(VehicleMapper.LEADER_PROPERTY, "LEADER");
+        return names;
+    }
+
+    /**
+     * Applies the given change filter to the objects of a step, if change-only publishing is enabled.
+     */
+    private static <T extends SumoObject> Stream<T> changesOnly(ChangeFilter<T> filter, Stream<T> objects) {
+        return filter != null ? filter.filter(objects) : objects;
+    }
+
+    private static void printSerializationError(SumoObject payload, String domainTopic, int stepMillis, Exception exp) {
+        System.err.printf("""
+            Failed to parse object with ID %s of domain %s in time step %s;
+            Reason: %s
+            """, payload.id(), domainTopic, stepMillis, exp.getMessage());
+    }
+}
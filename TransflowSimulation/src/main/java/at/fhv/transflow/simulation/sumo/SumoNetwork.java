@@ -0,0 +1,286 @@
+package at.fhv.transflow.simulation.sumo;
+
+import at.fhv.transflow.simulation.sumo.data.*;
+import at.fhv.transflow.simulation.sumo.mapping.*;
+import org.eclipse.sumo.libsumo.*;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+
+/**
+ * Represents the static part of a running SUMO traffic simulation, i.e. every property which does not change during
+ * a simulation run: the topology of lanes and edges, the junctions, the routes and the vehicle types.<br>
+ * <br>
+ * Just like a {@link SumoStep}, the network is processed in two phases. {@link #harvest()} reads the static properties
+ * from SUMO on the thread controlling the simulation, while the {@code getXxxData()} methods map the harvested values
+ * without touching native code.<br>
+ * Once harvested, lanes and edges are (re-)subscribed to their dynamic properties only, which are then
+ * contained in every {@link SumoStep}.<br>
+ * <br>
+ * If a {@link RegionOfInterest} is given, only the part of the network within this region is harvested and subscribed.
+ * Vehicles are then no longer subscribed individually, but collected by a context subscription of every edge inside
+ * the region instead.
+ */
+public class SumoNetwork {
+    // vehicles are collected from the edge itself only, not from its surroundings
+    private static final double VEHICLE_CONTEXT_RANGE = 0.0;
+    private final FieldProjection fieldProjection;
+    private final RegionOfInterest regionOfInterest;
+    private final Set<String> knownVehicleTypes = new HashSet<>();
+    private final Set<String> knownRoutes = new HashSet<>();
+    private boolean topologyHarvested = false;
+    private Harvest harvest = Harvest.EMPTY;
+
+    /**
+     * @param fieldProjection Determines the dynamic properties of lanes and edges which are subscribed once the
+     *                        network has been harvested.
+     * @param regionOfInterest The part of the network to collect data for or null to collect data for the whole network.
+     */
+    public SumoNetwork(FieldProjection fieldProjection, RegionOfInterest regionOfInterest) {
+        this.fieldProjection = fieldProjection;
+        this.regionOfInterest = regionOfInterest;
+    }
+
+
+    /**
+     * Copies the static properties of every network element which has not been harvested before into plain Java buffers,
+     * replacing the results of the previous harvest. The first call reads the complete road network (lanes, edges and
+     * junctions) as well as every route and vehicle type loaded so far. Subsequent calls only pick up routes and vehicle
+     * types which have been loaded by SUMO in the meantime, so they are cheap enough to be called in every step.<br>
+     * Must be called by the single thread which also advances the simulation.
+     * @param domainTopics The domains whose new elements are harvested by this call ({@code routes} and/or
+     *                     {@code vehicle_types}). Elements of other domains are picked up by a later call instead.
+     *                     The topology is always harvested by the first call.
+     * @return True if any new network element was harvested, false otherwise.
+     */
+    public boolean harvest(Set<String> domainTopics) {
+        List<SubscribedEntity> lanes = List.of();
+        List<SubscribedEntity> edges = List.of();
+        List<SubscribedEntity> junctions = List.of();
+
+        if (!topologyHarvested) {
+            lanes = readOnce(Lane.getIDList(), LaneMapper.TopologyFields.sumoProperties(),
+                Lane::subscribe, Lane::getSubscriptionResults, Lane::unsubscribe);
+            for (SubscribedEntity lane : lanes) {
+                // add some extra values that cannot be subscribed
+                StringVector laneChangePermsLeft = Lane.getChangePermissions(lane.id(), Constants.LANECHANGE_LEFT);
+                StringVector laneChangePermsRight = Lane.getChangePermissions(lane.id(), Constants.LANECHANGE_RIGHT);
+                lane.properties().put(LaneMapper.ExtraFields.LANE_CHANGE_ALLOWED_LEFT.id, laneChangePermsLeft.toArray(String[]::new));
+                lane.properties().put(LaneMapper.ExtraFields.LANE_CHANGE_ALLOWED_RIGHT.id, laneChangePermsRight.toArray(String[]::new));
+                lane.properties().put(LaneMapper.TopologyFields.LINKS.sumoPropertyId, LaneMapper.linksFromTraCI(Lane.getLinks(lane.id())));
+            }
+
+            edges = readOnce(Edge.getIDList(), EdgeMapper.TopologyFields.sumoProperties(),
+                Edge::subscribe, Edge::getSubscriptionResults, Edge::unsubscribe);
+            junctions = readOnce(Junction.getIDList(), JunctionMapper.Fields.sumoProperties(),
+                Junction::subscribe, Junction::getSubscriptionResults, Junction::unsubscribe);
+
+            if (regionOfInterest != null) {
+                lanes = selectLanes(lanes);
+                edges = selectEdges(edges, lanes);
+                junctions = selectJunctions(junctions, edges);
+            }
+
+            // from now on, only the dynamic properties of lanes and edges are subscribed for every simulation step
+            IntVector laneProperties = new IntVector(fieldProjection.laneProperties());
+            IntVector edgeProperties = new IntVector(fieldProjection.edgeProperties());
+            lanes.forEach(lane -> Lane.subscribe(lane.id(), laneProperties));
+            edges.forEach(edge -> Edge.subscribe(edge.id(), edgeProperties));
+
+            if (regionOfInterest != null) {
+                // let SUMO collect the vehicles on the edges of the region instead of subscribing each vehicle
+                IntVector vehicleProperties = new IntVector(fieldProjection.vehicleProperties());
+                edges.forEach(edge -> Edge.subscribeContext(edge.id(), Constants.CMD_GET_VEHICLE_VARIABLE,
+                    VEHICLE_CONTEXT_RANGE, vehicleProperties));
+            }
+            topologyHarvested = true;
+        }
+
+        // routes and vehicle types may still be loaded while the simulation is running
+        List<SubscribedEntity> routes = domainTopics.contains("routes") && knownRoutes.size() != Route.getIDCount()
+            ? readOnce(newIds(Route.getIDList(), knownRoutes), RouteMapper.Fields.sumoProperties(),
+                Route::subscribe, Route::getSubscriptionResults, Route::unsubscribe)
+            : List.of();
+        List<SubscribedEntity> vehicleTypes =
+            domainTopics.contains("vehicle_types") && knownVehicleTypes.size() != VehicleType.getIDCount()
+            ? readOnce(newIds(VehicleType.getIDList(), knownVehicleTypes), VehicleTypeMapper.Fields.sumoProperties(),
+                VehicleType::subscribe, VehicleType::getSubscriptionResults, VehicleType::unsubscribe)
+            : List.of();
+
+        harvest = new Harvest(lanes, edges, junctions, routes, vehicleTypes);
+        return !harvest.isEmpty();
+    }
+
+    public Stream<LaneTopologyData> getLaneTopologyData() {
+        return SubscribedEntity.mapParallel(harvest.lanes(), LaneMapper::createLaneTopologyData);
+    }
+
+    public Stream<EdgeTopologyData> getEdgeTopologyData() {
+        return SubscribedEntity.mapParallel(harvest.edges(), EdgeMapper::createEdgeTopologyData);
+    }
+
+    public Stream<JunctionData> getJunctionData() {
+        return SubscribedEntity.mapParallel(harvest.junctions(), JunctionMapper::createJunctionData);
+    }
+
+    public Stream<RouteData> getRouteData() {
+        return SubscribedEntity.mapParallel(harvest.routes(), RouteMapper::createRouteData);
+    }
+
+    public Stream<VehicleTypeData> getVehicleTypeData() {
+        return SubscribedEntity.mapParallel(harvest.vehicleTypes(), VehicleTypeMapper::createVehicleData);
+    }
+
+
+    /**
+     * Selects every lane whose shape intersects the area of the region of interest or whose edge is listed explicitly,
+     * along with the internal lanes of the junctions connecting any two of these lanes. Otherwise, vehicles would
+     * vanish from the region while crossing a junction between two selected edges.
+     */
+    private List<SubscribedEntity> selectLanes(List<SubscribedEntity> lanes) {
+        Set<String> lanesInArea = regionOfInterest.selectShapes(
+            RegionOfInterest.indexShapes(lanes, LaneMapper.TopologyFields.SHAPE.sumoPropertyId));
+
+        Map<String, SubscribedEntity> lanesById = new HashMap<>();
+        Set<String> selectedIds = new HashSet<>();
+        for (SubscribedEntity lane : lanes) {
+            lanesById.put(lane.id(), lane);
+            if (lanesInArea.contains(lane.id()) || regionOfInterest.containsEdge(edgeIdOf(lane))) {
+                selectedIds.add(lane.id());
+            }
+        }
+
+        Set<String> internalIds = new HashSet<>();
+        for (String laneId : selectedIds) {
+            for (LaneData.Link link : linksOf(lanesById.get(laneId))) {
+                if (selectedIds.contains(link.approachedLane()) && isInternal(link.approachedInternal())) {
+                    addInternalLanes(link.approachedInternal(), lanesById, internalIds);
+                }
+            }
+        }
+        selectedIds.addAll(internalIds);
+
+        return lanes.stream()
+            .filter(lane -> selectedIds.contains(lane.id()))
+            .toList();
+    }
+
+    /**
+     * Adds the given internal lane and every internal lane following it within the same junction (e.g. behind an
+     * internal junction) to the given set.
+     */
+    private static void addInternalLanes(String internalLaneId, Map<String, SubscribedEntity> lanesById,
+                                         Set<String> internalIds) {
+        Deque<String> pending = new ArrayDeque<>(List.of(internalLaneId));
+        while (!pending.isEmpty()) {
+            String laneId = pending.pop();
+            SubscribedEntity lane = lanesById.get(laneId);
+            if (lane == null || !internalIds.add(laneId)) continue;
+
+            for (LaneData.Link link : linksOf(lane)) {
+                if (isInternal(link.approachedInternal())) pending.push(link.approachedInternal());
+                if (isInternal(link.approachedLane())) pending.push(link.approachedLane());
+            }
+        }
+    }
+
+    /**
+     * Selects every edge which at least one of the selected lanes belongs to.
+     */
+    private static List<SubscribedEntity> selectEdges(List<SubscribedEntity> edges, List<SubscribedEntity> selectedLanes) {
+        Set<String> edgeIds = new HashSet<>();
+        selectedLanes.forEach(lane -> edgeIds.add(edgeIdOf(lane)));
+
+        return edges.stream()
+            .filter(edge -> edgeIds.contains(edge.id()))
+            .toList();
+    }
+
+    /**
+     * Selects every junction whose shape intersects the area of the region of interest or which connects one of the
+     * explicitly listed edges.
+     */
+    private List<SubscribedEntity> selectJunctions(List<SubscribedEntity> junctions, List<SubscribedEntity> selectedEdges) {
+        Set<String> junctionIds = new HashSet<>(regionOfInterest.selectShapes(
+            RegionOfInterest.indexShapes(junctions, JunctionMapper.Fields.SHAPE.sumoPropertyId)));
+        for (SubscribedEntity edge : selectedEdges) {
+            if (regionOfInterest.containsEdge(edge.id())) {
+                junctionIds.add(Edge.getFromJunction(edge.id()));
+                junctionIds.add(Edge.getToJunction(edge.id()));
+            }
+        }
+
+        return junctions.stream()
+            .filter(junction -> junctionIds.contains(junction.id()))
+            .toList();
+    }
+
+    private static String edgeIdOf(SubscribedEntity lane) {
+        return SumoMapper.asString(lane.properties().get(LaneMapper.TopologyFields.EDGE_ID.sumoPropertyId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<LaneData.Link> linksOf(SubscribedEntity lane) {
+        return lane.properties().get(LaneMapper.TopologyFields.LINKS.sumoPropertyId) instanceof List<?> links
+            ? (List<LaneData.Link>) links
+            : List.of();
+    }
+
+    /**
+     * Internal lanes (and edges) of junctions are prefixed with a colon by SUMO.
+     */
+    private static boolean isInternal(String laneId) {
+        return laneId != null && laneId.startsWith(":");
+    }
+
+    /**
+     * Reads the given properties of every given entity exactly once by subscribing to them, which makes SUMO deliver
+     * their current values immediately, and removing the subscription right afterwards.
+     */
+    private static List<SubscribedEntity> readOnce(List<String> ids, Set<Integer> properties,
+                                                   BiConsumer<String, IntVector> subscribe,
+                                                   Function<String, TraCIResults> results,
+                                                   Consumer<String> unsubscribe) {
+        IntVector propertyVector = new IntVector(properties);
+        List<SubscribedEntity> entities = new ArrayList<>(ids.size());
+
+        for (String id : ids) {
+            subscribe.accept(id, propertyVector);
+            entities.add(SubscribedEntity.of(id, results.apply(id)));
+            unsubscribe.accept(id);
+        }
+
+        return entities;
+    }
+
+    /**
+     * Filters the given IDs for the ones not contained in the set of known IDs and adds them to this set.
+     */
+    private static List<String> newIds(List<String> ids, Set<String> knownIds) {
+        return ids.stream()
+            .filter(knownIds::add)
+            .toList();
+    }
+
+
+    /**
+     * Plain Java copies of the static properties of every network element read by the latest harvest.
+     */
+    private record Harvest(
+        List<SubscribedEntity> lanes,
+        List<SubscribedEntity> edges,
+        List<SubscribedEntity> junctions,
+        List<SubscribedEntity> routes,
+        List<SubscribedEntity> vehicleTypes
+    ) {
+        static final Harvest EMPTY = new Harvest(List.of(), List.of(), List.of(), List.of(), List.of());
+
+        boolean isEmpty() {
+            return lanes.isEmpty() && edges.isEmpty() && junctions.isEmpty() && routes.isEmpty() && vehicleTypes.isEmpty();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package at.fhv.transflow.simulation.sumo;
 import org.eclipse.sumo.libsumo.Simulation;
 import org.eclipse.sumo.libsumo.StringVector;
 
+import java.nio.file.Path;
 import java.util.Iterator;
 import java.util.Locale;
 
@@ -69,6 +70,24 @@ public class SumoSimulation implements Iterable<SumoStep>, AutoCloseable {
         return stepIterator.setCurrentMillis(targetStep);
     }
 
+    /**
+     * Saves the complete state of the SUMO simulation at the current step to the given file.
+     * @param stateFile The file to write, which is compressed if its name ends with {@code .gz}.
+     */
+    public void saveState(Path stateFile) {
+        Simulation.saveState(stateFile.toString());
+    }
+
+    /**
+     * Restores a state previously saved by {@link #saveState(Path)} and continues the simulation from there.
+     * Any subscriptions have to be renewed afterwards.
+     * @return The {@link SumoStep} of the restored state. The next step continues from this one.
+     */
+    public SumoStep loadState(Path stateFile) {
+        double stateTime = Simulation.loadState(stateFile.toString());
+        return stepIterator.resumeAt((int) Math.round(stateTime * 1000));
+    }
+
     @Override
     public void close() {
         Simulation.close();
@@ -138,6 +157,11 @@ public class SumoSimulation implements Iterable<SumoStep>, AutoCloseable {
             return new SumoStep(getCurrentMillis());
         }
 
+        public SumoStep resumeAt(int millis) {
+            currentMillis = millis;
+            return new SumoStep(getCurrentMillis());
+        }
+
         public SumoStep executeSteps(int numberOfSteps) {
             currentMillis += stepMillis * numberOfSteps;
             Simulation.step(currentMillis / 1000.0); // let SUMO perform the step
@@ -4,17 +4,32 @@ import at.fhv.transflow.simulation.sumo.data.*;
 import at.fhv.transflow.simulation.sumo.mapping.*;
 import org.eclipse.sumo.libsumo.*;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 import java.util.stream.Stream;
 
 
 /**
  * Represents a single time step of a running SUMO traffic simulation. Provides a simple API to query previously subscribed
- * simulation metrics such as {@link #getVehicleData()}.
+ * simulation metrics such as {@link #getVehicleData()}.<br>
+ * <br>
+ * Processing a step happens in two phases:
+ * <ol>
+ *   <li>{@link #harvest(IdDictionaries, Set, boolean)} copies every subscription result out of SUMO into primitive columns
+ *   and reads the vehicle events of the step.
+ *   This is the only phase calling into libsumo and therefore has to be executed by the thread controlling
+ *   the simulation.</li>
+ *   <li>The {@code getXxxData()} methods map the harvested values to DTOs in parallel, while the
+ *   {@code getXxxSnapshot()} methods provide direct access to the columns. They never touch native code
+ *   and may be called from any thread, even after SUMO has already advanced to later steps.</li>
+ * </ol>
  */
 public class SumoStep {
     private final int currentMillis;
+    private Harvest harvest;
 
     public SumoStep(int simulationTimeMillis) {
         this.currentMillis = simulationTimeMillis;
@@ -32,92 +47,138 @@ public class SumoStep {
         return Vehicle.getIDCount();
     }
 
-    public Stream<VehicleData> getVehicleData() {
-        SubscriptionResults allResults = Vehicle.getAllSubscriptionResults();
-
-        return allResults.entrySet().stream().parallel()
-            .map(resultsPerId -> {
-                Map<Integer, String> properties = extractPropertyMap(resultsPerId);
-                return VehicleMapper.createVehicleData(resultsPerId.getKey(), extractPropertyMap(resultsPerId));
-            });
+    /**
+     * Copies the subscription results of the given dynamic SUMO domains for this step into {@link ColumnarSnapshot
+     * columnar snapshots}. Static network data is not part of a step but harvested once by {@link SumoNetwork} instead.
+     * Must be called by the single thread which also advances the simulation and before any of the {@code getXxxData()}
+     * methods. Calling this method more than once has no effect.
+     * @param dictionaries The dictionaries encoding the IDs of every entity and every entity referenced by another
+     *                     entity throughout the simulation run.
+     * @param domainTopics The domains to harvest ({@code vehicles}, {@code lanes}, {@code edges} and/or {@code events}).
+     *                     The results of every other domain are not copied out of SUMO at all and remain empty in
+     *                     this step.
+     * @param vehiclesByContext True if vehicles are collected by context subscriptions of the edges inside a
+     *                          {@link RegionOfInterest} instead of being subscribed individually.
+     * @return This step for convenient chaining.
+     */
+    public SumoStep harvest(IdDictionaries dictionaries, Set<String> domainTopics, boolean vehiclesByContext) {
+        if (harvest != null) return this;
+
+        harvest = new Harvest(
+            domainTopics.contains("vehicles")
+                ? ColumnarSnapshot.of(vehiclesByContext ? vehicleContextResults() : Vehicle.getAllSubscriptionResults(),
+                    dictionaries.vehicles(), dictionaries.vehicleReferences())
+                : ColumnarSnapshot.EMPTY,
+            domainTopics.contains("edges")
+                ? ColumnarSnapshot.of(Edge.getAllSubscriptionResults(), dictionaries.edges(), dictionaries.edgeReferences())
+                : ColumnarSnapshot.EMPTY,
+            domainTopics.contains("lanes")
+                ? ColumnarSnapshot.of(Lane.getAllSubscriptionResults(), dictionaries.lanes(), dictionaries.laneReferences())
+                : ColumnarSnapshot.EMPTY,
+            domainTopics.contains("events") ? readEvents(dictionaries) : List.of()
+        );
+
+        return this;
     }
 
-    public Stream<VehicleTypeData> getVehicleTypeData() {
-        SubscriptionResults allResults = VehicleType.getAllSubscriptionResults();
-
-        return allResults.entrySet().stream().parallel()
-            .map(resultsPerId -> {
-                Map<Integer, String> properties = extractPropertyMap(resultsPerId);
-                return VehicleTypeMapper.createVehicleData(resultsPerId.getKey(), properties);
-            });
+    public Stream<VehicleData> getVehicleData() {
+        return harvested().vehicles().mapParallel(VehicleMapper::createVehicleData);
     }
 
     public Stream<EdgeData> getEdgeData() {
-        SubscriptionResults allResults = Edge.getAllSubscriptionResults();
+        return harvested().edges().mapParallel(EdgeMapper::createEdgeData);
+    }
 
-        return allResults.entrySet().stream().parallel()
-            .map(resultsPerId -> {
-                Map<Integer, String> properties = extractPropertyMap(resultsPerId);
-                return EdgeMapper.createEdgeData(resultsPerId.getKey(), properties);
-            });
+    public Stream<LaneData> getLaneData() {
+        return harvested().lanes().mapParallel(LaneMapper::createLaneData);
     }
 
-    public Stream<RouteData> getRouteData() {
-        SubscriptionResults allResults = Route.getAllSubscriptionResults();
+    /**
+     * Returns the events of this step in the order departures, arrivals, teleports, collisions and emergency stops.
+     */
+    public List<EventData> getEventData() {
+        return harvested().events();
+    }
 
-        return allResults.entrySet().stream().parallel()
-            .map(resultsPerId -> {
-                Map<Integer, String> properties = extractPropertyMap(resultsPerId);
-                return RouteMapper.createRouteData(resultsPerId.getKey(), properties);
-            });
+    public ColumnarSnapshot getVehicleSnapshot() {
+        return harvested().vehicles();
     }
 
-    public Stream<LaneData> getLaneData() {
-        SubscriptionResults allResults = Lane.getAllSubscriptionResults();
+    public ColumnarSnapshot getEdgeSnapshot() {
+        return harvested().edges();
+    }
 
-        return allResults.entrySet().stream().parallel()
-            .map(resultsPerId -> {
-                Map<Integer, String> properties = extractPropertyMap(resultsPerId);
+    public ColumnarSnapshot getLaneSnapshot() {
+        return harvested().lanes();
+    }
 
-                // add some extra values that cannot be subscribed
-                StringVector laneChangePermsLeft = Lane.getChangePermissions(resultsPerId.getKey(), Constants.LANECHANGE_LEFT);
-                StringVector laneChangePermsRight = Lane.getChangePermissions(resultsPerId.getKey(), Constants.LANECHANGE_RIGHT);
-                properties.put(LaneMapper.ExtraFields.LANE_CHANGE_ALLOWED_LEFT.id, laneChangePermsLeft.toString());
-                properties.put(LaneMapper.ExtraFields.LANE_CHANGE_ALLOWED_RIGHT.id, laneChangePermsRight.toString());
 
-                TraCIConnectionVector links = Lane.getLinks(resultsPerId.getKey());
+    /**
+     * Reads every vehicle event SUMO has reported for this step. SUMO only reports the events of the last step it
+     * performed, which is why events cannot be published with a step increment greater than 1. The IDs of the vehicles and lanes involved
+     * are encoded, so that events can be published with encoded IDs as well.
+     */
+    private static List<EventData> readEvents(IdDictionaries dictionaries) {
+        List<EventData> events = new ArrayList<>();
+        addEvents(events, Simulation.getDepartedIDList(), EventData.EventType.DEPARTURE);
+        addEvents(events, Simulation.getArrivedIDList(), EventData.EventType.ARRIVAL);
+        addEvents(events, Simulation.getStartingTeleportIDList(), EventData.EventType.TELEPORT_START);
+        addEvents(events, Simulation.getEndingTeleportIDList(), EventData.EventType.TELEPORT_END);
+
+        for (TraCICollision collision : Simulation.getCollisions()) {
+            events.add(new EventData(
+                collision.getCollider(),
+                EventData.EventType.COLLISION,
+                collision.getVictim(),
+                collision.getLane(),
+                collision.getPos(),
+                collision.getColliderSpeed(),
+                collision.getVictimSpeed(),
+                collision.getType()
+            ));
+        }
+        addEvents(events, Simulation.getEmergencyStoppingVehiclesIDList(), EventData.EventType.EMERGENCY_STOP);
+
+        for (EventData event : events) {
+            dictionaries.vehicles().encodeReferences(event.id());
+            dictionaries.vehicles().encodeReferences(event.otherVehicleId());
+            dictionaries.lanes().encodeReferences(event.laneId());
+        }
+        return events;
+    }
 
-                return LaneMapper.createLaneData(resultsPerId.getKey(), properties, links);
-            });
+    private static void addEvents(List<EventData> events, List<String> vehicleIds, EventData.EventType type) {
+        for (String vehicleId : vehicleIds) {
+            events.add(new EventData(vehicleId, type));
+        }
     }
 
-    public Stream<JunctionData> getJunctionData() {
-        SubscriptionResults allResults = Junction.getAllSubscriptionResults();
+    /**
+     * Merges the vehicles found by the context subscriptions of every edge into the results of a single domain.
+     */
+    private static Map<String, TraCIResults> vehicleContextResults() {
+        Map<String, TraCIResults> vehicles = new LinkedHashMap<>();
+        // a vehicle changing edges during this step is reported once only
+        Edge.getAllContextSubscriptionResults().values().forEach(vehicles::putAll);
+        return vehicles;
+    }
 
-        return allResults.entrySet().stream().parallel()
-            .map(resultsPerId -> {
-                Map<Integer, String> properties = extractPropertyMap(resultsPerId);
-                return JunctionMapper.createJunctionData(resultsPerId.getKey(), properties);
-            });
+    private Harvest harvested() {
+        if (harvest == null) {
+            throw new IllegalStateException("Simulation step " + currentMillis + " has not been harvested yet!");
+        }
+        return harvest;
     }
 
 
     /**
-     * Takes in a single {@link Map.Entry} of {@link TraCIResults} as the value (containing the subscription
-     * values related to a specific entity) and the ID of the related SUMO entity as the key. This method
-     * then returns a new {@link Map} of all properties included in the TraCIResults with the respective property's
-     * integer identifier as the key and the String representation of the property's value as the map's value.
-     * @param entry {@link Map.Entry} of subscription results for a single SUMO entity.
-     * @return A {@link Map Map&lt;Integer, String&gt;} of every property found in the given {@link TraCIResults}.
-     * The map's keys contain each property's integer identifier and the map's values contain the String representation
-     * of the respective property's value.
+     * Columnar copies of the subscription results of every dynamic SUMO domain in this step.
      */
-    private Map<Integer, String> extractPropertyMap(Map.Entry<String, TraCIResults> entry) {
-        // create a new map without the nasty TraCIResult type as value
-        return entry.getValue().entrySet().stream().parallel()
-            .collect(Collectors.toMap(
-                Map.Entry::getKey,
-                property -> property.getValue().getString() // get string value of TraCIResult
-            ));
+    private record Harvest(
+        ColumnarSnapshot vehicles,
+        ColumnarSnapshot edges,
+        ColumnarSnapshot lanes,
+        List<EventData> events
+    ) {
     }
-}
\ No newline at end of file
+}
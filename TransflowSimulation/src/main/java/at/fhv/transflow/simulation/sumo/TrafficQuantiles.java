@@ -0,0 +1,203 @@
+package at.fhv.transflow.simulation.sumo;
+
+import at.fhv.transflow.simulation.sumo.mapping.VehicleMapper;
+
+import java.util.*;
+
+
+/**
+ * Estimates the quantiles of traffic metrics per edge and lane from the vehicles driving on them, so that the tails of
+ * their distributions (e.g. the congested part of the traffic) are published without sending every vehicle sample.
+ * The metrics of edges are
+ * <ul>
+ *   <li>{@code SPEED}: the speed of every vehicle on the edge in every step,</li>
+ *   <li>{@code TRAVEL_TIME}: the time a vehicle needed to pass the edge, recorded as soon as it has left the edge and</li>
+ *   <li>{@code TIME_LOSS}: the time a vehicle lost on the edge compared to driving at its desired speed.</li>
+ * </ul>
+ * Lanes only provide the {@code SPEED} metric. If the collection starts in the middle of a simulation run (i.e. after
+ * a warm-up or when resuming a run), vehicles already driving on an edge in the first step are not taken into account
+ * for the travel time and time loss of this edge.<br>
+ * <br>
+ * The quantiles are estimated over the same windows as the {@link WindowAggregator aggregates} of lanes and edges.
+ * The state of vehicles and edges is kept in arrays indexed by their {@link IdDictionary} codes, which grow on demand.
+ * This class is not thread-safe. Steps have to be added by a single thread in order.
+ */
+public class TrafficQuantiles {
+    // the vehicle fields which the metrics are computed from
+    public static final Set<String> VEHICLE_FIELDS = Set.of(
+        VehicleMapper.Fields.SPEED.name(),
+        VehicleMapper.Fields.ROAD_ID.name(),
+        VehicleMapper.Fields.LANE.name(),
+        VehicleMapper.Fields.TOTAL_TIME_LOSS.name()
+    );
+    private static final int SPEED = 0;
+    private static final int TRAVEL_TIME = 1;
+    private static final int TIME_LOSS = 2;
+    private final QuantileAggregator edges;
+    private final QuantileAggregator lanes;
+    private final IdDictionary edgeDictionary;
+    private final IdDictionary laneDictionary;
+    // lane codes by edge code and lane index, -1 for unknown lanes
+    private int[][] laneCodes = new int[0][];
+    // the edge every vehicle has been driving on in the previous step by the vehicle's code
+    private final EdgeVisits visits = new EdgeVisits();
+    // true if vehicles of the first step may have entered their edges before the collection started
+    private final boolean startsMidRun;
+    private long stepNumber = 0;
+
+    /**
+     * @param windowMillis The length of a window in milliseconds of simulation time.
+     * @param slideMillis  The time between the start of two consecutive windows in milliseconds of simulation time.
+     * @param dictionaries The dictionaries which the IDs of the vehicles' roads have been encoded with.
+     * @param startsMidRun True if the collection starts in the middle of a simulation run, e.g. after a warm-up, so
+     *                     that the vehicles of the first step have not necessarily just entered their edges.
+     */
+    public TrafficQuantiles(int windowMillis, int slideMillis, IdDictionaries dictionaries, boolean startsMidRun) {
+        this.edges = new QuantileAggregator(windowMillis, slideMillis, "SPEED", "TRAVEL_TIME", "TIME_LOSS");
+        this.lanes = new QuantileAggregator(windowMillis, slideMillis, "SPEED");
+        this.edgeDictionary = dictionaries.edges();
+        this.laneDictionary = dictionaries.lanes();
+        this.startsMidRun = startsMidRun;
+    }
+
+
+    /**
+     * Adds the vehicles of a simulation step to the distributions of the edges and lanes they are driving on.
+     * @param stepMillis The simulation time of the step in milliseconds.
+     * @param vehicles   The snapshot of every vehicle in this step.
+     * @param encodeIds  True if edges and lanes are referred to by their {@link IdDictionary} codes in the payloads.
+     * @return The payload (see {@link QuantileAggregator#toPayload(QuantileAggregator.Window, java.util.function.IntFunction)})
+     * of every window completed by this step by its domain topic ({@code edges} and {@code lanes}).
+     */
+    public Map<String, Map<String, Object>> add(int stepMillis, ColumnarSnapshot vehicles, boolean encodeIds) {
+        Map<String, Map<String, Object>> payloads = new HashMap<>();
+        edges.startStep(stepMillis).ifPresent(window ->
+            payloads.put("edges", edges.toPayload(window, code -> encodeIds ? code : edgeDictionary.decode(code))));
+        lanes.startStep(stepMillis).ifPresent(window ->
+            payloads.put("lanes", lanes.toPayload(window, code -> encodeIds ? code : laneDictionary.decode(code))));
+
+        ColumnarSnapshot.Column roads = vehicles.column(VehicleMapper.Fields.ROAD_ID.sumoPropertyId);
+        ColumnarSnapshot.Column speeds = vehicles.column(VehicleMapper.Fields.SPEED.sumoPropertyId);
+        ColumnarSnapshot.Column laneIndices = vehicles.column(VehicleMapper.Fields.LANE.sumoPropertyId);
+        ColumnarSnapshot.Column timeLosses = vehicles.column(VehicleMapper.Fields.TOTAL_TIME_LOSS.sumoPropertyId);
+        if (roads == null) return payloads;
+
+        for (int row = 0; row < vehicles.rowCount(); row++) {
+            if (!(roads.get(row) instanceof String roadId)) continue;
+            int edgeCode = edgeDictionary.codeOf(roadId);
+            if (edgeCode < 0) continue;
+
+            if (speeds instanceof ColumnarSnapshot.DoubleColumn speedColumn && !speedColumn.isNull(row)) {
+                double speed = speedColumn.getDouble(row);
+                edges.add(edgeCode, SPEED, speed);
+
+                if (laneIndices instanceof ColumnarSnapshot.IntColumn laneColumn && !laneColumn.isNull(row)) {
+                    int laneCode = laneCode(edgeCode, roadId, laneColumn.getInt(row));
+                    if (laneCode >= 0) lanes.add(laneCode, SPEED, speed);
+                }
+            }
+
+            double timeLoss = timeLosses instanceof ColumnarSnapshot.DoubleColumn timeLossColumn
+                && !timeLossColumn.isNull(row) ? timeLossColumn.getDouble(row) : Double.NaN;
+            trackVisit(vehicles.idCode(row), edgeCode, stepMillis, timeLoss);
+        }
+
+        stepNumber++;
+        return payloads;
+    }
+
+    /**
+     * Completes the windows which are still open at the end of a simulation run.
+     * @param encodeIds True if edges and lanes are referred to by their {@link IdDictionary} codes in the payloads.
+     * @return The payload of every completed window by its domain topic ({@code edges} and {@code lanes}).
+     */
+    public Map<String, Map<String, Object>> finish(boolean encodeIds) {
+        Map<String, Map<String, Object>> payloads = new HashMap<>();
+        edges.finish().ifPresent(window ->
+            payloads.put("edges", edges.toPayload(window, code -> encodeIds ? code : edgeDictionary.decode(code))));
+        lanes.finish().ifPresent(window ->
+            payloads.put("lanes", lanes.toPayload(window, code -> encodeIds ? code : laneDictionary.decode(code))));
+        return payloads;
+    }
+
+
+    /**
+     * Records the travel time and time loss of a vehicle on the edge it has been driving on before, if it has
+     * just changed edges.
+     */
+    private void trackVisit(int vehicleCode, int edgeCode, int stepMillis, double timeLoss) {
+        visits.ensureCapacity(vehicleCode);
+        // vehicles which have been missing from the previous step (i.e. which have arrived or left the region of
+        // interest in the meantime) are not tracked any longer
+        if (visits.lastSeenSteps[vehicleCode] != stepNumber - 1) {
+            // a vehicle seen for the first time has just departed, unless it has been driving before the collection started
+            visits.enter(vehicleCode, edgeCode, stepMillis, timeLoss, stepNumber > 0 || !startsMidRun);
+        } else if (visits.edgeCodes[vehicleCode] != edgeCode) {
+            if (visits.complete.get(vehicleCode)) {
+                int visitedEdgeCode = visits.edgeCodes[vehicleCode];
+                edges.add(visitedEdgeCode, TRAVEL_TIME, (stepMillis - visits.enteredMillis[vehicleCode]) / 1000.0);
+                double enteredTimeLoss = visits.enteredTimeLosses[vehicleCode];
+                if (!Double.isNaN(timeLoss) && !Double.isNaN(enteredTimeLoss)) {
+                    edges.add(visitedEdgeCode, TIME_LOSS, timeLoss - enteredTimeLoss);
+                }
+            }
+            visits.enter(vehicleCode, edgeCode, stepMillis, timeLoss, true);
+        }
+        visits.lastSeenSteps[vehicleCode] = stepNumber;
+    }
+
+    /**
+     * Looks up the code of a lane, whose ID consists of its edge's ID and its index on the edge.
+     */
+    private int laneCode(int edgeCode, String edgeId, int laneIndex) {
+        if (edgeCode >= laneCodes.length) {
+            laneCodes = Arrays.copyOf(laneCodes, Math.max(edgeCode + 1, laneCodes.length * 2));
+        }
+        int[] codes = laneCodes[edgeCode];
+        if (codes == null || laneIndex >= codes.length) {
+            int[] grown = new int[laneIndex + 1];
+            Arrays.fill(grown, -2);
+            if (codes != null) System.arraycopy(codes, 0, grown, 0, codes.length);
+            codes = grown;
+            laneCodes[edgeCode] = codes;
+        }
+        if (codes[laneIndex] == -2) {
+            codes[laneIndex] = laneDictionary.codeOf(edgeId + "_" + laneIndex);
+        }
+        return codes[laneIndex];
+    }
+
+
+    /**
+     * The edge every vehicle is currently driving on along with the time and time loss of the vehicle when entering
+     * it, indexed by the vehicle's code.
+     */
+    private static class EdgeVisits {
+        private int[] edgeCodes = new int[0];
+        private int[] enteredMillis = new int[0];
+        private double[] enteredTimeLosses = new double[0];
+        // the step a vehicle has been seen in the last time, Long.MIN_VALUE for vehicles which have never been seen
+        private long[] lastSeenSteps = new long[0];
+        // cleared if the vehicle has already been driving on the edge when the collection started
+        private final BitSet complete = new BitSet();
+
+        void enter(int vehicleCode, int edgeCode, int enteredMillis, double enteredTimeLoss, boolean complete) {
+            this.edgeCodes[vehicleCode] = edgeCode;
+            this.enteredMillis[vehicleCode] = enteredMillis;
+            this.enteredTimeLosses[vehicleCode] = enteredTimeLoss;
+            this.complete.set(vehicleCode, complete);
+        }
+
+        void ensureCapacity(int vehicleCode) {
+            if (vehicleCode < lastSeenSteps.length) return;
+
+            int capacity = Math.max(vehicleCode + 1, lastSeenSteps.length * 2);
+            edgeCodes = Arrays.copyOf(edgeCodes, capacity);
+            enteredMillis = Arrays.copyOf(enteredMillis, capacity);
+            enteredTimeLosses = Arrays.copyOf(enteredTimeLosses, capacity);
+            int seenCount = lastSeenSteps.length;
+            lastSeenSteps = Arrays.copyOf(lastSeenSteps, capacity);
+            Arrays.fill(lastSeenSteps, seenCount, capacity, Long.MIN_VALUE);
+        }
+    }
+}
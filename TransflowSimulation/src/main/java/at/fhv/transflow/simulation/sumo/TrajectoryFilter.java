@@ -0,0 +1,147 @@
+package at.fhv.transflow.simulation.sumo;
+
+import at.fhv.transflow.simulation.sumo.mapping.VehicleMapper;
+
+import java.util.*;
+
+
+/**
+ * Simplifies the trajectories of vehicles for publishing by dead reckoning, so that a vehicle driving straight at
+ * a constant speed is not published in every step. The position of a vehicle is extrapolated linearly from its last
+ * two published positions (or held at its only published position), which subscribers are able to reproduce. A vehicle
+ * is only published again once its actual position deviates from the extrapolated one by more than a tolerance.
+ * Subscribers may interpolate the positions in between.<br>
+ * <br>
+ * Regardless of its deviation, a vehicle is always published
+ * <ul>
+ *   <li>in the first step it is seen, e.g. on departure,</li>
+ *   <li>in every step without a valid position and</li>
+ *   <li>on arrival: once a vehicle is missing from a step, its last state is added to this step, unless it has
+ *   already been published. Within a {@link RegionOfInterest}, this is also the case once it has left the region.</li>
+ * </ul>
+ * Only the state of the last published position is kept per vehicle, which is removed once the vehicle has arrived.
+ * {@link #filter(int, ColumnarSnapshot)} has to be called by a single thread for every published step in order.
+ */
+public class TrajectoryFilter {
+    // the vehicle fields which trajectories are simplified by
+    public static final Set<String> VEHICLE_FIELDS = Set.of(VehicleMapper.Fields.POSITION.name());
+    private final double tolerance;
+    // the trajectories of every vehicle currently driving by the vehicle's code
+    private final Map<Integer, Track> tracks = new HashMap<>();
+    private ColumnarSnapshot previousVehicles = ColumnarSnapshot.EMPTY;
+    private long stepNumber = 0;
+
+    /**
+     * @param tolerance The maximum distance in meters between the actual and the extrapolated position of a vehicle
+     *                  before the vehicle is published again.
+     */
+    public TrajectoryFilter(double tolerance) {
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("Tolerance must be a positive number of meters! Given: " + tolerance);
+        }
+        this.tolerance = tolerance;
+    }
+
+
+    /**
+     * Selects the vehicles of a simulation step which are to be published and remembers their positions as the last
+     * published ones.
+     * @param stepMillis The simulation time of the step in milliseconds.
+     * @param vehicles   The snapshot of every vehicle in this step.
+     * @return A snapshot of the vehicles to publish, followed by the last state of every vehicle which has arrived
+     * since the previous call without having been published in its last step.
+     */
+    public ColumnarSnapshot filter(int stepMillis, ColumnarSnapshot vehicles) {
+        ColumnarSnapshot.PositionColumn positions =
+            vehicles.column(VehicleMapper.Fields.POSITION.sumoPropertyId) instanceof ColumnarSnapshot.PositionColumn column
+                ? column
+                : null;
+
+        int[] publishedRows = new int[vehicles.rowCount()];
+        int publishedCount = 0;
+        for (int row = 0; row < vehicles.rowCount(); row++) {
+            boolean valid = positions != null && !positions.isNull(row)
+                && !Double.isNaN(positions.getX(row)) && !Double.isNaN(positions.getY(row));
+            double x = valid ? positions.getX(row) : Double.NaN;
+            double y = valid ? positions.getY(row) : Double.NaN;
+
+            Track track = tracks.get(vehicles.idCode(row));
+            boolean publish;
+            if (track == null) {
+                track = new Track();
+                tracks.put(vehicles.idCode(row), track);
+                publish = true;
+            } else {
+                publish = !valid || !track.positioned || track.deviation(stepMillis, x, y) > tolerance;
+            }
+
+            if (publish) {
+                track.publish(stepMillis, x, y, valid);
+                publishedRows[publishedCount++] = row;
+            }
+            track.lastSeenStep = stepNumber;
+            track.lastRow = row;
+            track.lastRowPublished = publish;
+        }
+
+        // vehicles missing from this step have arrived, so their last state is published unless it already has been
+        int[] arrivedRows = new int[tracks.size()];
+        int arrivedCount = 0;
+        Iterator<Track> driving = tracks.values().iterator();
+        while (driving.hasNext()) {
+            Track track = driving.next();
+            if (track.lastSeenStep == stepNumber) continue;
+
+            driving.remove();
+            if (!track.lastRowPublished) {
+                arrivedRows[arrivedCount++] = track.lastRow;
+            }
+        }
+
+        ColumnarSnapshot published = ColumnarSnapshot.gather(
+            new ColumnarSnapshot[]{vehicles, previousVehicles},
+            new int[][]{Arrays.copyOf(publishedRows, publishedCount), Arrays.copyOf(arrivedRows, arrivedCount)}
+        );
+        previousVehicles = vehicles;
+        stepNumber++;
+        return published;
+    }
+
+
+    /**
+     * The last published position and the velocity extrapolated from it for a single vehicle which is still driving.
+     */
+    private static class Track {
+        // false if the vehicle has not been published with a valid position since its last invalid one
+        private boolean positioned = false;
+        private int publishedMillis;
+        private double x;
+        private double y;
+        // velocity between the last two published positions in meters per second
+        private double velocityX;
+        private double velocityY;
+        private long lastSeenStep;
+        private int lastRow;
+        private boolean lastRowPublished;
+
+        double deviation(int stepMillis, double actualX, double actualY) {
+            double seconds = (stepMillis - publishedMillis) / 1000.0;
+            return Math.hypot(actualX - (x + velocityX * seconds), actualY - (y + velocityY * seconds));
+        }
+
+        void publish(int stepMillis, double newX, double newY, boolean valid) {
+            if (valid && positioned && stepMillis > publishedMillis) {
+                double seconds = (stepMillis - publishedMillis) / 1000.0;
+                velocityX = (newX - x) / seconds;
+                velocityY = (newY - y) / seconds;
+            } else {
+                velocityX = 0;
+                velocityY = 0;
+            }
+            positioned = valid;
+            publishedMillis = stepMillis;
+            x = newX;
+            y = newY;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package at.fhv.transflow.simulation.sumo;
+
+import at.fhv.transflow.simulation.sumo.data.TripData;
+import at.fhv.transflow.simulation.sumo.mapping.VehicleMapper;
+
+import java.util.*;
+
+
+/**
+ * Follows every vehicle from its departure until its arrival and records its trip incrementally, so that clients do not
+ * have to rebuild trips from the vehicles of every single step. A vehicle is considered to have arrived as soon as it is
+ * missing from the vehicles of a step (within a {@link RegionOfInterest}, this is also the case once it has left the
+ * region). Completed trips are counted in an origin-destination matrix between configurable zones, i.e. sets
+ * of edges.<br>
+ * <br>
+ * The state of a vehicle is removed once its trip has been completed, so memory only grows with the number of vehicles
+ * driving at the same time. Internal edges of junctions are never considered to be the start or end of a trip.
+ * If the tracking starts in the middle of a simulation run (i.e. after a warm-up or when resuming a run), vehicles
+ * already driving in the first step are not recorded, as their departure has been missed.<br>
+ * <br>
+ * This class is not thread-safe. Steps have to be added by a single thread in order.
+ */
+public class TripTracker {
+    // the vehicle fields which trips are recorded from
+    public static final Set<String> VEHICLE_FIELDS = Set.of(
+        VehicleMapper.Fields.ROAD_ID.name(),
+        VehicleMapper.Fields.TOTAL_DISTANCE.name(),
+        VehicleMapper.Fields.TOTAL_WAITING_TIME.name(),
+        VehicleMapper.Fields.TOTAL_TIME_LOSS.name()
+    );
+    private final IdDictionary vehicleDictionary;
+    private final IdDictionary edgeDictionary;
+    private final Map<String, String> zonesByEdge = new HashMap<>();
+    // number of completed trips by origin and destination zone
+    private final Map<String, Map<String, Integer>> odMatrix = new TreeMap<>();
+    // the trips of every vehicle currently driving by the vehicle's code
+    private final Map<Integer, Trip> trips = new HashMap<>();
+    // true if vehicles of the first step may have departed before the tracking started
+    private final boolean startsMidRun;
+    private long stepNumber = 0;
+
+    /**
+     * @param dictionaries The dictionaries which the IDs of vehicles and their roads have been encoded with.
+     * @param zones        The edge IDs of every zone by the zone's name. An edge must not belong to multiple zones.
+     * @param startsMidRun True if the tracking starts in the middle of a simulation run, e.g. after a warm-up, so
+     *                     that the vehicles of the first step have not necessarily departed in this step.
+     */
+    public TripTracker(IdDictionaries dictionaries, Map<String, Set<String>> zones, boolean startsMidRun) {
+        this.vehicleDictionary = dictionaries.vehicles();
+        this.edgeDictionary = dictionaries.edges();
+        this.startsMidRun = startsMidRun;
+
+        zones.forEach((zone, edgeIds) -> edgeIds.forEach(edgeId -> {
+            String previousZone = zonesByEdge.put(edgeId, zone);
+            if (previousZone != null && !previousZone.equals(zone)) {
+                throw new IllegalArgumentException("Edge " + edgeId + " belongs to zones " + previousZone + " and " + zone);
+            }
+        }));
+    }
+
+
+    /**
+     * Updates the trips of every vehicle driving in the given step and completes the trips of vehicles which have
+     * arrived since the previous step.
+     * @param stepMillis The simulation time of the step in milliseconds, which is taken as the arrival time.
+     * @param vehicles   The snapshot of every vehicle in this step.
+     * @return The trips completed in this step.
+     */
+    public List<TripData> add(int stepMillis, ColumnarSnapshot vehicles) {
+        ColumnarSnapshot.Column roads = vehicles.column(VehicleMapper.Fields.ROAD_ID.sumoPropertyId);
+        ColumnarSnapshot.Column distances = vehicles.column(VehicleMapper.Fields.TOTAL_DISTANCE.sumoPropertyId);
+        ColumnarSnapshot.Column waitingTimes = vehicles.column(VehicleMapper.Fields.TOTAL_WAITING_TIME.sumoPropertyId);
+        ColumnarSnapshot.Column timeLosses = vehicles.column(VehicleMapper.Fields.TOTAL_TIME_LOSS.sumoPropertyId);
+
+        for (int row = 0; row < vehicles.rowCount(); row++) {
+            Trip trip = trips.get(vehicles.idCode(row));
+            if (trip == null) {
+                // a vehicle seen for the first time has just departed, unless it has been driving before the tracking started
+                trip = new Trip(stepMillis, stepNumber > 0 || !startsMidRun);
+                trips.put(vehicles.idCode(row), trip);
+            }
+            trip.lastSeenStep = stepNumber;
+
+            if (roads != null && roads.get(row) instanceof String roadId && !roadId.startsWith(":")) {
+                int edgeCode = edgeDictionary.codeOf(roadId);
+                if (edgeCode >= 0) {
+                    if (trip.startEdgeCode < 0) trip.startEdgeCode = edgeCode;
+                    trip.endEdgeCode = edgeCode;
+                }
+            }
+            trip.distance = valueOf(distances, row, trip.distance);
+            trip.timeLoss = valueOf(timeLosses, row, trip.timeLoss);
+
+            // SUMO reports the waiting time since the vehicle stopped the last time, which is summed up per stop
+            double waitingTime = valueOf(waitingTimes, row, trip.currentWaitingTime);
+            if (waitingTime < trip.currentWaitingTime) {
+                trip.pastWaitingTime += trip.currentWaitingTime;
+            }
+            trip.currentWaitingTime = waitingTime;
+        }
+
+        List<TripData> completedTrips = new ArrayList<>();
+        Iterator<Map.Entry<Integer, Trip>> driving = trips.entrySet().iterator();
+        while (driving.hasNext()) {
+            Map.Entry<Integer, Trip> entry = driving.next();
+            Trip trip = entry.getValue();
+            if (trip.lastSeenStep == stepNumber) continue;
+
+            driving.remove();
+            if (trip.complete && trip.startEdgeCode >= 0) {
+                completedTrips.add(complete(entry.getKey(), trip, stepMillis));
+            }
+        }
+
+        stepNumber++;
+        return completedTrips;
+    }
+
+    /**
+     * Returns the number of trips completed so far by their origin and destination zone. Trips starting or ending
+     * outside any zone are not counted.
+     */
+    public Map<String, Map<String, Integer>> getOdMatrix() {
+        return odMatrix;
+    }
+
+
+    private TripData complete(int vehicleCode, Trip trip, int arrivalMillis) {
+        String startEdgeId = edgeDictionary.decode(trip.startEdgeCode);
+        String endEdgeId = edgeDictionary.decode(trip.endEdgeCode);
+        String originZone = zonesByEdge.get(startEdgeId);
+        String destinationZone = zonesByEdge.get(endEdgeId);
+
+        if (originZone != null && destinationZone != null) {
+            odMatrix.computeIfAbsent(originZone, zone -> new TreeMap<>()).merge(destinationZone, 1, Integer::sum);
+        }
+
+        return new TripData(
+            vehicleDictionary.decode(vehicleCode),
+            startEdgeId,
+            endEdgeId,
+            originZone,
+            destinationZone,
+            trip.departureMillis,
+            arrivalMillis,
+            trip.distance,
+            trip.pastWaitingTime + trip.currentWaitingTime,
+            trip.timeLoss
+        );
+    }
+
+    private static double valueOf(ColumnarSnapshot.Column column, int row, double defaultValue) {
+        return column instanceof ColumnarSnapshot.DoubleColumn doubleColumn && !doubleColumn.isNull(row)
+            ? doubleColumn.getDouble(row)
+            : defaultValue;
+    }
+
+
+    /**
+     * The state of the trip of a single vehicle which is still driving.
+     */
+    private static class Trip {
+        private final int departureMillis;
+        // false if the vehicle has already been driving when the tracking started
+        private final boolean complete;
+        private int startEdgeCode = -1;
+        private int endEdgeCode = -1;
+        private double distance = 0;
+        private double timeLoss = 0;
+        private double pastWaitingTime = 0;
+        private double currentWaitingTime = 0;
+        private long lastSeenStep;
+
+        Trip(int departureMillis, boolean complete) {
+            this.departureMillis = departureMillis;
+            this.complete = complete;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package at.fhv.transflow.simulation.sumo;
+
+import java.util.*;
+import java.util.function.IntFunction;
+
+
+/**
+ * Aggregates the numeric columns of a domain's {@link ColumnarSnapshot snapshots} (e.g. the mean speed of every lane)
+ * per entity over windows of simulation time. For every column, the mean, minimum and maximum of all values within
+ * a window as well as their total over time (the sum of every value multiplied by the simulation time it represents,
+ * e.g. the emitted milligrams of a rate in milligrams per second) are computed.<br>
+ * <br>
+ * Windows are aligned to multiples of the slide in simulation time and are tumbling if the slide equals the window
+ * length, otherwise sliding. Every step is only aggregated once into the pane (a tumbling window of the slide's length)
+ * it falls into, and every window is merged from the panes it covers as soon as its last pane is complete.<br>
+ * <br>
+ * Statistics are kept in arrays indexed by the {@link IdDictionary} codes of the entities, which grow on demand and are
+ * reset instead of reallocated once their pane has left the latest window. This class is not thread-safe. Snapshots have to be added by a single thread in the order of their steps.
+ */
+public class WindowAggregator {
+    // statistics kept per column: number of values, sum, minimum and maximum
+    private static final int STATS = 4;
+    private final PanedWindows<Pane> windows;
+    private final double sampleSeconds;
+    private final String[] columnNames;
+    // index of every aggregated column by its property ID, -1 for columns which are not aggregated
+    private final int[] columnIndices;
+    // statistics of the latest completed window by the entities' codes
+    private double[][] windowStats = new double[0][];
+    private final BitSet windowIdCodes = new BitSet();
+    // numeric columns of the snapshot which is currently added, along with their offset in the statistics
+    private final ColumnarSnapshot.Column[] addedColumns;
+    private final int[] addedOffsets;
+
+    /**
+     * @param windowMillis The length of a window in milliseconds of simulation time.
+     * @param slideMillis  The time between the start of two consecutive windows in milliseconds of simulation time.
+     *                     The window length must be a multiple of the slide.
+     * @param sampleMillis The simulation time represented by a single added snapshot in milliseconds.
+     * @param columnNames  The name of every column to aggregate by its property ID. Columns which are not numeric
+     *                     are ignored.
+     */
+    public WindowAggregator(int windowMillis, int slideMillis, int sampleMillis, Map<Integer, String> columnNames) {
+        this.windows = new PanedWindows<>(windowMillis, slideMillis, Pane::new, Pane::clear);
+        this.sampleSeconds = sampleMillis / 1000.0;
+
+        int[] propertyIds = columnNames.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        this.columnNames = new String[propertyIds.length];
+        this.columnIndices = new int[propertyIds.length > 0 ? propertyIds[propertyIds.length - 1] + 1 : 0];
+        Arrays.fill(columnIndices, -1);
+        for (int i = 0; i < propertyIds.length; i++) {
+            this.columnNames[i] = columnNames.get(propertyIds[i]);
+            columnIndices[propertyIds[i]] = i;
+        }
+        this.addedColumns = new ColumnarSnapshot.Column[propertyIds.length];
+        this.addedOffsets = new int[propertyIds.length];
+    }
+
+
+    /**
+     * Adds the snapshot of a simulation step to the pane it falls into.
+     * @param stepMillis The simulation time of the step in milliseconds.
+     * @param snapshot   The snapshot of the aggregated domain in this step.
+     * @return The window which has been completed by this step, if any. A window is completed by the first step
+     * after its end.
+     */
+    public Optional<Window> add(int stepMillis, ColumnarSnapshot snapshot) {
+        Optional<Window> completed = windows.startStep(stepMillis) ? Optional.of(complete()) : Optional.empty();
+        windows.currentPane().add(snapshot);
+        return completed;
+    }
+
+    /**
+     * Completes the window which is still open at the end of a simulation run, i.e. the window of the latest added
+     * snapshot, which would otherwise only be completed by a step following it.
+     * @return The completed window or an empty Optional if no snapshot has been added since the last completed window.
+     */
+    public Optional<Window> finish() {
+        return windows.finish() ? Optional.of(complete()) : Optional.empty();
+    }
+
+    /**
+     * Converts a window into a structure which any payload serializer is able to write:
+     * <pre>
+     * {
+     *   "windowStart": 0,
+     *   "windowEnd": 60000,
+     *   "entities": [
+     *     { "id": "lane0", "MEAN_VEHICLE_SPEED": { "mean": 12.1, "min": 0.0, "max": 13.9, "total": 726.0 }, ... },
+     *     ...
+     *   ]
+     * }
+     * </pre>
+     * Columns without any value within the window are omitted.
+     * @param window The window returned by the latest call of {@link #add(int, ColumnarSnapshot)} or {@link #finish()}.
+     * @param idOf   Maps the {@link IdDictionary} code of an entity to the ID written to the payload.
+     */
+    public Map<String, Object> toPayload(Window window, IntFunction<Object> idOf) {
+        List<Map<String, Object>> entities = new ArrayList<>(windowIdCodes.cardinality());
+
+        for (int idCode = windowIdCodes.nextSetBit(0); idCode >= 0; idCode = windowIdCodes.nextSetBit(idCode + 1)) {
+            double[] stats = windowStats[idCode];
+            Map<String, Object> entity = new LinkedHashMap<>();
+            entity.put("id", idOf.apply(idCode));
+
+            for (int column = 0; column < columnNames.length; column++) {
+                int offset = column * STATS;
+                double count = stats[offset];
+                if (count == 0) continue;
+
+                Map<String, Double> aggregates = new LinkedHashMap<>();
+                aggregates.put("mean", stats[offset + 1] / count);
+                aggregates.put("min", stats[offset + 2]);
+                aggregates.put("max", stats[offset + 3]);
+                aggregates.put("total", stats[offset + 1] * sampleSeconds);
+                entity.put(columnNames[column], aggregates);
+            }
+            entities.add(entity);
+        }
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("windowStart", window.startMillis());
+        payload.put("windowEnd", window.endMillis());
+        payload.put("entities", entities);
+        return payload;
+    }
+
+
+    /**
+     * Merges every pane of the window completed just now.
+     */
+    private Window complete() {
+        resetStats(windowStats, windowIdCodes);
+        for (Pane windowPane : windows.windowPanes()) {
+            BitSet idCodes = windowPane.idCodes;
+            for (int idCode = idCodes.nextSetBit(0); idCode >= 0; idCode = idCodes.nextSetBit(idCode + 1)) {
+                windowStats = ensureCapacity(windowStats, idCode);
+                if (windowStats[idCode] == null) windowStats[idCode] = newStats();
+                windowIdCodes.set(idCode);
+
+                double[] stats = windowPane.statsByIdCode[idCode];
+                for (int offset = 0; offset < stats.length; offset += STATS) {
+                    mergeStats(windowStats[idCode], offset,
+                        stats[offset], stats[offset + 1], stats[offset + 2], stats[offset + 3]);
+                }
+            }
+        }
+
+        return new Window(windows.windowStartMillis(), windows.windowEndMillis());
+    }
+
+    private double[] newStats() {
+        double[] stats = new double[columnNames.length * STATS];
+        resetStats(stats);
+        return stats;
+    }
+
+    private static void resetStats(double[] stats) {
+        for (int offset = 0; offset < stats.length; offset += STATS) {
+            stats[offset] = 0;
+            stats[offset + 1] = 0;
+            stats[offset + 2] = Double.POSITIVE_INFINITY;
+            stats[offset + 3] = Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Resets the statistics of every given entity and removes the entities from the set.
+     */
+    private static void resetStats(double[][] statsByIdCode, BitSet idCodes) {
+        for (int idCode = idCodes.nextSetBit(0); idCode >= 0; idCode = idCodes.nextSetBit(idCode + 1)) {
+            resetStats(statsByIdCode[idCode]);
+        }
+        idCodes.clear();
+    }
+
+    private static double[][] ensureCapacity(double[][] statsByIdCode, int idCode) {
+        if (idCode < statsByIdCode.length) return statsByIdCode;
+        return Arrays.copyOf(statsByIdCode, Math.max(idCode + 1, statsByIdCode.length * 2));
+    }
+
+    private static void mergeStats(double[] stats, int offset, double count, double sum, double min, double max) {
+        stats[offset] += count;
+        stats[offset + 1] += sum;
+        stats[offset + 2] = Math.min(stats[offset + 2], min);
+        stats[offset + 3] = Math.max(stats[offset + 3], max);
+    }
+
+
+    /**
+     * The time range of a completed window, whose statistics are kept by the aggregator until the next window has
+     * been completed.
+     * @param startMillis The start of the window in simulation time (inclusive).
+     * @param endMillis   The end of the window in simulation time (exclusive).
+     */
+    public record Window(long startMillis, long endMillis) {
+    }
+
+    /**
+     * Statistics of every entity within a tumbling window of the slide's length.
+     */
+    private class Pane {
+        private double[][] statsByIdCode = new double[0][];
+        // codes of the entities with statistics in this pane
+        private final BitSet idCodes = new BitSet();
+
+        void add(ColumnarSnapshot snapshot) {
+            int columnCount = 0;
+            for (Map.Entry<Integer, ColumnarSnapshot.Column> entry : snapshot.columns().entrySet()) {
+                int propertyId = entry.getKey();
+                ColumnarSnapshot.Column column = entry.getValue();
+                if (propertyId < columnIndices.length && columnIndices[propertyId] >= 0
+                    && (column instanceof ColumnarSnapshot.DoubleColumn || column instanceof ColumnarSnapshot.IntColumn)) {
+                    addedColumns[columnCount] = column;
+                    addedOffsets[columnCount++] = columnIndices[propertyId] * STATS;
+                }
+            }
+
+            for (int row = 0; row < snapshot.rowCount(); row++) {
+                int idCode = snapshot.idCode(row);
+                statsByIdCode = ensureCapacity(statsByIdCode, idCode);
+                if (statsByIdCode[idCode] == null) statsByIdCode[idCode] = newStats();
+                idCodes.set(idCode);
+                double[] stats = statsByIdCode[idCode];
+
+                for (int i = 0; i < columnCount; i++) {
+                    ColumnarSnapshot.Column column = addedColumns[i];
+                    if (column.isNull(row)) continue;
+
+                    double value = column instanceof ColumnarSnapshot.DoubleColumn doubleColumn
+                        ? doubleColumn.getDouble(row)
+                        : ((ColumnarSnapshot.IntColumn) column).getInt(row);
+                    mergeStats(stats, addedOffsets[i], 1, value, value, value);
+                }
+            }
+            Arrays.fill(addedColumns, 0, columnCount, null);
+        }
+
+        void clear() {
+            resetStats(statsByIdCode, idCodes);
+        }
+    }
+}
@@ -5,12 +5,11 @@ import java.util.Objects;
 
 /**
  * DTO for all data points of interest for a single road network edge at a given simulation step.
+ * The static properties of an edge are found in its {@link EdgeTopologyData} instead.
  */
 public record EdgeData(
     // tags
     String id,
-    Integer laneCount,
-    String streetName,
     // fields
     Double sumCo2MgPerSecond,
     Double sumCoMgPerSecond,
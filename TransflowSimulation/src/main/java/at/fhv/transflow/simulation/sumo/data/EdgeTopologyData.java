@@ -0,0 +1,17 @@
+package at.fhv.transflow.simulation.sumo.data;
+
+import java.util.Objects;
+
+
+/**
+ * DTO for the static properties of a single road network edge, which do not change during a simulation run.
+ */
+public record EdgeTopologyData(
+    String id,
+    Integer laneCount,
+    String streetName
+) implements SumoObject {
+    public EdgeTopologyData {
+        Objects.requireNonNull(id);
+    }
+}
@@ -0,0 +1,42 @@
+package at.fhv.transflow.simulation.sumo.data;
+
+import java.util.Objects;
+
+
+/**
+ * DTO for a single event which happened to a vehicle during a simulation step, e.g. its departure or a collision.
+ * Properties which do not apply to the event's type are null.
+ */
+public record EventData(
+    String id,
+    EventType type,
+    String otherVehicleId,
+    String laneId,
+    Double lanePosition,
+    Double speed,
+    Double otherVehicleSpeed,
+    String collisionType
+) implements SumoObject {
+    public EventData {
+        Objects.requireNonNull(id);
+        Objects.requireNonNull(type);
+    }
+
+    /**
+     * Creates an event which is fully described by its type and the vehicle it happened to.
+     */
+    public EventData(String vehicleId, EventType type) {
+        this(vehicleId, type, null, null, null, null, null, null);
+    }
+
+
+    public enum EventType {
+        DEPARTURE,
+        ARRIVAL,
+        TELEPORT_START,
+        TELEPORT_END,
+        // the vehicle is the collider, the other vehicle the victim
+        COLLISION,
+        EMERGENCY_STOP
+    }
+}
@@ -1,21 +1,14 @@
 package at.fhv.transflow.simulation.sumo.data;
 
-import java.util.List;
 import java.util.Objects;
 
 
 /**
  * DTO for all data points of interest for a single lane withing an edge of the road network at a given simulation step.
+ * The static properties of a lane are found in its {@link LaneTopologyData} instead.
  */
 public record LaneData(
     String id,
-    String edgeId,
-    String[] allowedVehicleTypes,
-    String[] disallowedVehicleTypes,
-    Double length,
-    Double width,
-    List<Double[]> shape,
-    Double maxSpeed,
     Double sumCo2MgPerSecond,
     Double sumCoMgPerSecond,
     Double sumHcMgPerSecond,
@@ -31,10 +24,7 @@ public record LaneData(
     Double meanVehicleLength,
     Double sumWaitingTime,
     Double currentTravelDuration,
-    Integer haltingVehiclesCount,
-    String[] laneChangeAllowedLeft,
-    String[] laneChangeAllowedRight,
-    List<Link> links
+    Integer haltingVehiclesCount
 ) implements SumoObject {
     public LaneData {
         Objects.requireNonNull(id);
@@ -0,0 +1,27 @@
+package at.fhv.transflow.simulation.sumo.data;
+
+import java.util.List;
+import java.util.Objects;
+
+
+/**
+ * DTO for the static properties of a single lane within an edge of the road network, which do not change
+ * during a simulation run.
+ */
+public record LaneTopologyData(
+    String id,
+    String edgeId,
+    String[] allowedVehicleTypes,
+    String[] disallowedVehicleTypes,
+    Double length,
+    Double width,
+    List<Double[]> shape,
+    Double maxSpeed,
+    String[] laneChangeAllowedLeft,
+    String[] laneChangeAllowedRight,
+    List<LaneData.Link> links
+) implements SumoObject {
+    public LaneTopologyData {
+        Objects.requireNonNull(id);
+    }
+}
@@ -0,0 +1,25 @@
+package at.fhv.transflow.simulation.sumo.data;
+
+import java.util.Objects;
+
+
+/**
+ * DTO for the completed trip of a single vehicle from its departure until its arrival. The zones are null if the
+ * respective edge does not belong to any configured zone.
+ */
+public record TripData(
+    String id,
+    String startEdgeId,
+    String endEdgeId,
+    String originZone,
+    String destinationZone,
+    Integer departureMillis,
+    Integer arrivalMillis,
+    Double totalDistance,
+    Double totalWaitingTime,
+    Double totalTimeLoss
+) implements SumoObject {
+    public TripData {
+        Objects.requireNonNull(id);
+    }
+}
@@ -1,6 +1,7 @@
 package at.fhv.transflow.simulation.sumo.mapping;
 
 import at.fhv.transflow.simulation.sumo.data.EdgeData;
+import at.fhv.transflow.simulation.sumo.data.EdgeTopologyData;
 import org.eclipse.sumo.libsumo.Constants;
 
 import java.util.Arrays;
@@ -17,8 +18,6 @@ public abstract class EdgeMapper {
      * @see <a href="https://sumo.dlr.de/docs/TraCI/Edge_Value_Retrieval.html">SUMO edge properties</a>
      */
     public enum Fields {
-        LANE_COUNT(Constants.VAR_LANE_INDEX),
-        STREET_NAME(Constants.VAR_NAME),
         CURRENT_TRAVEL_DURATION(Constants.VAR_CURRENT_TRAVELTIME),
         SUM_CO2_MG_PER_SECOND(Constants.VAR_CO2EMISSION),
         SUM_CO_MG_PER_SECOND(Constants.VAR_COEMISSION),
@@ -56,33 +55,69 @@ public abstract class EdgeMapper {
         }
     }
 
+    /**
+     * Inner enum of all the fields (properties) of a {@link EdgeTopologyData} record, i.e. the properties of an edge
+     * which do not change during a simulation run. Each enum constant contains the integer ID of the respective
+     * SUMO edge property.
+     * @see <a href="https://sumo.dlr.de/docs/TraCI/Edge_Value_Retrieval.html">SUMO edge properties</a>
+     */
+    public enum TopologyFields {
+        LANE_COUNT(Constants.VAR_LANE_INDEX),
+        STREET_NAME(Constants.VAR_NAME);
+
+
+        public final int sumoPropertyId;
+
+        TopologyFields(int sumoPropertyId) {
+            this.sumoPropertyId = sumoPropertyId;
+        }
+
+        /**
+         * Get a set of all the sumo property IDs in the {@link TopologyFields} enum.
+         * These can be used to batch-subscribe to the static properties of edges via TraCI.
+         * @return A set of the integer ID of every static SUMO edge property of interest.
+         */
+        public static Set<Integer> sumoProperties() {
+            return Arrays.stream(values())
+                .map(field -> field.sumoPropertyId)
+                .collect(Collectors.toSet());
+        }
+    }
+
 
-    public static EdgeData createEdgeData(String edgeId, Map<Integer, String> props) {
+    public static EdgeData createEdgeData(String edgeId, Map<Integer, Object> props) {
         if (edgeId == null || props == null) return null;
 
-        String[] vehicleIds = SumoMapper.parseTraCIList(props.get(Fields.VEHICLE_IDS.sumoPropertyId));
-        String[] personIds = SumoMapper.parseTraCIList(props.get(Fields.PERSON_IDS.sumoPropertyId));
+        String[] vehicleIds = SumoMapper.asStringArray(props.get(Fields.VEHICLE_IDS.sumoPropertyId));
+        String[] personIds = SumoMapper.asStringArray(props.get(Fields.PERSON_IDS.sumoPropertyId));
 
         return new EdgeData(edgeId,
-            SumoMapper.tryParseInteger(props.get(Fields.LANE_COUNT.sumoPropertyId)),
-            props.get(Fields.STREET_NAME.sumoPropertyId),
-            SumoMapper.tryParseDouble(props.get(Fields.SUM_CO2_MG_PER_SECOND.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SUM_CO_MG_PER_SECOND.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SUM_HC_MG_PER_SECOND.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SUM_PMX_MG_PER_SECOND.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SUM_NOX_MG_PER_SECOND.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SUM_FUEL_CONSUMPTION.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SUM_ELECTRICITY_CONSUMPTION.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SUM_NOISE_DBA.sumoPropertyId)),
-            SumoMapper.tryParseInteger(props.get(Fields.VEHICLE_COUNT.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.MEAN_VEHICLE_SPEED.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.MEAN_VEHICLE_LENGTH.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SUM_CO2_MG_PER_SECOND.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SUM_CO_MG_PER_SECOND.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SUM_HC_MG_PER_SECOND.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SUM_PMX_MG_PER_SECOND.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SUM_NOX_MG_PER_SECOND.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SUM_FUEL_CONSUMPTION.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SUM_ELECTRICITY_CONSUMPTION.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SUM_NOISE_DBA.sumoPropertyId)),
+            SumoMapper.asInteger(props.get(Fields.VEHICLE_COUNT.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.MEAN_VEHICLE_SPEED.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.MEAN_VEHICLE_LENGTH.sumoPropertyId)),
             vehicleIds,
             personIds,
-            SumoMapper.tryParseDouble(props.get(Fields.TIME_OCCUPANCY_PERCENTAGE.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.CURRENT_TRAVEL_DURATION.sumoPropertyId)),
-            SumoMapper.tryParseInteger(props.get(Fields.HALTING_VEHICLES_COUNT.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SUM_WAITING_TIME.sumoPropertyId))
+            SumoMapper.asDouble(props.get(Fields.TIME_OCCUPANCY_PERCENTAGE.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.CURRENT_TRAVEL_DURATION.sumoPropertyId)),
+            SumoMapper.asInteger(props.get(Fields.HALTING_VEHICLES_COUNT.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SUM_WAITING_TIME.sumoPropertyId))
+        );
+    }
+
+    public static EdgeTopologyData createEdgeTopologyData(String edgeId, Map<Integer, Object> props) {
+        if (edgeId == null || props == null) return null;
+
+        return new EdgeTopologyData(edgeId,
+            SumoMapper.asInteger(props.get(TopologyFields.LANE_COUNT.sumoPropertyId)),
+            SumoMapper.asString(props.get(TopologyFields.STREET_NAME.sumoPropertyId))
         );
     }
-}
\ No newline at end of file
+}
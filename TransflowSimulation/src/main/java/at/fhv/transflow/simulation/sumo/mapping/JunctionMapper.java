@@ -40,12 +40,12 @@ public abstract class JunctionMapper {
     }
 
 
-    public static JunctionData createJunctionData(String junctionId, Map<Integer, String> props) {
+    public static JunctionData createJunctionData(String junctionId, Map<Integer, Object> props) {
         if (junctionId == null || props == null) return null;
 
         return new JunctionData(junctionId,
-            SumoMapper.parsePosition(props.get(Fields.POSITION.sumoPropertyId)),
-            SumoMapper.parseShapeList(props.get(Fields.SHAPE.sumoPropertyId))
+            SumoMapper.asPosition(props.get(Fields.POSITION.sumoPropertyId)),
+            SumoMapper.asShape(props.get(Fields.SHAPE.sumoPropertyId))
         );
     }
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package at.fhv.transflow.simulation.sumo.mapping;
 
 import at.fhv.transflow.simulation.sumo.data.LaneData;
+import at.fhv.transflow.simulation.sumo.data.LaneTopologyData;
 import org.eclipse.sumo.libsumo.Constants;
 import org.eclipse.sumo.libsumo.TraCIConnection;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -19,13 +21,6 @@ public abstract class LaneMapper {
      * @see <a href="https://sumo.dlr.de/docs/TraCI/Lane_Value_Retrieval.html">SUMO lane properties</a>
      */
     public enum Fields {
-        EDGE_ID(Constants.LANE_EDGE_ID),
-        ALLOWED_VEHICLE_TYPES(Constants.LANE_ALLOWED),
-        DISALLOWED_VEHICLE_TYPES(Constants.LANE_DISALLOWED),
-        LENGTH(Constants.VAR_LENGTH),
-        WIDTH(Constants.VAR_WIDTH),
-        SHAPE(Constants.VAR_SHAPE),
-        MAX_SPEED(Constants.VAR_MAXSPEED),
         SUM_CO2_MG_PER_SECOND(Constants.VAR_CO2EMISSION),
         SUM_CO_MG_PER_SECOND(Constants.VAR_COEMISSION),
         SUM_HC_MG_PER_SECOND(Constants.VAR_HCEMISSION),
@@ -38,11 +33,10 @@ public abstract class LaneMapper {
         VEHICLE_IDS(Constants.LAST_STEP_VEHICLE_ID_LIST),
         TIME_OCCUPANCY_PERCENTAGE(Constants.LAST_STEP_OCCUPANCY),
         MEAN_VEHICLE_SPEED(Constants.LAST_STEP_MEAN_SPEED),
-        MEAN_VEHICLE_LENGTH(Constants.VAR_LENGTH),
+        MEAN_VEHICLE_LENGTH(Constants.LAST_STEP_LENGTH),
         SUM_WAITING_TIME(Constants.VAR_WAITING_TIME),
         CURRENT_TRAVEL_DURATION(Constants.VAR_CURRENT_TRAVELTIME),
-        HALTING_VEHICLES_COUNT(Constants.LAST_STEP_VEHICLE_HALTING_NUMBER),
-        LINKS(Constants.LANE_LINKS);
+        HALTING_VEHICLES_COUNT(Constants.LAST_STEP_VEHICLE_HALTING_NUMBER);
 
 
         public final int sumoPropertyId;
@@ -63,6 +57,41 @@ public abstract class LaneMapper {
         }
     }
 
+    /**
+     * Inner enum of all the fields (properties) of a {@link LaneTopologyData} record, i.e. the properties of a lane
+     * which do not change during a simulation run. Each enum constant contains the integer ID of the respective
+     * SUMO lane property.
+     * @see <a href="https://sumo.dlr.de/docs/TraCI/Lane_Value_Retrieval.html">SUMO lane properties</a>
+     */
+    public enum TopologyFields {
+        EDGE_ID(Constants.LANE_EDGE_ID),
+        ALLOWED_VEHICLE_TYPES(Constants.LANE_ALLOWED),
+        DISALLOWED_VEHICLE_TYPES(Constants.LANE_DISALLOWED),
+        LENGTH(Constants.VAR_LENGTH),
+        WIDTH(Constants.VAR_WIDTH),
+        SHAPE(Constants.VAR_SHAPE),
+        MAX_SPEED(Constants.VAR_MAXSPEED),
+        LINKS(Constants.LANE_LINKS);
+
+
+        public final int sumoPropertyId;
+
+        TopologyFields(int sumoPropertyId) {
+            this.sumoPropertyId = sumoPropertyId;
+        }
+
+        /**
+         * Get a set of all the sumo property IDs in the {@link TopologyFields} enum.
+         * These can be used to batch-subscribe to the static properties of lanes via TraCI.
+         * @return A set of the integer ID of every static SUMO lane property of interest.
+         */
+        public static Set<Integer> sumoProperties() {
+            return Arrays.stream(values())
+                .map(field -> field.sumoPropertyId)
+                .collect(Collectors.toSet());
+        }
+    }
+
     /*
      * Some properties of a SUMO lane object that cannot be subscribed
      */
@@ -78,54 +107,82 @@ public abstract class LaneMapper {
     }
 
 
-    public static LaneData createLaneData(String laneId, Map<Integer, String> props) {
-        return createLaneData(laneId, props, null);
+    /**
+     * Converts the connections of a lane as returned by libsumo into plain {@link LaneData.Link} records.
+     * @param links The connections of a lane to its succeeding lanes.
+     * @return A list of links in the same order as the given connections.
+     */
+    public static List<LaneData.Link> linksFromTraCI(List<TraCIConnection> links) {
+        if (links == null) return null;
+
+        List<LaneData.Link> parsedLinks = new ArrayList<>(links.size());
+        for (TraCIConnection connection : links) {
+            parsedLinks.add(new LaneData.Link(
+                connection.getApproachedLane(),
+                connection.getHasPrio(),
+                connection.getIsOpen(),
+                connection.getHasFoe(),
+                connection.getApproachedInternal(),
+                connection.getState(),
+                connection.getDirection(),
+                connection.getLength()
+            ));
+        }
+
+        return parsedLinks;
     }
 
-    public static LaneData createLaneData(String laneId, Map<Integer, String> props, List<TraCIConnection> links) {
+    /**
+     * Creates a {@link LaneData} record from the converted subscription results of a lane's dynamic {@link Fields}.
+     */
+    public static LaneData createLaneData(String laneId, Map<Integer, Object> props) {
         if (laneId == null || props == null) return null;
 
-        List<LaneData.Link> parsedLinks = links.stream()
-            .map(connection ->
-                new LaneData.Link(
-                    connection.getApproachedLane(),
-                    connection.getHasPrio(),
-                    connection.getIsOpen(),
-                    connection.getHasFoe(),
-                    connection.getApproachedInternal(),
-                    connection.getState(),
-                    connection.getDirection(),
-                    connection.getLength()
-                ))
-            .toList();
-
         return new LaneData(laneId,
-            props.get(Fields.EDGE_ID.sumoPropertyId),
-            SumoMapper.parseTraCIList(props.get(Fields.ALLOWED_VEHICLE_TYPES.sumoPropertyId)),
-            SumoMapper.parseTraCIList(props.get(Fields.DISALLOWED_VEHICLE_TYPES.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.LENGTH.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.WIDTH.sumoPropertyId)),
-            SumoMapper.parseShapeList(props.get(Fields.SHAPE.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.MAX_SPEED.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SUM_CO2_MG_PER_SECOND.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SUM_CO_MG_PER_SECOND.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SUM_HC_MG_PER_SECOND.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SUM_PMX_MG_PER_SECOND.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SUM_NOX_MG_PER_SECOND.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SUM_FUEL_CONSUMPTION.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SUM_ELECTRICITY_CONSUMPTION.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SUM_NOISE_DBA.sumoPropertyId)),
-            SumoMapper.tryParseInteger(props.get(Fields.VEHICLE_COUNT.sumoPropertyId)),
-            SumoMapper.parseTraCIList(props.get(Fields.VEHICLE_IDS.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.TIME_OCCUPANCY_PERCENTAGE.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.MEAN_VEHICLE_SPEED.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.MEAN_VEHICLE_LENGTH.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SUM_WAITING_TIME.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.CURRENT_TRAVEL_DURATION.sumoPropertyId)),
-            SumoMapper.tryParseInteger(props.get(Fields.HALTING_VEHICLES_COUNT.sumoPropertyId)),
-            SumoMapper.parseTraCIList(props.get(ExtraFields.LANE_CHANGE_ALLOWED_LEFT.id)),
-            SumoMapper.parseTraCIList(props.get(ExtraFields.LANE_CHANGE_ALLOWED_RIGHT.id)),
-            parsedLinks
+            SumoMapper.asDouble(props.get(Fields.SUM_CO2_MG_PER_SECOND.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SUM_CO_MG_PER_SECOND.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SUM_HC_MG_PER_SECOND.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SUM_PMX_MG_PER_SECOND.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SUM_NOX_MG_PER_SECOND.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SUM_FUEL_CONSUMPTION.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SUM_ELECTRICITY_CONSUMPTION.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SUM_NOISE_DBA.sumoPropertyId)),
+            SumoMapper.asInteger(props.get(Fields.VEHICLE_COUNT.sumoPropertyId)),
+            SumoMapper.asStringArray(props.get(Fields.VEHICLE_IDS.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.TIME_OCCUPANCY_PERCENTAGE.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.MEAN_VEHICLE_SPEED.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.MEAN_VEHICLE_LENGTH.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SUM_WAITING_TIME.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.CURRENT_TRAVEL_DURATION.sumoPropertyId)),
+            SumoMapper.asInteger(props.get(Fields.HALTING_VEHICLES_COUNT.sumoPropertyId))
+        );
+    }
+
+    /**
+     * Creates a {@link LaneTopologyData} record from the converted subscription results of a lane's static
+     * {@link TopologyFields}. Besides these, the given properties are expected to contain the {@link ExtraFields}
+     * and the lane's links (converted by {@link #linksFromTraCI(List)}) under the property ID of
+     * {@link TopologyFields#LINKS}.
+     */
+    @SuppressWarnings("unchecked")
+    public static LaneTopologyData createLaneTopologyData(String laneId, Map<Integer, Object> props) {
+        if (laneId == null || props == null) return null;
+
+        List<LaneData.Link> links = props.get(TopologyFields.LINKS.sumoPropertyId) instanceof List<?> linkList
+            ? (List<LaneData.Link>) linkList
+            : null;
+
+        return new LaneTopologyData(laneId,
+            SumoMapper.asString(props.get(TopologyFields.EDGE_ID.sumoPropertyId)),
+            SumoMapper.asStringArray(props.get(TopologyFields.ALLOWED_VEHICLE_TYPES.sumoPropertyId)),
+            SumoMapper.asStringArray(props.get(TopologyFields.DISALLOWED_VEHICLE_TYPES.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(TopologyFields.LENGTH.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(TopologyFields.WIDTH.sumoPropertyId)),
+            SumoMapper.asShape(props.get(TopologyFields.SHAPE.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(TopologyFields.MAX_SPEED.sumoPropertyId)),
+            SumoMapper.asStringArray(props.get(ExtraFields.LANE_CHANGE_ALLOWED_LEFT.id)),
+            SumoMapper.asStringArray(props.get(ExtraFields.LANE_CHANGE_ALLOWED_RIGHT.id)),
+            links
         );
     }
-}
\ No newline at end of file
+}
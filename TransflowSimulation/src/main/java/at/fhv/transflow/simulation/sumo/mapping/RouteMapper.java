@@ -39,10 +39,10 @@ public abstract class RouteMapper {
     }
 
 
-    public static RouteData createRouteData(String routeId, Map<Integer, String> props) {
+    public static RouteData createRouteData(String routeId, Map<Integer, Object> props) {
         if (routeId == null || props == null) return null;
 
-        String[] edgeIds = SumoMapper.parseTraCIList(props.get(Fields.EDGES.sumoPropertyId));
+        String[] edgeIds = SumoMapper.asStringArray(props.get(Fields.EDGES.sumoPropertyId));
         return new RouteData(routeId, edgeIds);
     }
 }
\ No newline at end of file
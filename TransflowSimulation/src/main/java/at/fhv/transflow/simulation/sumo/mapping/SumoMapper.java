@@ -1,14 +1,10 @@
 package at.fhv.transflow.simulation.sumo.mapping;
 
 import at.fhv.transflow.simulation.sumo.data.Position;
-import org.eclipse.sumo.libsumo.TraCIColor;
+import org.eclipse.sumo.libsumo.*;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.regex.MatchResult;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 
 /**
@@ -25,101 +21,164 @@ public abstract class SumoMapper {
             traciColor.getR(), traciColor.getG(), traciColor.getB(), traciColor.getA());
     }
 
-    public static String hexColorFromTraCI(String traciColorString) {
-        if (traciColorString == null || traciColorString.isBlank()) return null;
-
-        List<String> matches = Pattern.compile("(?<=[(,\\s])\\d+(?=[,)\\s])")
-            .matcher(traciColorString)
-            .results()
-            .map(MatchResult::group)
-            .toList();
-
-        if (matches.size() == 4) {
-            return String.format("#%02x%02x%02x%02x",
-                Integer.parseInt(matches.get(0)),
-                Integer.parseInt(matches.get(1)),
-                Integer.parseInt(matches.get(2)),
-                Integer.parseInt(matches.get(3)));
+    /**
+     * Converts a single typed {@link TraCIResult} of a subscription into a plain Java object by reading the
+     * value of the concrete result type directly (without taking a detour over its string representation).
+     * The following conversions are applied:
+     * <ul>
+     *   <li>{@link TraCIDouble} &rarr; {@link Double}</li>
+     *   <li>{@link TraCIInt} &rarr; {@link Integer}</li>
+     *   <li>{@link TraCIString} &rarr; {@link String}</li>
+     *   <li>{@link TraCIStringList} &rarr; {@code String[]}</li>
+     *   <li>{@link TraCIPosition} &rarr; {@link Position}</li>
+     *   <li>{@link TraCIPositionVector} &rarr; {@code List<Double[]>}</li>
+     *   <li>{@link TraCIColor} &rarr; {@link String} (hex color code, see {@link #hexColorFromTraCI(TraCIColor)})</li>
+     *   <li>{@link TraCIRoadPosition} &rarr; {@link RoadPosition}</li>
+     * </ul>
+     * @param result A subscription result of any type.
+     * @return The converted value or null if SUMO could not determine a value or the result type is not supported.
+     */
+    public static Object fromTraCI(TraCIResult result) {
+        if (result instanceof TraCIDouble traciDouble) {
+            return validDouble(traciDouble.getValue());
+        } else if (result instanceof TraCIInt traciInt) {
+            return validInteger(traciInt.getValue());
+        } else if (result instanceof TraCIString traciString) {
+            return traciString.getValue();
+        } else if (result instanceof TraCIStringList traciStringList) {
+            return traciStringList.getValue().toArray(String[]::new);
+        } else if (result instanceof TraCIPosition traciPosition) {
+            return positionFromTraCI(traciPosition);
+        } else if (result instanceof TraCIPositionVector traciPositionVector) {
+            return shapeFromTraCI(traciPositionVector);
+        } else if (result instanceof TraCIColor traciColor) {
+            return hexColorFromTraCI(traciColor);
+        } else if (result instanceof TraCIRoadPosition traciRoadPosition) {
+            return new RoadPosition(traciRoadPosition.getEdgeID(), validDouble(traciRoadPosition.getPos()));
         }
 
         return null;
     }
 
-    public static String[] parseTraCIList(String traciList) {
-        if (traciList == null || traciList.isBlank()) return null;
+    public static Position positionFromTraCI(TraCIPosition traciPosition) {
+        if (traciPosition == null) return new Position();
+
+        return new Position(
+            validDouble(traciPosition.getX()),
+            validDouble(traciPosition.getY()),
+            validDouble(traciPosition.getZ())
+        );
+    }
 
-        // return early if the list is empty to prevent it from being parsed as `new String[] {""}`
-        if ("[]".equals(traciList.strip())) return new String[0];
+    /**
+     * Converts the given {@link TraCIPositionVector} into a list of coordinate arrays. Each array contains
+     * the x and y coordinate of a point of the shape plus its z coordinate if the shape is three-dimensional.
+     */
+    public static List<Double[]> shapeFromTraCI(TraCIPositionVector traciPositionVector) {
+        if (traciPositionVector == null) return null;
 
-        return traciList
-            .replaceAll("[\\[\\]]", "")
-            .split(",");
+        List<TraCIPosition> positions = traciPositionVector.getValue();
+        List<Double[]> shape = new ArrayList<>(positions.size());
+
+        for (TraCIPosition position : positions) {
+            Double z = validDouble(position.getZ());
+            shape.add(z != null
+                ? new Double[]{position.getX(), position.getY(), z}
+                : new Double[]{position.getX(), position.getY()});
+        }
+
+        return shape;
     }
 
-    public static Position parsePosition(String traciPosition) {
-        if (traciPosition == null || traciPosition.isBlank()) return new Position();
 
-        List<Double> coordinateList = Pattern.compile("[-\\d]+")
-            .matcher(traciPosition)
-            .results()
-            .map(MatchResult::group)
-            .map(SumoMapper::tryParseDouble)
-            .toList();
+    /**
+     * Casts a value previously converted by {@link #fromTraCI(TraCIResult)} to a Double.
+     * @return The value as a Double or null if the value is absent or not a number.
+     */
+    public static Double asDouble(Object value) {
+        if (value instanceof Double number) return number;
+        if (value instanceof Integer number) return number.doubleValue();
 
-        return new Position(coordinateList);
+        return null;
     }
 
-    public static List<Double[]> parseShapeList(String shapeList) {
-        if (shapeList == null || shapeList.isBlank()) return null;
+    /**
+     * Casts a value previously converted by {@link #fromTraCI(TraCIResult)} to an Integer.
+     * @return The value as an Integer or null if the value is absent or not an integer number.
+     */
+    public static Integer asInteger(Object value) {
+        if (value instanceof Integer number) return number;
+        if (value instanceof Double number && number == Math.rint(number)) return number.intValue();
 
-        if ("[]".equals(shapeList.strip())) return new ArrayList<>(0);
+        return null;
+    }
 
-        Pattern pattern = Pattern.compile("(?<=\\()[\\d\\s.,]+(?=\\))");
-        Matcher matcher = pattern.matcher(shapeList);
+    /**
+     * Casts a value previously converted by {@link #fromTraCI(TraCIResult)} to a String.
+     * @return The value as a String or null if the value is absent or not a string.
+     */
+    public static String asString(Object value) {
+        return value instanceof String string ? string : null;
+    }
 
-        // find the position values inside parentheses, split them at every comma and parse the resulting Strings to Doubles
-        return matcher.results()
-            .map(match -> match.group().split(","))
-            .map(list -> Arrays.stream(list)
-                .map(SumoMapper::tryParseDouble).toArray(Double[]::new)
-            ).toList();
+    /**
+     * Casts a value previously converted by {@link #fromTraCI(TraCIResult)} to a String array.
+     * @return The value as a String array or null if the value is absent or not a list of strings.
+     */
+    public static String[] asStringArray(Object value) {
+        return value instanceof String[] strings ? strings : null;
     }
 
     /**
-     * Parses an Integer object from a given string using the {@link Integer#valueOf(String)} method
-     * but catches {@link NumberFormatException} and prevents {@link NullPointerException} to return null
-     * as an error value instead.
-     * @param numberString The string to parsed to an Integer.
-     * @return Either an Integer with the parsed value or null if failed to parse.
+     * Casts a value previously converted by {@link #fromTraCI(TraCIResult)} to a {@link Position}.
+     * @return The value as a Position. If the value is absent or not a position, an empty Position
+     * with null coordinates is returned instead of null.
      */
-    public static Integer tryParseInteger(String numberString) {
-        if (numberString == null || numberString.isBlank()) return null;
-
-        try {
-            // if SUMO cannot determine a value, it returns the int value -1073741824 instead of null
-            var number = Integer.parseInt(numberString);
-            return number > NUMBER_CUTOFF_POINT ? number : null;
-        } catch (NumberFormatException exp) {
-            return null;
-        }
+    public static Position asPosition(Object value) {
+        return value instanceof Position position ? position : new Position();
     }
 
     /**
-     * Parses a Double object from a given string using the {@link Double#valueOf(String)} method
-     * but catches {@link NumberFormatException} and prevents {@link NullPointerException} to return null
-     * as an error value instead.
-     * @param numberString The string to parsed to a Double.
-     * @return Either a Double with the parsed value or null if failed to parse.
+     * Casts a value previously converted by {@link #fromTraCI(TraCIResult)} to a shape, i.e. a list of coordinates.
+     * @return The value as a list of coordinate arrays or null if the value is absent or not a shape.
      */
-    public static Double tryParseDouble(String numberString) {
-        if (numberString == null || numberString.isBlank()) return null;
-
-        try {
-            // if SUMO cannot determine a value, it returns the double value -1.07374E9 instead of null
-            var number = Double.parseDouble(numberString);
-            return number > NUMBER_CUTOFF_POINT ? number : null;
-        } catch (NumberFormatException exp) {
-            return null;
-        }
+    @SuppressWarnings("unchecked")
+    public static List<Double[]> asShape(Object value) {
+        return value instanceof List<?> list ? (List<Double[]>) list : null;
+    }
+
+    /**
+     * Casts a value previously converted by {@link #fromTraCI(TraCIResult)} to a {@link RoadPosition}.
+     * @return The value as a RoadPosition or null if the value is absent or not a road position.
+     */
+    public static RoadPosition asRoadPosition(Object value) {
+        return value instanceof RoadPosition roadPosition ? roadPosition : null;
+    }
+
+
+    /**
+     * Checks whether the given number is an actual value. If SUMO cannot determine a value, it returns the double
+     * value -1.07374E9 (or the int value -1073741824 respectively) instead of null.
+     */
+    public static boolean isValid(double number) {
+        return number > NUMBER_CUTOFF_POINT;
+    }
+
+    private static Double validDouble(double number) {
+        return isValid(number) ? number : null;
+    }
+
+    private static Integer validInteger(int number) {
+        return isValid(number) ? number : null;
+    }
+
+
+    /**
+     * Plain Java equivalent of a {@link TraCIRoadPosition}, which SUMO uses for results consisting of an ID
+     * and a distance or position (e.g. a vehicle's leader).
+     * @param id       The ID of the referenced object (e.g. an edge or a vehicle).
+     * @param position The position on or distance to the referenced object.
+     */
+    public record RoadPosition(String id, Double position) {
     }
-}
\ No newline at end of file
+}
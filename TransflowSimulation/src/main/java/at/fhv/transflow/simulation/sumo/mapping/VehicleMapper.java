@@ -6,8 +6,6 @@ import org.eclipse.sumo.libsumo.Constants;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 
@@ -84,93 +82,82 @@ public abstract class VehicleMapper {
         }
     }
 
-    public static VehicleData createVehicleData(String vehicleId, Map<Integer, String> props) {
+    public static VehicleData createVehicleData(String vehicleId, Map<Integer, Object> props) {
         if (vehicleId == null || props == null) return null;
 
         // parse the values of the leader subscription
         Leader leader = VehicleMapper.parseLeader(props.get(VehicleMapper.LEADER_PROPERTY));
         // parse the list of riding person IDs
-        String[] personIds = SumoMapper.parseTraCIList(props.get(VehicleMapper.Fields.PERSON_IDS.sumoPropertyId));
+        String[] personIds = SumoMapper.asStringArray(props.get(VehicleMapper.Fields.PERSON_IDS.sumoPropertyId));
 
         return new VehicleData(vehicleId,
-            SumoMapper.hexColorFromTraCI(props.get(Fields.HEX_COLOR.sumoPropertyId)),
-            props.get(Fields.VEHICLE_TYPE_ID.sumoPropertyId),
-            SumoMapper.tryParseDouble(props.get(Fields.LENGTH.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.WIDTH.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.HEIGHT.sumoPropertyId)),
-            SumoMapper.tryParseInteger(props.get(Fields.PERSON_CAPACITY.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.MAX_SPEED.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.MAX_ACCELERATION.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.MAX_DECELERATION.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SPEED_FACTOR.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SPEED_DEVIATION.sumoPropertyId)),
-            props.get(Fields.SHAPE_CLASS.sumoPropertyId),
-            SumoMapper.tryParseDouble(props.get(Fields.TAU.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SIGMA.sumoPropertyId)),
-            props.get(Fields.ROUTE_ID.sumoPropertyId),
-            SumoMapper.tryParseDouble(props.get(Fields.MIN_FRONT_GAP.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.MIN_LATERAL_GAP.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SPEED.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.ACCELERATION.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.LATERAL_SPEED.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.ALLOWED_SPEED.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.ANGLE.sumoPropertyId)),
-            props.get(Fields.ROAD_ID.sumoPropertyId),
-            SumoMapper.tryParseInteger(props.get(Fields.EDGE_IN_ROUTE.sumoPropertyId)),
-            SumoMapper.tryParseInteger(props.get(Fields.LANE.sumoPropertyId)),
-            SumoMapper.parsePosition(props.get(Fields.POSITION.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.POSITION_ON_LANE.sumoPropertyId)),
-            SumoMapper.tryParseInteger(props.get(Fields.LANE_CHANGE_STATE.sumoPropertyId)),
-            SumoMapper.tryParseInteger(props.get(Fields.SIGNAL_STATE.sumoPropertyId)),
-            SumoMapper.tryParseInteger(props.get(Fields.STOP_STATE.sumoPropertyId)),
+            SumoMapper.asString(props.get(Fields.HEX_COLOR.sumoPropertyId)),
+            SumoMapper.asString(props.get(Fields.VEHICLE_TYPE_ID.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.LENGTH.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.WIDTH.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.HEIGHT.sumoPropertyId)),
+            SumoMapper.asInteger(props.get(Fields.PERSON_CAPACITY.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.MAX_SPEED.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.MAX_ACCELERATION.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.MAX_DECELERATION.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SPEED_FACTOR.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SPEED_DEVIATION.sumoPropertyId)),
+            SumoMapper.asString(props.get(Fields.SHAPE_CLASS.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.TAU.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SIGMA.sumoPropertyId)),
+            SumoMapper.asString(props.get(Fields.ROUTE_ID.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.MIN_FRONT_GAP.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.MIN_LATERAL_GAP.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SPEED.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.ACCELERATION.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.LATERAL_SPEED.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.ALLOWED_SPEED.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.ANGLE.sumoPropertyId)),
+            SumoMapper.asString(props.get(Fields.ROAD_ID.sumoPropertyId)),
+            SumoMapper.asInteger(props.get(Fields.EDGE_IN_ROUTE.sumoPropertyId)),
+            SumoMapper.asInteger(props.get(Fields.LANE.sumoPropertyId)),
+            SumoMapper.asPosition(props.get(Fields.POSITION.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.POSITION_ON_LANE.sumoPropertyId)),
+            SumoMapper.asInteger(props.get(Fields.LANE_CHANGE_STATE.sumoPropertyId)),
+            SumoMapper.asInteger(props.get(Fields.SIGNAL_STATE.sumoPropertyId)),
+            SumoMapper.asInteger(props.get(Fields.STOP_STATE.sumoPropertyId)),
             personIds,
-            SumoMapper.tryParseDouble(props.get(Fields.CO_2_MG_PER_SECOND.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.HC_MG_PER_SECOND.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.PMX_MG_PER_SECOND.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.NOX_MG_PER_SECOND.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.FUEL_CONSUMPTION.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.ELECTRICITY_CONSUMPTION.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.NOISE_DBA.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.TOTAL_DISTANCE.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.TOTAL_WAITING_TIME.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.TOTAL_TIME_LOSS.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.BOARDING_DURATION.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.CO_2_MG_PER_SECOND.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.HC_MG_PER_SECOND.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.PMX_MG_PER_SECOND.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.NOX_MG_PER_SECOND.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.FUEL_CONSUMPTION.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.ELECTRICITY_CONSUMPTION.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.NOISE_DBA.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.TOTAL_DISTANCE.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.TOTAL_WAITING_TIME.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.TOTAL_TIME_LOSS.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.BOARDING_DURATION.sumoPropertyId)),
             leader.id,
             leader.distance
         );
     }
 
     /**
-     * Parses a {@link Leader} record from the string representation of the response to a
-     * TraCI subscription on a vehicle's leader.<br>
-     * These come in the form of <code>"TraCIRoadPosition(&lt;leaderId&gt;,&lt;leaderDistance&gt;)"</code>.
-     * @param leaderResultString The string representation of a TraCI response to the vehicle leader subscription.
-     * @return An initialized leader record which either contains the ID and distance of a parsed
-     * leader or null values for ID and distance if no leader properties were found within the given string.
+     * Creates a {@link Leader} record from the result of a TraCI subscription on a vehicle's leader.<br>
+     * SUMO reports these as a {@link SumoMapper.RoadPosition} consisting of the leader's ID and its distance.
+     * @param leaderResult The converted TraCI response to the vehicle leader subscription.
+     * @return An initialized leader record which either contains the ID and distance of the leader or null
+     * values for ID and distance if the vehicle currently has no leader.
      * This method never returns null, just a Leader with null fields.
      */
-    private static Leader parseLeader(String leaderResultString) {
-        if (leaderResultString == null) return Leader.NONE;
+    private static Leader parseLeader(Object leaderResult) {
+        SumoMapper.RoadPosition leaderPosition = SumoMapper.asRoadPosition(leaderResult);
+        if (leaderPosition == null) return Leader.NONE;
 
-        Pattern pattern = Pattern.compile("(?<=[(]).+,.+(?=[)])");
-        Matcher matcher = pattern.matcher(leaderResultString);
+        String leaderId = leaderPosition.id();
 
-        if (matcher.find()) {
-            String[] arguments = matcher.group().split(",");
-
-            if (arguments.length == 2) {
-                String leaderId = arguments[0];
-
-                // if no leader was found, the value of the leader ID is prefixed with an underscore
-                if (!leaderId.startsWith("_")) {
-                    // we have successfully found the leader attributes
-                    Double leaderDistance = SumoMapper.tryParseDouble(arguments[1]);
-                    return new Leader(leaderId, leaderDistance);
-                }
-            }
+        // if no leader was found, the leader ID is either empty or prefixed with an underscore
+        if (leaderId == null || leaderId.isEmpty() || leaderId.startsWith("_")) {
+            return Leader.NONE;
         }
 
-        return Leader.NONE;
+        return new Leader(leaderId, leaderPosition.position());
     }
 
     /**
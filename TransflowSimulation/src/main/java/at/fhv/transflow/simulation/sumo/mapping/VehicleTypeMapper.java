@@ -60,32 +60,32 @@ public abstract class VehicleTypeMapper {
     }
 
 
-    public static VehicleTypeData createVehicleData(String vehicleTypeId, Map<Integer, String> props) {
+    public static VehicleTypeData createVehicleData(String vehicleTypeId, Map<Integer, Object> props) {
         if (vehicleTypeId == null || props == null) return null;
 
         return new VehicleTypeData(vehicleTypeId,
-            props.get(Fields.VEHICLE_CLASS.sumoPropertyId),
-            SumoMapper.tryParseDouble(props.get(Fields.LENGTH.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.WIDTH.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.HEIGHT.sumoPropertyId)),
-            SumoMapper.parseShapeList(props.get(Fields.SHAPE.sumoPropertyId)),
-            props.get(Fields.HEX_COLOR.sumoPropertyId),
-            SumoMapper.tryParseDouble(props.get(Fields.MAX_SPEED.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.MAX_SPEED_LATERAL.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.MAX_ACCELERATION.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.MAX_DECELERATION.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SPEED_FACTOR.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SPEED_DEVIATION.sumoPropertyId)),
-            props.get(Fields.EMISSION_CLASS.sumoPropertyId),
-            SumoMapper.tryParseDouble(props.get(Fields.SCALE.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.TAU.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.SIGMA.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.MIN_GAP.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.MIN_LATERAL_GAP.sumoPropertyId)),
-            props.get(Fields.LATERAL_ALIGNMENT.sumoPropertyId),
-            SumoMapper.tryParseDouble(props.get(Fields.ACTION_STEP_LENGTH.sumoPropertyId)),
-            SumoMapper.tryParseInteger(props.get(Fields.PERSON_CAPACITY.sumoPropertyId)),
-            SumoMapper.tryParseDouble(props.get(Fields.BOARDING_DURATION.sumoPropertyId))
+            SumoMapper.asString(props.get(Fields.VEHICLE_CLASS.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.LENGTH.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.WIDTH.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.HEIGHT.sumoPropertyId)),
+            SumoMapper.asShape(props.get(Fields.SHAPE.sumoPropertyId)),
+            SumoMapper.asString(props.get(Fields.HEX_COLOR.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.MAX_SPEED.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.MAX_SPEED_LATERAL.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.MAX_ACCELERATION.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.MAX_DECELERATION.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SPEED_FACTOR.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SPEED_DEVIATION.sumoPropertyId)),
+            SumoMapper.asString(props.get(Fields.EMISSION_CLASS.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SCALE.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.TAU.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.SIGMA.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.MIN_GAP.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.MIN_LATERAL_GAP.sumoPropertyId)),
+            SumoMapper.asString(props.get(Fields.LATERAL_ALIGNMENT.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.ACTION_STEP_LENGTH.sumoPropertyId)),
+            SumoMapper.asInteger(props.get(Fields.PERSON_CAPACITY.sumoPropertyId)),
+            SumoMapper.asDouble(props.get(Fields.BOARDING_DURATION.sumoPropertyId))
         );
     }
 }
\ No newline at end of file
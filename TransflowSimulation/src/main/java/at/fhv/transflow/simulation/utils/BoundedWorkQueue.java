@@ -0,0 +1,307 @@
+package at.fhv.transflow.simulation.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Fixed set of worker threads fed by a bounded, striped queue. In contrast to a plain thread pool, the number of
+ * waiting tasks is limited, so that producers are slowed down (or tasks are dropped, depending on the
+ * {@link OverflowPolicy}) instead of exhausting the heap whenever the workers cannot keep up.<br>
+ * <br>
+ * The total capacity is split into one queue (stripe) per worker. Producers put their tasks into a random stripe and
+ * only fall back to the other stripes if it is full, while idle workers steal tasks from the other stripes. This way,
+ * concurrent producers and workers rarely contend for the same queue.<br>
+ * Workers running out of tasks wait on a shared condition, which producers only signal while any worker is idle.
+ * Likewise, producers blocked by a full queue are only signalled by workers while any producer is waiting.<br>
+ * Tasks are submitted as part of a {@link Batch}, whose completion can be awaited without any shared lock.
+ */
+public class BoundedWorkQueue implements AutoCloseable {
+    private final List<BlockingQueue<Runnable>> stripes;
+    private final List<Thread> workers;
+    private final OverflowPolicy overflowPolicy;
+    private final AtomicLong droppedTasks = new AtomicLong(0);
+    // only acquired by workers without any task and by producers blocked by a full queue
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition taskAvailable = lock.newCondition();
+    private final Condition slotAvailable = lock.newCondition();
+    private final AtomicInteger idleWorkers = new AtomicInteger(0);
+    private final AtomicInteger blockedProducers = new AtomicInteger(0);
+    private volatile boolean closed = false;
+
+    /**
+     * @param workerCount    The number of worker threads (and stripes).
+     * @param capacity       The maximum number of tasks waiting for execution, split evenly across all stripes.
+     * @param overflowPolicy Determines what happens to a task submitted while every stripe is full.
+     */
+    public BoundedWorkQueue(int workerCount, int capacity, OverflowPolicy overflowPolicy) {
+        if (workerCount < 1 || capacity < workerCount) {
+            throw new IllegalArgumentException("Queue needs at least one worker and one slot per worker! Given: " +
+                workerCount + " workers, capacity " + capacity);
+        }
+        this.overflowPolicy = overflowPolicy;
+        this.stripes = new ArrayList<>(workerCount);
+        this.workers = new ArrayList<>(workerCount);
+
+        for (int i = 0; i < workerCount; i++) {
+            stripes.add(new ArrayBlockingQueue<>(capacity / workerCount));
+        }
+        for (int i = 0; i < workerCount; i++) {
+            final int stripe = i;
+            Thread worker = new Thread(() -> work(stripe), "publisher-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+
+    /**
+     * Starts a new batch of tasks, e.g. all messages of a single simulation step.
+     */
+    public Batch newBatch() {
+        return new Batch();
+    }
+
+    /**
+     * Returns the number of tasks dropped so far because the queue was full.
+     * Always 0 unless the {@link OverflowPolicy#DROP} policy is used.
+     */
+    public long getDroppedTasks() {
+        return droppedTasks.get();
+    }
+
+    /**
+     * Executes every task still waiting in the queue and stops the worker threads afterwards.
+     * Blocks until every worker thread has finished.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        // wake up idle workers, which stop as soon as every stripe has been drained
+        lock.lock();
+        try {
+            taskAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException exp) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+
+    /**
+     * @return False if the task has been dropped, true otherwise.
+     */
+    private boolean submit(Runnable task, OverflowPolicy overflowPolicy) throws InterruptedException {
+        int start = ThreadLocalRandom.current().nextInt(stripes.size());
+        if (offer(task, start)) return true;
+
+        switch (overflowPolicy) {
+            case BLOCK -> awaitSlot(task, start);
+            case CALLER_RUNS -> task.run();
+            case DROP -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tries every stripe once, starting with the given one to spread concurrent producers.
+     * @return False if every stripe is full, true otherwise.
+     */
+    private boolean offer(Runnable task, int start) {
+        for (int i = 0; i < stripes.size(); i++) {
+            if (stripes.get((start + i) % stripes.size()).offer(task)) {
+                signal(idleWorkers, taskAvailable);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Blocks until any stripe has a free slot for the task, no matter which stripe frees up first.
+     */
+    private void awaitSlot(Runnable task, int start) throws InterruptedException {
+        lock.lock();
+        blockedProducers.incrementAndGet();
+        try {
+            // registered as blocked before retrying, so that no worker freeing up a slot misses this producer
+            while (!offer(task, start)) {
+                slotAvailable.await();
+            }
+        } finally {
+            blockedProducers.decrementAndGet();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until any stripe contains a task.
+     * @return False once the queue has been closed and every stripe has been drained, true otherwise.
+     */
+    private boolean awaitTask() {
+        lock.lock();
+        idleWorkers.incrementAndGet();
+        try {
+            // registered as idle before checking, so that no producer submitting a task misses this worker
+            while (stripes.stream().allMatch(BlockingQueue::isEmpty)) {
+                if (closed) return false;
+                taskAvailable.awaitUninterruptibly();
+            }
+            return true;
+        } finally {
+            idleWorkers.decrementAndGet();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wakes up a single thread waiting on the condition, if there is any.
+     */
+    private void signal(AtomicInteger waitingThreads, Condition condition) {
+        if (waitingThreads.get() == 0) return;
+        lock.lock();
+        try {
+            condition.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work(int stripe) {
+        BlockingQueue<Runnable> ownQueue = stripes.get(stripe);
+
+        while (true) {
+            Runnable task = ownQueue.poll();
+            if (task == null) {
+                task = steal(stripe);
+            }
+            if (task == null) {
+                // stop only once there is nothing left to do
+                if (!awaitTask()) return;
+                continue;
+            }
+            signal(blockedProducers, slotAvailable);
+
+            try {
+                task.run();
+            } catch (RuntimeException exp) {
+                System.err.println("Unhandled exception in publisher task: " + exp.getMessage());
+            }
+        }
+    }
+
+    private Runnable steal(int ownStripe) {
+        for (int i = 1; i < stripes.size(); i++) {
+            Runnable task = stripes.get((ownStripe + i) % stripes.size()).poll();
+            if (task != null) return task;
+        }
+        return null;
+    }
+
+
+    /**
+     * Determines how a task is handled if it is submitted while the queue is completely full.
+     */
+    public enum OverflowPolicy {
+        /** The submitting thread blocks until a slot becomes available (backpressure). */
+        BLOCK,
+        /** The submitting thread executes the task itself, which slows it down just like blocking. */
+        CALLER_RUNS,
+        /** The task is discarded and counted as {@link #getDroppedTasks() dropped}. */
+        DROP
+    }
+
+
+    /**
+     * A group of tasks whose completion can be awaited as a whole. Completion is tracked with a single atomic
+     * counter, which starts at 1 for the batch itself and is only released by {@link #awaitCompletion()}. Thus, the
+     * counter cannot reach 0 before every task has been submitted, and the awaiting thread is woken up directly by the
+     * worker completing the last task.<br>
+     * Tasks may be submitted by multiple threads, but a batch can only be awaited once.
+     */
+    public class Batch {
+        private final AtomicInteger pendingTasks = new AtomicInteger(1);
+        private volatile Thread awaitingThread;
+
+        private Batch() {
+        }
+
+        /**
+         * Submits a task of this batch to the queue. Depending on the {@link OverflowPolicy}, this blocks while the
+         * queue is full. If the submitting thread is interrupted while waiting for a free slot, the task is dropped
+         * and the interrupt flag of the thread is restored.
+         */
+        public void execute(Runnable task) {
+            execute(task, overflowPolicy);
+        }
+
+        /**
+         * Submits a task of this batch which must not be dropped because of a full queue, e.g. a message which other
+         * messages depend on. Blocks while the queue is full, regardless of the {@link OverflowPolicy} of the queue.
+         */
+        public void executeBlocking(Runnable task) {
+            execute(task, OverflowPolicy.BLOCK);
+        }
+
+        /**
+         * Blocks the calling thread until every task of this batch has been executed (or dropped). Returns
+         * immediately if no task has been submitted at all. No more tasks may be submitted afterwards.
+         * @throws InterruptedException when the blocked thread is unexpectedly interrupted.
+         */
+        public void awaitCompletion() throws InterruptedException {
+            awaitingThread = Thread.currentThread();
+            // release the batch's own count - from now on, the last completed task wakes up this thread
+            if (pendingTasks.decrementAndGet() == 0) return;
+
+            while (pendingTasks.get() > 0) {
+                LockSupport.park(this);
+                if (Thread.interrupted()) throw new InterruptedException();
+            }
+        }
+
+        private void execute(Runnable task, OverflowPolicy overflowPolicy) {
+            pendingTasks.incrementAndGet();
+            try {
+                boolean submitted = submit(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        taskCompleted();
+                    }
+                }, overflowPolicy);
+                if (!submitted) {
+                    droppedTasks.incrementAndGet();
+                    taskCompleted();
+                }
+            } catch (InterruptedException exp) {
+                Thread.currentThread().interrupt();
+                droppedTasks.incrementAndGet();
+                taskCompleted();
+            }
+        }
+
+        private void taskCompleted() {
+            if (pendingTasks.decrementAndGet() == 0) {
+                LockSupport.unpark(awaitingThread);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package at.fhv.transflow.simulation.messaging;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class DictionaryTrainerTest {
+
+    @Test
+    void dictionaryContainsFragmentsRepeatedAcrossSamples() {
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            samples.add(("{\"meanVehicleSpeed\":" + i + ",\"vehicleCount\":" + (i * 7) + "}")
+                .getBytes(StandardCharsets.UTF_8));
+        }
+
+        String dictionary = new String(DictionaryTrainer.train(samples, DictionaryTrainer.MAX_DICTIONARY_SIZE),
+            StandardCharsets.UTF_8);
+
+        assertTrue(dictionary.contains("meanVehicleSpeed"));
+        assertTrue(dictionary.contains("vehicleCount"));
+    }
+
+    @Test
+    void dictionaryIsEmptyWithoutCommonFragments() {
+        Random random = new Random(42);
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            byte[] sample = new byte[256];
+            random.nextBytes(sample);
+            samples.add(sample);
+        }
+
+        assertEquals(0, DictionaryTrainer.train(samples, DictionaryTrainer.MAX_DICTIONARY_SIZE).length);
+    }
+
+    @Test
+    void dictionaryDoesNotExceedMaximumSize() {
+        Random random = new Random(42);
+        byte[] common = new byte[4096];
+        random.nextBytes(common);
+        List<byte[]> samples = List.of(common, common.clone(), common.clone());
+
+        assertEquals(100, DictionaryTrainer.train(samples, 100).length);
+        assertTrue(DictionaryTrainer.train(samples, Integer.MAX_VALUE).length <= DictionaryTrainer.MAX_DICTIONARY_SIZE);
+    }
+}
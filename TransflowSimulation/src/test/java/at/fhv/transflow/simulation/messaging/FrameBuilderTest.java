@@ -0,0 +1,72 @@
+package at.fhv.transflow.simulation.messaging;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class FrameBuilderTest {
+
+    @Test
+    void jsonFramesStayBelowMaximumSize() {
+        FrameBuilder builder = FrameBuilder.json(16);
+        for (int i = 0; i < 10; i++) {
+            builder.append(json("\"e" + i + "\""));
+        }
+
+        List<byte[]> frames = builder.build();
+
+        // every element takes 4 bytes plus a separator, so three elements fit into a frame of 16 bytes
+        assertEquals(List.of(
+            "[\"e0\",\"e1\",\"e2\"]",
+            "[\"e3\",\"e4\",\"e5\"]",
+            "[\"e6\",\"e7\",\"e8\"]",
+            "[\"e9\"]"
+        ), frames.stream().map(FrameBuilderTest::string).toList());
+        frames.forEach(frame -> assertTrue(frame.length <= 16));
+    }
+
+    @Test
+    void oversizedElementGetsFrameOfItsOwn() {
+        FrameBuilder builder = FrameBuilder.json(8);
+        builder.append(json("1"));
+        builder.append(json("\"oversized\""));
+        builder.append(json("2"));
+
+        assertEquals(List.of("[1]", "[\"oversized\"]", "[2]"),
+            builder.build().stream().map(FrameBuilderTest::string).toList());
+    }
+
+    @Test
+    void cborFramesAreIndefiniteLengthArraysWithoutSeparators() {
+        FrameBuilder builder = FrameBuilder.cbor(5);
+        // CBOR unsigned integers 1 to 5, each encoded in a single byte
+        for (byte i = 1; i <= 5; i++) {
+            builder.append(new byte[]{i});
+        }
+
+        List<byte[]> frames = builder.build();
+
+        assertEquals(2, frames.size());
+        assertArrayEquals(new byte[]{(byte) 0x9f, 1, 2, 3, (byte) 0xff}, frames.get(0));
+        assertArrayEquals(new byte[]{(byte) 0x9f, 4, 5, (byte) 0xff}, frames.get(1));
+    }
+
+    @Test
+    void buildWithoutElementsReturnsNoFrames() {
+        assertTrue(FrameBuilder.json(16).build().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> FrameBuilder.json(0));
+    }
+
+
+    private static byte[] json(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] frame) {
+        return new String(frame, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,98 @@
+package at.fhv.transflow.simulation.messaging.mqtt;
+
+import at.fhv.transflow.simulation.messaging.IMessagingService;
+import at.fhv.transflow.simulation.messaging.MessagingException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class ShardedMqttServiceTest {
+
+    @Test
+    void shardKeyRemovesSimulationTimeOnly() {
+        assertEquals("sim/run1/vehicles", ShardedMqttService.shardKey("sim/run1/vehicles/12000"));
+        assertEquals("sim/run1/vehicles", ShardedMqttService.shardKey("sim/run1/vehicles"));
+        assertEquals("sim/run1/vehicles/", ShardedMqttService.shardKey("sim/run1/vehicles/"));
+        assertEquals("sim/run1/v2", ShardedMqttService.shardKey("sim/run1/v2"));
+        assertEquals("12000", ShardedMqttService.shardKey("12000"));
+    }
+
+    @Test
+    void messagesOfTheSameEntityShareTheirShardAcrossSteps() {
+        for (int vehicle = 0; vehicle < 100; vehicle++) {
+            String key = "vehicle" + vehicle;
+            int shard = ShardedMqttService.shardIndex("sim/run1/vehicles/0", key, 4);
+
+            assertTrue(shard >= 0 && shard < 4);
+            for (int stepMillis = 1000; stepMillis <= 5000; stepMillis += 1000) {
+                assertEquals(shard, ShardedMqttService.shardIndex("sim/run1/vehicles/" + stepMillis, key, 4));
+            }
+        }
+    }
+
+    @Test
+    void entitiesAreSpreadOverEveryShard() {
+        Set<Integer> shards = new HashSet<>();
+        for (int vehicle = 0; vehicle < 100; vehicle++) {
+            shards.add(ShardedMqttService.shardIndex("sim/run1/vehicles/0", "vehicle" + vehicle, 4));
+        }
+
+        assertEquals(Set.of(0, 1, 2, 3), shards);
+    }
+
+    @Test
+    void messagesWithoutKeyAreShardedByTheirDomain() {
+        Set<Integer> shards = new HashSet<>();
+        for (int domain = 0; domain < 100; domain++) {
+            String domainTopic = "sim/run1/aggregates/domain" + domain;
+            int shard = ShardedMqttService.shardIndex(domainTopic + "/0", 4);
+
+            assertEquals(shard, ShardedMqttService.shardIndex(domainTopic + "/60000", 4));
+            shards.add(shard);
+        }
+
+        assertEquals(Set.of(0, 1, 2, 3), shards);
+    }
+
+    @Test
+    void broadcastIsSentOverEveryConnection() throws MessagingException {
+        List<RecordingService> connections = new ArrayList<>();
+        try (ShardedMqttService service = new ShardedMqttService("transflow", 3, clientId -> {
+            RecordingService connection = new RecordingService();
+            connections.add(connection);
+            return connection;
+        })) {
+            service.broadcastMessage("sim/run1/format", new byte[0], 1, true);
+            service.sendMessage("sim/run1/od", new byte[0], 1, true);
+        }
+
+        assertEquals(3, connections.size());
+        for (RecordingService connection : connections) {
+            assertEquals("sim/run1/format", connection.topics.get(0));
+            assertTrue(connection.closed);
+        }
+        assertEquals(1, connections.stream().filter(connection -> connection.topics.contains("sim/run1/od")).count());
+    }
+
+
+    private static class RecordingService implements IMessagingService {
+        private final List<String> topics = new ArrayList<>();
+        private boolean closed = false;
+
+        @Override
+        public void sendMessage(String topic, byte[] payload, int qos, boolean retained) {
+            topics.add(topic);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
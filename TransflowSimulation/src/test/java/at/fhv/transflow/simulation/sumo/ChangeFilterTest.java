@@ -0,0 +1,74 @@
+package at.fhv.transflow.simulation.sumo;
+
+import at.fhv.transflow.simulation.sumo.data.LaneData;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class ChangeFilterTest {
+
+    @Test
+    void publishesChangesBeyondDeadbandOnly() {
+        ChangeFilter<LaneData> filter = new ChangeFilter<>(Map.of("meanVehicleSpeed", 0.5), 100);
+
+        assertTrue(published(filter, lane("lane0", 10.0, 1)));
+        assertFalse(published(filter, lane("lane0", 10.4, 1)));
+        // compared to the last published state, so that slowly drifting values are still published
+        assertTrue(published(filter, lane("lane0", 10.8, 1)));
+        // fields without a deadband change on any difference
+        assertTrue(published(filter, lane("lane0", 10.8, 2)));
+    }
+
+    @Test
+    void publishesEveryObjectInKeyframes() {
+        ChangeFilter<LaneData> filter = new ChangeFilter<>(Map.of(), 2);
+
+        assertTrue(published(filter, lane("lane0", 10.0, 1)));
+        assertFalse(published(filter, lane("lane0", 10.0, 1)));
+        assertTrue(published(filter, lane("lane0", 10.0, 1)));
+    }
+
+    @Test
+    void publishesNewObjects() {
+        ChangeFilter<LaneData> filter = new ChangeFilter<>(Map.of(), 100);
+
+        assertEquals(List.of("lane0"), publishedIds(filter, lane("lane0", 10.0, 1)));
+        assertEquals(List.of("lane1"), publishedIds(filter, lane("lane0", 10.0, 1), lane("lane1", 10.0, 1)));
+    }
+
+    @Test
+    void countsNaNAndNullAsChanges() {
+        ChangeFilter<LaneData> filter = new ChangeFilter<>(Map.of("meanVehicleSpeed", 0.5), 100);
+
+        assertTrue(published(filter, lane("lane0", 10.0, 1)));
+        assertTrue(published(filter, lane("lane0", Double.NaN, 1)));
+        assertFalse(published(filter, lane("lane0", Double.NaN, 1)));
+        assertTrue(published(filter, lane("lane0", 10.0, 1)));
+        assertTrue(published(filter, lane("lane0", null, 1)));
+        assertFalse(published(filter, lane("lane0", null, 1)));
+    }
+
+    @Test
+    void rejectsNonPositiveKeyframeInterval() {
+        assertThrows(IllegalArgumentException.class, () -> new ChangeFilter<LaneData>(Map.of(), 0));
+    }
+
+
+    private static boolean published(ChangeFilter<LaneData> filter, LaneData lane) {
+        return !publishedIds(filter, lane).isEmpty();
+    }
+
+    private static List<String> publishedIds(ChangeFilter<LaneData> filter, LaneData... lanes) {
+        return filter.filter(Stream.of(lanes)).map(LaneData::id).toList();
+    }
+
+    private static LaneData lane(String id, Double meanVehicleSpeed, Integer vehicleCount) {
+        return new LaneData(id, null, null, null, null, null, null, null, null, vehicleCount,
+            new String[]{"vehicle0"}, null, meanVehicleSpeed, null, null, null, null);
+    }
+}
@@ -0,0 +1,96 @@
+package at.fhv.transflow.simulation.sumo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class ColumnQuantizerTest {
+
+    @Test
+    void quantizesWithoutDeltasIfDisabled() {
+        ColumnQuantizer quantizer = new ColumnQuantizer(Map.of("speed", 0.1), 0);
+
+        Map<String, Object> quantized = quantizer.quantize(columnMap(new int[]{0, 1}, new double[]{13.26, 0.04}));
+
+        assertArrayEquals(new long[]{133, 0}, (long[]) columns(quantized).get("SPEED"));
+        assertFalse(quantized.containsKey("deltas"));
+    }
+
+    @Test
+    void deltasAndKeyframesReconstructTheQuantizedValues() {
+        ColumnQuantizer quantizer = new ColumnQuantizer(Map.of("SPEED", 0.01), 3);
+        double[][] steps = {{10.0, 5.0}, {10.5, 5.25}, {11.0, 4.0}, {11.25, 3.0}, {12.0, 2.0}};
+        // the entity of code 1 is not part of the second step
+        int[][] idCodes = {{0, 1}, {0}, {1, 0}, {0, 1}, {0, 1}};
+
+        Map<Integer, Long> subscriberState = new LinkedHashMap<>();
+        for (int step = 0; step < steps.length; step++) {
+            double[] speeds = step == 1 ? new double[]{steps[step][0]} : steps[step];
+            Map<String, Object> quantized = quantizer.quantize(columnMap(idCodes[step], speeds));
+            long[] values = (long[]) columns(quantized).get("SPEED");
+            int[] deltaRows = (int[]) ((Map<?, ?>) quantized.get("deltas")).get("SPEED");
+
+            // steps 0 and 3 are keyframes, the first occurrence of an entity is always absolute
+            int expectedDeltas = switch (step) {
+                case 0, 3 -> 0;
+                case 1 -> 1;
+                default -> 2;
+            };
+            assertEquals(expectedDeltas, deltaRows.length, "Delta rows of step " + step);
+
+            for (int row = 0; row < values.length; row++) {
+                int code = idCodes[step][row];
+                long value = values[row];
+                if (contains(deltaRows, row)) value += subscriberState.get(code);
+                subscriberState.put(code, value);
+                assertEquals(Math.round(speeds[row] / 0.01), value, "Value of entity " + code + " in step " + step);
+            }
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void nullRowsAreNeitherDeltaCodedNorRemembered() {
+        ColumnQuantizer quantizer = new ColumnQuantizer(Map.of("SPEED", 1.0), 10);
+        Map<String, Object> withNull = columnMap(new int[]{0}, new double[]{0});
+        ((Map<String, Object>) withNull.get("nulls")).put("SPEED", new int[]{0});
+
+        quantizer.quantize(withNull);
+        Map<String, Object> quantized = quantizer.quantize(columnMap(new int[]{0}, new double[]{4}));
+
+        assertArrayEquals(new long[]{4}, (long[]) columns(quantized).get("SPEED"));
+        assertArrayEquals(new int[0], (int[]) ((Map<?, ?>) quantized.get("deltas")).get("SPEED"));
+    }
+
+    @Test
+    void rejectsNegativeKeyframeInterval() {
+        assertThrows(IllegalArgumentException.class, () -> new ColumnQuantizer(Map.of(), -1));
+    }
+
+
+    private static Map<String, Object> columnMap(int[] idCodes, double[] speeds) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("SPEED", speeds);
+        columns.put("LANE", new Object[idCodes.length]);
+        Map<String, Object> columnMap = new LinkedHashMap<>();
+        columnMap.put("idCodes", idCodes);
+        columnMap.put("columns", columns);
+        columnMap.put("nulls", new LinkedHashMap<String, Object>());
+        return columnMap;
+    }
+
+    private static Map<?, ?> columns(Map<String, Object> columnMap) {
+        return (Map<?, ?>) columnMap.get("columns");
+    }
+
+    private static boolean contains(int[] rows, int row) {
+        for (int candidate : rows) {
+            if (candidate == row) return true;
+        }
+        return false;
+    }
+}
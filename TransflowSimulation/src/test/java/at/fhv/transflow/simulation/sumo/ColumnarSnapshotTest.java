@@ -0,0 +1,74 @@
+package at.fhv.transflow.simulation.sumo;
+
+import at.fhv.transflow.simulation.sumo.data.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class ColumnarSnapshotTest {
+    private static final int SPEED = 1;
+    private static final int LANE = 2;
+    private static final int POSITION = 3;
+    private static final Map<Integer, String> COLUMN_NAMES = Map.of(SPEED, "SPEED", LANE, "LANE", POSITION, "POSITION");
+
+    @Test
+    void absentValuesAreTrackedAsNulls() {
+        ColumnarSnapshot snapshot = snapshot(new IdDictionary());
+
+        ColumnarSnapshot.Column speed = snapshot.column(SPEED);
+        assertFalse(speed.isNull(0));
+        assertTrue(speed.isNull(1));
+        assertFalse(speed.isNull(2));
+        assertEquals(13.5, speed.get(0));
+        assertNull(speed.get(1));
+        assertTrue(snapshot.column(LANE).isNull(0));
+        assertNull(snapshot.row(1).get(SPEED));
+    }
+
+    @Test
+    void columnMapListsNullRowsPerColumn() {
+        Map<String, Object> columnMap = snapshot(new IdDictionary()).toColumnMap(COLUMN_NAMES);
+
+        assertArrayEquals(new String[]{"veh0", "veh1", "veh2"}, (String[]) columnMap.get("ids"));
+        assertArrayEquals(new int[]{0, 1, 2}, (int[]) columnMap.get("idCodes"));
+        Map<?, ?> nulls = (Map<?, ?>) columnMap.get("nulls");
+        assertArrayEquals(new int[]{1}, (int[]) nulls.get("SPEED"));
+        assertArrayEquals(new int[]{0}, (int[]) nulls.get("LANE"));
+        // positions are present in every row, so they are not listed at all
+        assertFalse(nulls.containsKey("POSITION"));
+    }
+
+    @Test
+    void selectKeepsNullsOfCopiedRows() {
+        ColumnarSnapshot selected = snapshot(new IdDictionary()).select(new int[]{2, 1});
+
+        assertEquals(2, selected.rowCount());
+        assertEquals("veh2", selected.id(0));
+        assertEquals(2, selected.idCode(0));
+        assertEquals(7.0, selected.column(SPEED).get(0));
+        assertTrue(selected.column(SPEED).isNull(1));
+        assertEquals(new Position(1.0, 2.0, null), selected.column(POSITION).get(0));
+    }
+
+
+    private static ColumnarSnapshot snapshot(IdDictionary vehicles) {
+        Map<String, Map<Integer, Object>> values = new LinkedHashMap<>();
+        values.put("veh0", row(13.5, null, new Position(0.0, 0.0, null)));
+        values.put("veh1", row(null, "lane1", new Position(0.5, 1.0, null)));
+        values.put("veh2", row(7.0, "lane2", new Position(1.0, 2.0, null)));
+        return ColumnarSnapshot.ofValues(values, vehicles);
+    }
+
+    private static Map<Integer, Object> row(Double speed, String lane, Position position) {
+        Map<Integer, Object> row = new HashMap<>();
+        row.put(SPEED, speed);
+        row.put(LANE, lane);
+        row.put(POSITION, position);
+        return row;
+    }
+}
@@ -0,0 +1,85 @@
+package at.fhv.transflow.simulation.sumo;
+
+import at.fhv.transflow.simulation.sumo.data.Position;
+import at.fhv.transflow.simulation.sumo.mapping.VehicleMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class EmissionGridTest {
+    private static final int POSITION = VehicleMapper.Fields.POSITION.sumoPropertyId;
+    private static final int CO2 = VehicleMapper.Fields.CO_2_MG_PER_SECOND.sumoPropertyId;
+    // 10 columns and 5 rows of 10m cells
+    private static final List<Double[]> BOUNDARY = List.of(new Double[]{0.0, 0.0}, new Double[]{100.0, 50.0});
+    private final IdDictionary vehicles = new IdDictionary();
+
+    @Test
+    void indexesCellsRowByRowFromTheOrigin() {
+        EmissionGrid grid = new EmissionGrid(BOUNDARY, 10, 1000, 500);
+
+        assertTrue(grid.add(0, snapshot(Map.of("v0", vehicle(15, 25, 100.0), "v1", vehicle(99, 0, 10.0)))).isEmpty());
+        assertTrue(grid.add(500, snapshot(Map.of("v0", vehicle(19, 29, 100.0)))).isEmpty());
+        Map<String, Object> heatmap = grid.add(1000, snapshot(Map.of())).orElseThrow();
+
+        assertEquals(0L, heatmap.get("windowStart"));
+        assertEquals(1000L, heatmap.get("windowEnd"));
+        assertEquals(10, heatmap.get("columns"));
+        assertEquals(5, heatmap.get("rows"));
+        assertArrayEquals(new int[]{9, 21}, (int[]) heatmap.get("cells"));
+        // emission rates multiplied by the 0.5s represented by every step
+        assertArrayEquals(new double[]{5.0, 100.0}, (double[]) heatmap.get("CO2_MG"), 1e-9);
+    }
+
+    @Test
+    void ignoresVehiclesOutsideOfTheBoundary() {
+        EmissionGrid grid = new EmissionGrid(BOUNDARY, 10, 1000, 1000);
+
+        grid.add(0, snapshot(Map.of(
+            "v0", vehicle(-0.1, 10, 1.0),
+            "v1", vehicle(100, 10, 1.0),
+            "v2", vehicle(10, 50, 1.0),
+            "v3", vehicle(10, -5, 1.0),
+            "v4", vehicle(0, 0, 1.0)
+        )));
+        Map<String, Object> heatmap = grid.finish().orElseThrow();
+
+        assertArrayEquals(new int[]{0}, (int[]) heatmap.get("cells"));
+        assertTrue(grid.finish().isEmpty());
+    }
+
+    @Test
+    void startsEveryWindowWithEmptyCells() {
+        EmissionGrid grid = new EmissionGrid(BOUNDARY, 10, 1000, 1000);
+
+        grid.add(0, snapshot(Map.of("v0", vehicle(5, 5, 1.0))));
+        grid.add(1000, snapshot(Map.of("v0", vehicle(15, 5, 2.0))));
+        Map<String, Object> heatmap = grid.finish().orElseThrow();
+
+        assertEquals(1000L, heatmap.get("windowStart"));
+        assertArrayEquals(new int[]{1}, (int[]) heatmap.get("cells"));
+        assertArrayEquals(new double[]{2.0}, (double[]) heatmap.get("CO2_MG"), 1e-9);
+    }
+
+    @Test
+    void rejectsNonPositiveCellSize() {
+        assertThrows(IllegalArgumentException.class, () -> new EmissionGrid(BOUNDARY, 0, 1000, 1000));
+    }
+
+
+    private ColumnarSnapshot snapshot(Map<String, Map<Integer, Object>> vehicleValues) {
+        return ColumnarSnapshot.ofValues(new LinkedHashMap<>(vehicleValues), vehicles);
+    }
+
+    private static Map<Integer, Object> vehicle(double x, double y, double co2) {
+        Map<Integer, Object> values = new HashMap<>();
+        values.put(POSITION, new Position(x, y, null));
+        values.put(CO2, co2);
+        return values;
+    }
+}
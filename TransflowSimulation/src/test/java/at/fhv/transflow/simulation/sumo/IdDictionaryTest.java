@@ -0,0 +1,67 @@
+package at.fhv.transflow.simulation.sumo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class IdDictionaryTest {
+
+    @Test
+    void codesAreAssignedInAscendingOrderAndNeverChange() {
+        IdDictionary dictionary = new IdDictionary();
+
+        assertEquals(0, dictionary.encode("veh0"));
+        assertEquals(1, dictionary.encode("veh1"));
+        assertEquals(0, dictionary.encode("veh0"));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    void decodesEveryCodeAfterGrowing() {
+        IdDictionary dictionary = new IdDictionary();
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i, dictionary.encode("veh" + i));
+        }
+
+        assertEquals(5000, dictionary.size());
+        for (int i = 0; i < 5000; i++) {
+            assertEquals("veh" + i, dictionary.decode(i));
+        }
+    }
+
+    @Test
+    void decodeReturnsTheFirstInstanceOfAnId() {
+        IdDictionary dictionary = new IdDictionary();
+        String id = new String("veh0");
+        dictionary.encode(id);
+
+        dictionary.encode(new String("veh0"));
+
+        assertSame(id, dictionary.decode(0));
+    }
+
+    @Test
+    void rejectsUnknownCodes() {
+        IdDictionary dictionary = new IdDictionary();
+        dictionary.encode("veh0");
+
+        assertThrows(IndexOutOfBoundsException.class, () -> dictionary.decode(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> dictionary.decode(-1));
+    }
+
+    @Test
+    void referencesAreEncodedExceptEmptyIds() {
+        IdDictionary dictionary = new IdDictionary();
+
+        dictionary.encodeReferences(new String[]{"edge0", "edge1"});
+        dictionary.encodeReferences("");
+        dictionary.encodeReferences("_none");
+
+        assertEquals(2, dictionary.size());
+        assertEquals(-1, dictionary.codeOf("edge2"));
+        assertArrayEquals(new int[]{1, 0}, (int[]) dictionary.referenceCodes(new String[]{"edge1", "edge0"}));
+        assertEquals(1, dictionary.referenceCodes("edge1"));
+        assertNull(dictionary.referenceCodes(""));
+    }
+}
@@ -0,0 +1,100 @@
+package at.fhv.transflow.simulation.sumo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class QuantileAggregatorTest {
+
+    @Test
+    void tumblingWindowIsCompletedByFirstStepAfterItsEnd() {
+        QuantileAggregator aggregator = new QuantileAggregator(1000, 1000, "SPEED");
+
+        for (int stepMillis = 0; stepMillis < 1000; stepMillis += 100) {
+            assertTrue(aggregator.startStep(stepMillis).isEmpty());
+            aggregator.add(0, 0, 10);
+        }
+        Optional<QuantileAggregator.Window> window = aggregator.startStep(1000);
+
+        assertTrue(window.isPresent());
+        assertEquals(new QuantileAggregator.Window(0, 1000), window.get());
+        Map<String, Object> speed = entity(aggregator.toPayload(window.get(), String::valueOf), 0, "SPEED");
+        assertEquals(10L, speed.get("count"));
+        assertEquals(10, (double) speed.get("p50"), 0.1);
+    }
+
+    @Test
+    void slidingWindowsMergeTheirPanes() {
+        QuantileAggregator aggregator = new QuantileAggregator(2000, 1000, "SPEED");
+
+        aggregator.startStep(0);
+        aggregator.add(0, 0, 10);
+        QuantileAggregator.Window first = aggregator.startStep(1000).orElseThrow();
+        aggregator.add(0, 0, 20);
+        QuantileAggregator.Window second = aggregator.startStep(2000).orElseThrow();
+
+        // the first window of a run only covers the panes since the start of the aggregation
+        assertEquals(new QuantileAggregator.Window(0, 1000), first);
+        assertEquals(new QuantileAggregator.Window(0, 2000), second);
+        assertEquals(2L, entity(aggregator.toPayload(second, String::valueOf), 0, "SPEED").get("count"));
+
+        aggregator.add(0, 0, 30);
+        QuantileAggregator.Window third = aggregator.startStep(3000).orElseThrow();
+        assertEquals(new QuantileAggregator.Window(1000, 3000), third);
+        Map<String, Object> speed = entity(aggregator.toPayload(third, String::valueOf), 0, "SPEED");
+        assertEquals(2L, speed.get("count"));
+        // the value of the first pane has left the window
+        assertEquals(20, (double) speed.get("p50"), 0.2);
+    }
+
+    @Test
+    void omitsEntitiesWithoutValues() {
+        QuantileAggregator aggregator = new QuantileAggregator(1000, 1000, "SPEED", "TIME_LOSS");
+
+        aggregator.startStep(0);
+        aggregator.add(0, 1, 5);
+        // creates the sketches of the entity without adding any value to the window's metrics
+        aggregator.startStep(1000);
+        aggregator.add(1, 0, 1);
+        aggregator.startStep(2000);
+        QuantileAggregator.Window window = aggregator.startStep(3000).orElseThrow();
+
+        assertEquals(List.of(), aggregator.toPayload(window, String::valueOf).get("entities"));
+    }
+
+    @Test
+    void finishCompletesTheOpenWindow() {
+        QuantileAggregator aggregator = new QuantileAggregator(1000, 1000, "SPEED");
+
+        aggregator.startStep(0);
+        aggregator.add(300, 0, 10);
+        QuantileAggregator.Window window = aggregator.finish().orElseThrow();
+
+        assertEquals(new QuantileAggregator.Window(0, 1000), window);
+        assertEquals(1L, entity(aggregator.toPayload(window, String::valueOf), 300, "SPEED").get("count"));
+        assertTrue(aggregator.finish().isEmpty());
+    }
+
+    @Test
+    void rejectsWindowsWhichAreNoMultipleOfTheSlide() {
+        assertThrows(IllegalArgumentException.class, () -> new QuantileAggregator(1500, 1000, "SPEED"));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileAggregator(500, 1000, "SPEED"));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileAggregator(1000, 0, "SPEED"));
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> entity(Map<String, Object> payload, int idCode, String metric) {
+        List<Map<String, Object>> entities = (List<Map<String, Object>>) payload.get("entities");
+        Map<String, Object> entity = entities.stream()
+            .filter(candidate -> candidate.get("id").equals(String.valueOf(idCode)))
+            .findFirst()
+            .orElseThrow();
+        return (Map<String, Object>) entity.get(metric);
+    }
+}
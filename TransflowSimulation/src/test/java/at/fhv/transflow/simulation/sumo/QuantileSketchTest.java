@@ -0,0 +1,84 @@
+package at.fhv.transflow.simulation.sumo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class QuantileSketchTest {
+    private static final double ACCURACY = 0.01;
+
+    @Test
+    void emptySketchHasNoQuantiles() {
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+
+        assertEquals(0, sketch.count());
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+    }
+
+    @Test
+    void quantilesStayWithinRelativeAccuracy() {
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        for (int value = 1; value <= 1000; value++) {
+            sketch.add(value);
+        }
+
+        assertEquals(1000, sketch.count());
+        assertEquals(500, sketch.quantile(0.5), 500 * ACCURACY);
+        assertEquals(900, sketch.quantile(0.9), 900 * ACCURACY);
+        assertEquals(990, sketch.quantile(0.99), 990 * ACCURACY);
+        assertEquals(1000, sketch.quantile(1), 1000 * ACCURACY);
+    }
+
+    @Test
+    void valuesBelowMinimumCountAsZero() {
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        sketch.add(0);
+        sketch.add(0);
+        sketch.add(10);
+
+        assertEquals(0, sketch.quantile(0.5));
+        assertEquals(10, sketch.quantile(1), 10 * ACCURACY);
+    }
+
+    @Test
+    void mergedSketchEqualsSketchOfAllValues() {
+        QuantileSketch low = new QuantileSketch(ACCURACY);
+        QuantileSketch high = new QuantileSketch(ACCURACY);
+        QuantileSketch all = new QuantileSketch(ACCURACY);
+        for (int value = 1; value <= 100; value++) {
+            low.add(value);
+            all.add(value);
+            high.add(value * 100);
+            all.add(value * 100);
+        }
+
+        low.merge(high);
+
+        assertEquals(all.count(), low.count());
+        for (double quantile : new double[]{0, 0.25, 0.5, 0.9, 0.99, 1}) {
+            assertEquals(all.quantile(quantile), low.quantile(quantile));
+        }
+    }
+
+    @Test
+    void clearedSketchIsEmpty() {
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        sketch.add(42);
+        sketch.clear();
+
+        assertEquals(0, sketch.count());
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+
+        sketch.add(7);
+        assertEquals(7, sketch.quantile(0.5), 7 * ACCURACY);
+    }
+
+    @Test
+    void rejectsInvalidAccuracyAndMismatchingMerges() {
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(0));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(1));
+        assertThrows(IllegalArgumentException.class,
+            () -> new QuantileSketch(0.01).merge(new QuantileSketch(0.02)));
+    }
+}
@@ -0,0 +1,82 @@
+package at.fhv.transflow.simulation.sumo;
+
+import at.fhv.transflow.simulation.sumo.data.Position;
+import at.fhv.transflow.simulation.sumo.mapping.VehicleMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class TrajectoryFilterTest {
+    private static final int POSITION = VehicleMapper.Fields.POSITION.sumoPropertyId;
+    private final IdDictionary vehicles = new IdDictionary();
+
+    @Test
+    void publishesVehiclesDeviatingFromTheirExtrapolatedPosition() {
+        TrajectoryFilter filter = new TrajectoryFilter(1.0);
+
+        assertEquals(List.of("v0"), ids(filter.filter(0, snapshot(Map.of("v0", position(0, 0))))));
+        // a single published position is held, so that the first movement is published
+        assertEquals(List.of("v0"), ids(filter.filter(1000, snapshot(Map.of("v0", position(10, 0))))));
+        // driving straight at a constant speed follows the extrapolation
+        assertEquals(List.of(), ids(filter.filter(2000, snapshot(Map.of("v0", position(20, 0))))));
+        assertEquals(List.of(), ids(filter.filter(3000, snapshot(Map.of("v0", position(30.5, 0))))));
+        assertEquals(List.of("v0"), ids(filter.filter(4000, snapshot(Map.of("v0", position(40, 5))))));
+    }
+
+    @Test
+    void publishesVehiclesWithoutValidPosition() {
+        TrajectoryFilter filter = new TrajectoryFilter(1.0);
+
+        filter.filter(0, snapshot(Map.of("v0", position(0, 0))));
+        assertEquals(List.of("v0"), ids(filter.filter(1000, snapshot(Map.of("v0", new Position())))));
+        assertEquals(List.of("v0"), ids(filter.filter(2000, snapshot(Map.of("v0", position(0, 0))))));
+    }
+
+    @Test
+    void publishesLastUnpublishedStateOnArrival() {
+        TrajectoryFilter filter = new TrajectoryFilter(1.0);
+
+        filter.filter(0, snapshot(Map.of("v0", position(0, 0), "v1", position(0, 0))));
+        // neither vehicle moves, so neither is published
+        assertEquals(List.of(), ids(filter.filter(1000, snapshot(Map.of("v0", position(0, 0), "v1", position(0, 0))))));
+
+        ColumnarSnapshot arrived = filter.filter(2000, snapshot(Map.of("v0", position(0, 0))));
+        assertEquals(List.of("v1"), ids(arrived));
+        assertEquals(new Position(0.0, 0.0, null), arrived.column(POSITION).get(0));
+
+        // a vehicle published in its last step is not published again on arrival
+        filter.filter(3000, snapshot(Map.of("v0", position(50, 0))));
+        assertEquals(List.of(), ids(filter.filter(4000, snapshot(Map.of()))));
+    }
+
+    @Test
+    void rejectsNonPositiveTolerance() {
+        assertThrows(IllegalArgumentException.class, () -> new TrajectoryFilter(0));
+        assertThrows(IllegalArgumentException.class, () -> new TrajectoryFilter(Double.NaN));
+    }
+
+
+    private ColumnarSnapshot snapshot(Map<String, Position> positions) {
+        Map<String, Map<Integer, Object>> values = new LinkedHashMap<>();
+        positions.forEach((id, position) -> values.put(id, Map.of(POSITION, position)));
+        return ColumnarSnapshot.ofValues(values, vehicles);
+    }
+
+    private static Position position(double x, double y) {
+        return new Position(x, y, null);
+    }
+
+    private static List<String> ids(ColumnarSnapshot snapshot) {
+        List<String> ids = new ArrayList<>();
+        for (int row = 0; row < snapshot.rowCount(); row++) {
+            ids.add(snapshot.id(row));
+        }
+        return ids;
+    }
+}
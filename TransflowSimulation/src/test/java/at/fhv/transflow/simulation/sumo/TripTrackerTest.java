@@ -0,0 +1,115 @@
+package at.fhv.transflow.simulation.sumo;
+
+import at.fhv.transflow.simulation.sumo.data.TripData;
+import at.fhv.transflow.simulation.sumo.mapping.VehicleMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class TripTrackerTest {
+    private static final int ROAD_ID = VehicleMapper.Fields.ROAD_ID.sumoPropertyId;
+    private static final int WAITING_TIME = VehicleMapper.Fields.TOTAL_WAITING_TIME.sumoPropertyId;
+    private static final int DISTANCE = VehicleMapper.Fields.TOTAL_DISTANCE.sumoPropertyId;
+    private final IdDictionaries dictionaries = new IdDictionaries();
+
+    TripTrackerTest() {
+        for (String edgeId : List.of("e0", "e1", "e2")) {
+            dictionaries.edges().encode(edgeId);
+        }
+    }
+
+    @Test
+    void completesTripOnceTheVehicleIsMissing() {
+        TripTracker tracker = new TripTracker(dictionaries, Map.of(), false);
+
+        assertEquals(List.of(), tracker.add(0, snapshot(Map.of("v0", vehicle("e0", 0.0, 0.0)))));
+        assertEquals(List.of(), tracker.add(1000, snapshot(Map.of("v0", vehicle(":j0_0", 0.0, 10.0)))));
+        assertEquals(List.of(), tracker.add(2000, snapshot(Map.of("v0", vehicle("e1", 0.0, 20.0)))));
+        List<TripData> trips = tracker.add(3000, snapshot(Map.of()));
+
+        assertEquals(1, trips.size());
+        TripData trip = trips.get(0);
+        assertEquals("v0", trip.id());
+        // internal edges of junctions are never the start or end of a trip
+        assertEquals("e0", trip.startEdgeId());
+        assertEquals("e1", trip.endEdgeId());
+        assertEquals(0, trip.departureMillis());
+        assertEquals(3000, trip.arrivalMillis());
+        assertEquals(20.0, trip.totalDistance());
+        assertNull(trip.originZone());
+        // completed trips are not reported again
+        assertEquals(List.of(), tracker.add(4000, snapshot(Map.of())));
+    }
+
+    @Test
+    void sumsWaitingTimeOfEveryStop() {
+        TripTracker tracker = new TripTracker(dictionaries, Map.of(), false);
+
+        // SUMO resets the waiting time whenever the vehicle starts driving again
+        double[] waitingTimes = {0, 1, 2, 0, 0, 1, 3, 0};
+        for (int step = 0; step < waitingTimes.length; step++) {
+            tracker.add(step * 1000, snapshot(Map.of("v0", vehicle("e0", waitingTimes[step], 0.0))));
+        }
+        TripData trip = tracker.add(waitingTimes.length * 1000, snapshot(Map.of())).get(0);
+
+        assertEquals(5.0, trip.totalWaitingTime());
+    }
+
+    @Test
+    void countsCompletedTripsBetweenZones() {
+        TripTracker tracker = new TripTracker(dictionaries,
+            Map.of("north", Set.of("e0"), "south", Set.of("e1", "e2")), false);
+
+        tracker.add(0, snapshot(Map.of(
+            "v0", vehicle("e0", 0.0, 0.0),
+            "v1", vehicle("e0", 0.0, 0.0),
+            "v2", vehicle("e2", 0.0, 0.0)
+        )));
+        tracker.add(1000, snapshot(Map.of(
+            "v0", vehicle("e1", 0.0, 0.0),
+            "v1", vehicle("e2", 0.0, 0.0),
+            "v2", vehicle("e1", 0.0, 0.0)
+        )));
+        List<TripData> trips = tracker.add(2000, snapshot(Map.of()));
+
+        assertEquals(3, trips.size());
+        assertEquals(Map.of("north", Map.of("south", 2), "south", Map.of("south", 1)), tracker.getOdMatrix());
+    }
+
+    @Test
+    void ignoresVehiclesDrivingBeforeTheTrackingStarted() {
+        TripTracker tracker = new TripTracker(dictionaries, Map.of(), true);
+
+        tracker.add(0, snapshot(Map.of("v0", vehicle("e0", 0.0, 0.0))));
+        tracker.add(1000, snapshot(Map.of("v0", vehicle("e0", 0.0, 0.0), "v1", vehicle("e1", 0.0, 0.0))));
+        List<TripData> trips = tracker.add(2000, snapshot(Map.of()));
+
+        assertEquals(List.of("v1"), trips.stream().map(TripData::id).toList());
+    }
+
+    @Test
+    void rejectsEdgesInMultipleZones() {
+        assertThrows(IllegalArgumentException.class, () ->
+            new TripTracker(dictionaries, Map.of("north", Set.of("e0"), "south", Set.of("e0")), false));
+    }
+
+
+    private ColumnarSnapshot snapshot(Map<String, Map<Integer, Object>> vehicleValues) {
+        return ColumnarSnapshot.ofValues(new LinkedHashMap<>(vehicleValues), dictionaries.vehicles());
+    }
+
+    private static Map<Integer, Object> vehicle(String roadId, double waitingTime, double distance) {
+        Map<Integer, Object> values = new HashMap<>();
+        values.put(ROAD_ID, roadId);
+        values.put(WAITING_TIME, waitingTime);
+        values.put(DISTANCE, distance);
+        return values;
+    }
+}
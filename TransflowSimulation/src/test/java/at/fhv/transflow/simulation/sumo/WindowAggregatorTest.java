@@ -0,0 +1,116 @@
+package at.fhv.transflow.simulation.sumo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class WindowAggregatorTest {
+    private static final int SPEED = 1;
+    private static final int COUNT = 2;
+    private final IdDictionary lanes = new IdDictionary();
+
+    @Test
+    void aggregatesEveryColumnPerEntity() {
+        WindowAggregator aggregator = new WindowAggregator(1000, 1000, 500, Map.of(SPEED, "SPEED", COUNT, "COUNT"));
+
+        assertTrue(aggregator.add(0, snapshot("lane0", 10.0, 1)).isEmpty());
+        assertTrue(aggregator.add(500, snapshot("lane0", 20.0, 3)).isEmpty());
+        WindowAggregator.Window window = aggregator.add(1000, snapshot("lane0", 0.0, 0)).orElseThrow();
+
+        assertEquals(0, window.startMillis());
+        assertEquals(1000, window.endMillis());
+        Map<String, Object> lane = onlyEntity(aggregator.toPayload(window, lanes::decode));
+        assertEquals("lane0", lane.get("id"));
+        assertEquals(Map.of("mean", 15.0, "min", 10.0, "max", 20.0, "total", 15.0), lane.get("SPEED"));
+        assertEquals(Map.of("mean", 2.0, "min", 1.0, "max", 3.0, "total", 2.0), lane.get("COUNT"));
+    }
+
+    @Test
+    void slidingWindowsMergeTheirPanes() {
+        WindowAggregator aggregator = new WindowAggregator(2000, 1000, 1000, Map.of(SPEED, "SPEED"));
+
+        aggregator.add(0, snapshot("lane0", 10.0, null));
+        WindowAggregator.Window first = aggregator.add(1000, snapshot("lane0", 20.0, null)).orElseThrow();
+        WindowAggregator.Window second = aggregator.add(2000, snapshot("lane0", 30.0, null)).orElseThrow();
+        WindowAggregator.Window third = aggregator.add(3000, snapshot("lane0", 40.0, null)).orElseThrow();
+
+        // the first window of a run only covers the panes since the start of the aggregation
+        assertEquals(0, first.startMillis());
+        assertEquals(1000, first.endMillis());
+        assertEquals(0, second.startMillis());
+        assertEquals(2000, second.endMillis());
+        assertEquals(1000, third.startMillis());
+        assertEquals(3000, third.endMillis());
+        assertEquals(Map.of("mean", 25.0, "min", 20.0, "max", 30.0, "total", 50.0),
+            onlyEntity(aggregator.toPayload(third, lanes::decode)).get("SPEED"));
+    }
+
+    @Test
+    void omitsColumnsWithoutValues() {
+        WindowAggregator aggregator = new WindowAggregator(1000, 1000, 1000, Map.of(SPEED, "SPEED", COUNT, "COUNT"));
+
+        aggregator.add(0, snapshot("lane0", 10.0, null));
+        WindowAggregator.Window window = aggregator.add(1000, snapshot("lane0", 10.0, null)).orElseThrow();
+
+        Map<String, Object> lane = onlyEntity(aggregator.toPayload(window, lanes::decode));
+        assertTrue(lane.containsKey("SPEED"));
+        assertFalse(lane.containsKey("COUNT"));
+    }
+
+    @Test
+    void finishCompletesTheOpenWindow() {
+        WindowAggregator aggregator = new WindowAggregator(1000, 1000, 1000, Map.of(SPEED, "SPEED"));
+
+        aggregator.add(0, snapshot("lane0", 10.0, null));
+        WindowAggregator.Window window = aggregator.finish().orElseThrow();
+
+        assertEquals(0, window.startMillis());
+        assertEquals(1000, window.endMillis());
+        assertEquals(10.0, ((Map<?, ?>) onlyEntity(aggregator.toPayload(window, lanes::decode)).get("SPEED")).get("max"));
+        assertTrue(aggregator.finish().isEmpty());
+    }
+
+    @Test
+    void recycledPanesStartEmpty() {
+        WindowAggregator aggregator = new WindowAggregator(1000, 1000, 1000, Map.of(SPEED, "SPEED"));
+
+        aggregator.add(0, snapshot("lane0", 10.0, null));
+        aggregator.add(1000, snapshot("lane1", 20.0, null));
+        WindowAggregator.Window window = aggregator.add(2000, snapshot("lane0", 30.0, null)).orElseThrow();
+
+        Map<String, Object> lane = onlyEntity(aggregator.toPayload(window, lanes::decode));
+        assertEquals("lane1", lane.get("id"));
+        assertEquals(Map.of("mean", 20.0, "min", 20.0, "max", 20.0, "total", 20.0), lane.get("SPEED"));
+
+        // the pane of the first window is reused for the third one
+        lane = onlyEntity(aggregator.toPayload(aggregator.finish().orElseThrow(), lanes::decode));
+        assertEquals("lane0", lane.get("id"));
+        assertEquals(Map.of("mean", 30.0, "min", 30.0, "max", 30.0, "total", 30.0), lane.get("SPEED"));
+    }
+
+    @Test
+    void rejectsWindowsWhichAreNoMultipleOfTheSlide() {
+        assertThrows(IllegalArgumentException.class, () -> new WindowAggregator(1500, 1000, 1000, Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> new WindowAggregator(0, 5000, 1000, Map.of()));
+    }
+
+
+    private ColumnarSnapshot snapshot(String laneId, Double speed, Integer count) {
+        Map<Integer, Object> values = new HashMap<>();
+        values.put(SPEED, speed);
+        values.put(COUNT, count);
+        return ColumnarSnapshot.ofValues(Map.of(laneId, values), lanes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> onlyEntity(Map<String, Object> payload) {
+        List<Map<String, Object>> entities = (List<Map<String, Object>>) payload.get("entities");
+        assertEquals(1, entities.size());
+        return entities.get(0);
+    }
+}
@@ -0,0 +1,156 @@
+package at.fhv.transflow.simulation.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@Timeout(10)
+class BoundedWorkQueueTest {
+
+    @Test
+    void batchCompletesOnceEveryTaskHasBeenExecuted() throws InterruptedException {
+        try (BoundedWorkQueue queue = new BoundedWorkQueue(4, 16, BoundedWorkQueue.OverflowPolicy.BLOCK)) {
+            AtomicInteger executed = new AtomicInteger(0);
+
+            for (int step = 0; step < 100; step++) {
+                BoundedWorkQueue.Batch batch = queue.newBatch();
+                for (int i = 0; i < 50; i++) {
+                    batch.execute(executed::incrementAndGet);
+                }
+                batch.awaitCompletion();
+                assertEquals((step + 1) * 50, executed.get());
+            }
+            assertEquals(0, queue.getDroppedTasks());
+        }
+    }
+
+    @Test
+    void emptyBatchCompletesImmediately() throws InterruptedException {
+        try (BoundedWorkQueue queue = new BoundedWorkQueue(1, 1, BoundedWorkQueue.OverflowPolicy.BLOCK)) {
+            queue.newBatch().awaitCompletion();
+        }
+    }
+
+    @Test
+    void fullQueueDropsTasks() throws InterruptedException {
+        try (BoundedWorkQueue queue = new BoundedWorkQueue(1, 1, BoundedWorkQueue.OverflowPolicy.DROP)) {
+            CountDownLatch blocked = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            BoundedWorkQueue.Batch batch = queue.newBatch();
+
+            // occupies the only worker, then fills the only slot
+            batch.execute(() -> {
+                blocked.countDown();
+                awaitQuietly(release);
+            });
+            blocked.await();
+            batch.execute(() -> { });
+            batch.execute(() -> fail("Task should have been dropped"));
+
+            release.countDown();
+            batch.awaitCompletion();
+            assertEquals(1, queue.getDroppedTasks());
+        }
+    }
+
+    @Test
+    void blockingTasksAreNeverDropped() throws InterruptedException {
+        try (BoundedWorkQueue queue = new BoundedWorkQueue(1, 1, BoundedWorkQueue.OverflowPolicy.DROP)) {
+            CountDownLatch blocked = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicInteger executed = new AtomicInteger(0);
+            BoundedWorkQueue.Batch batch = queue.newBatch();
+
+            batch.execute(() -> {
+                blocked.countDown();
+                awaitQuietly(release);
+            });
+            blocked.await();
+            batch.execute(executed::incrementAndGet);
+
+            Thread releaser = new Thread(() -> {
+                sleepQuietly();
+                release.countDown();
+            });
+            releaser.start();
+            // the queue is full, so this waits until the worker has been released
+            batch.executeBlocking(executed::incrementAndGet);
+
+            batch.awaitCompletion();
+            releaser.join();
+            assertEquals(2, executed.get());
+            assertEquals(0, queue.getDroppedTasks());
+        }
+    }
+
+    @Test
+    void callerRunsTasksOfFullQueue() throws InterruptedException {
+        try (BoundedWorkQueue queue = new BoundedWorkQueue(1, 1, BoundedWorkQueue.OverflowPolicy.CALLER_RUNS)) {
+            CountDownLatch blocked = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            BoundedWorkQueue.Batch batch = queue.newBatch();
+            Thread caller = Thread.currentThread();
+            AtomicInteger executedByCaller = new AtomicInteger(0);
+
+            batch.execute(() -> {
+                blocked.countDown();
+                awaitQuietly(release);
+            });
+            blocked.await();
+            batch.execute(() -> { });
+            batch.execute(() -> {
+                if (Thread.currentThread() == caller) executedByCaller.incrementAndGet();
+            });
+
+            release.countDown();
+            batch.awaitCompletion();
+            assertEquals(1, executedByCaller.get());
+        }
+    }
+
+    @Test
+    void closeExecutesEveryWaitingTask() {
+        BoundedWorkQueue queue = new BoundedWorkQueue(2, 100, BoundedWorkQueue.OverflowPolicy.BLOCK);
+        AtomicInteger executed = new AtomicInteger(0);
+        BoundedWorkQueue.Batch batch = queue.newBatch();
+        for (int i = 0; i < 100; i++) {
+            batch.execute(() -> {
+                sleepQuietly();
+                executed.incrementAndGet();
+            });
+        }
+
+        queue.close();
+        assertEquals(100, executed.get());
+    }
+
+    @Test
+    void rejectsLessThanOneSlotPerWorker() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new BoundedWorkQueue(0, 1, BoundedWorkQueue.OverflowPolicy.BLOCK));
+        assertThrows(IllegalArgumentException.class,
+            () -> new BoundedWorkQueue(4, 3, BoundedWorkQueue.OverflowPolicy.BLOCK));
+    }
+
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}